@@ -1,6 +1,8 @@
 grammar Log;
 
-start: (element_line | error_char)+;
+start: line+;
+
+line: element_line | error_char;
 
 element_line: elements NEWLINE;
 elements:         node
@@ -50,9 +52,7 @@ ch: 'CH' SEP elem_name SEP STATE SEP time;
 
 msg: 'MSG' SEP node_name SEP time SEP message;
 
-data: 'DATA' SEP train_readable_name SEP time WHITESPACE speed SEP time_with_wrapper;
-
-MV_IND: 'MV';
+data: 'DATA' SEP train_readable_name SEP TIME_AND_SPEED SEP TIME_WRAPPER;
 
 sw_name: name;
 node_name: name;
@@ -64,21 +64,23 @@ train_name: name;
 kind: name;
 speed: INT;
 distance: INT;
-train_readable_name: (WORD | INT)+;
+train_readable_name: (ALNUM | INT)+;
 elem_name: name;
 elem_abs_name: name;
+// usually a single token, several only if the name contains characters the lexer drops
 name: any+;
 coord: INT SEP INT;
-name_prefix: '<' INT DOT INT DOT INT '>' COLON;
 time: rat | INT;
-rat: INT '/' INT;
-time_with_wrapper: 'Time' '(' time ')';
+rat: RAT;
 message: any+;
 any: ~(NEWLINE | SEP);
 error_char: .;
 value: INT;
 bool: 'False' | 'True';
 
+// Names and messages are lexed as whole fields. If a field matches several rules with the same
+// length, the first rule wins, so the fields which have to be recognized (keywords, states,
+// numbers) are defined before NAME.
 
 STATE:   NOSIG
        | FAHRT
@@ -87,17 +89,20 @@ STATE:   NOSIG
 NOSIG: 'NOSIG';
 FAHRT: 'FAHRT';
 STOP: 'STOP';
+MV_IND: 'MV';
 INT: DIGIT+;
-WORD: (LOWERCASE_CHAR | UPPERCASE_CHAR)+;
-LOWERCASE_WORD: LOWERCASE_CHAR+;
-UPPERCASE_WORD: UPPERCASE_CHAR+;
-LOWERCASE_CHAR: ('a' .. 'z');
-UPPERCASE_CHAR: ('A' .. 'Z');
-DIGIT: ('0' .. '9');
-DOT: '.';
+RAT: DIGIT+ '/' DIGIT+;
+ALNUM: (LETTER | DIGIT)+;
+// the fields of DATA lines, e.g. "38 38" and "Time(38)"
+TIME_AND_SPEED: TIME [ \t] DIGIT+;
+TIME_WRAPPER: 'Time(' TIME ')';
 SEP: ';';
-COLON: ':';
-UNDERSCORE: '_';
 NEWLINE: '\n' | '\r' | '\r\n';
 WHITESPACE: ' ' | '\t';
-SIGNAL : 'SIGNAL';
\ No newline at end of file
+NAME: (LETTER | DIGIT | [._:<>/() \t])+;
+// other characters have never been part of the log format
+UNKNOWN_CHAR: . -> skip;
+
+fragment TIME: DIGIT+ ('/' DIGIT+)?;
+fragment DIGIT: [0-9];
+fragment LETTER: [a-zA-Z];
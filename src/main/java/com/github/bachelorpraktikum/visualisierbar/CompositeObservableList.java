@@ -1,22 +1,40 @@
 package com.github.bachelorpraktikum.visualisierbar;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.ObservableListBase;
 import javafx.collections.WeakListChangeListener;
+import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 
 /**
- * An immutable {@link ObservableList} implementation that is composed of two observable lists.
- * Does not implement optional operations like {@link #add(Object)}.
+ * <p>An immutable {@link ObservableList} implementation that is composed of any number of
+ * observable lists.
+ * Does not implement optional operations like {@link #add(Object)}.</p>
+ *
+ * <p>The sizes of the lists are kept in a Fenwick tree, so {@link #get(int)} takes O(log k) time
+ * for k lists and {@link #size()} takes constant time. Changes of the lists are forwarded with
+ * their indices shifted to the position of the list in this list.</p>
  */
 @ParametersAreNonnullByDefault
 public final class CompositeObservableList<T> extends ObservableListBase<T> {
 
-    private final ObservableList<? extends T> list1;
-    private final ObservableList<? extends T> list2;
-    private final ListChangeListener<T> listener;
+    @Nonnull
+    private final ObservableList<? extends T>[] lists;
+    // the lists only hold weak references to the listeners
+    @Nonnull
+    private final ListChangeListener<T>[] listeners;
+    /**
+     * Fenwick tree of the list sizes, 1-based
+     */
+    @Nonnull
+    private final int[] sizeTree;
+    private final int highestBit;
+    private int size;
 
     /**
      * Creates an empty instance.
@@ -44,39 +62,142 @@ public final class CompositeObservableList<T> extends ObservableListBase<T> {
      */
     public CompositeObservableList(ObservableList<? extends T> list1,
         ObservableList<? extends T> list2) {
-        this.list1 = list1;
-        this.list2 = list2;
-        listener = this::fireChange;
-        registerListener(this.list1);
-        registerListener(this.list2);
+        this(toArray(Arrays.asList(list1, list2)));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private CompositeObservableList(ObservableList<? extends T>[] lists) {
+        this.lists = lists;
+        this.listeners = new ListChangeListener[this.lists.length];
+        this.sizeTree = new int[this.lists.length + 1];
+        this.highestBit = Integer.highestOneBit(Math.max(1, this.lists.length));
+
+        for (int i = 0; i < this.lists.length; i++) {
+            int listIndex = i;
+            listeners[i] = change -> onChange(listIndex, change);
+            this.lists[i].addListener(new WeakListChangeListener<>(listeners[i]));
+
+            int listSize = this.lists[i].size();
+            size += listSize;
+            // linear construction of the Fenwick tree
+            int node = i + 1;
+            sizeTree[node] += listSize;
+            int parent = node + (node & -node);
+            if (parent < sizeTree.length) {
+                sizeTree[parent] += sizeTree[node];
+            }
+        }
+    }
+
+    /**
+     * Creates an instance containing all elements of the given lists, in the order of the lists.
+     *
+     * @param lists the lists
+     * @param <T> the type of the elements
+     * @return a new composite list
+     */
+    @Nonnull
+    public static <T> CompositeObservableList<T> of(
+        List<? extends ObservableList<? extends T>> lists) {
+        return new CompositeObservableList<>(toArray(lists));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> ObservableList<? extends T>[] toArray(
+        List<? extends ObservableList<? extends T>> lists) {
+        return lists.toArray(new ObservableList[lists.size()]);
     }
 
     /**
      * Creates a new composite list which is created as a union of this list and the specified other
-     * list.
+     * list. The new list directly contains the lists of this list, so it isn't any slower than
+     * this one.
      *
      * @param other the other list
      * @return a new list composed of this and the other list
      */
     public CompositeObservableList<T> union(ObservableList<? extends T> other) {
-        return new CompositeObservableList<>(this, other);
+        ObservableList<? extends T>[] result = Arrays.copyOf(lists, lists.length + 1);
+        result[lists.length] = other;
+        return new CompositeObservableList<>(result);
     }
 
-    private void registerListener(ObservableList<? extends T> list) {
-        list.addListener(new WeakListChangeListener<>(listener));
+    private void onChange(int listIndex, ListChangeListener.Change<? extends T> change) {
+        int delta = 0;
+        while (change.next()) {
+            delta += change.getAddedSize() - change.getRemovedSize();
+        }
+        change.reset();
+        updateSize(listIndex, delta);
+        int offset = offset(listIndex);
+
+        beginChange();
+        try {
+            while (change.next()) {
+                int from = change.getFrom() + offset;
+                int to = change.getTo() + offset;
+                if (change.wasPermutated()) {
+                    int[] permutation = new int[to - from];
+                    for (int i = 0; i < permutation.length; i++) {
+                        permutation[i] = change.getPermutation(change.getFrom() + i) + offset;
+                    }
+                    nextPermutation(from, to, permutation);
+                } else if (change.wasUpdated()) {
+                    for (int i = from; i < to; i++) {
+                        nextUpdate(i);
+                    }
+                } else {
+                    if (change.wasRemoved()) {
+                        nextRemove(from, new ArrayList<T>(change.getRemoved()));
+                    }
+                    if (change.wasAdded()) {
+                        nextAdd(from, to);
+                    }
+                }
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    private void updateSize(int listIndex, int delta) {
+        size += delta;
+        for (int node = listIndex + 1; node < sizeTree.length; node += node & -node) {
+            sizeTree[node] += delta;
+        }
+    }
+
+    /**
+     * Gets the index in this list of the first element of the list with the given index.
+     */
+    private int offset(int listIndex) {
+        int result = 0;
+        for (int node = listIndex; node > 0; node -= node & -node) {
+            result += sizeTree[node];
+        }
+        return result;
     }
 
     @Override
     public T get(int index) {
-        if (index < list1.size()) {
-            return list1.get(index);
-        } else {
-            return list2.get(index - list1.size());
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        // find the last list whose offset is <= index
+        int listIndex = 0;
+        int remaining = index;
+        for (int bit = highestBit; bit > 0; bit >>= 1) {
+            int node = listIndex + bit;
+            if (node < sizeTree.length && sizeTree[node] <= remaining) {
+                listIndex = node;
+                remaining -= sizeTree[node];
+            }
         }
+        return lists[listIndex].get(remaining);
     }
 
     @Override
     public int size() {
-        return list1.size() + list2.size();
+        return size;
     }
 }
@@ -180,7 +180,7 @@ public class AbsSource implements DataSource {
     }
 
     private Context parseFile() throws IOException {
-        return new GraphParser().parse(fileToAbs.getPath());
+        return new GraphParser().parseStreaming(fileToAbs.getPath());
     }
 
     public String getNameOfOriginal()
@@ -1,23 +1,94 @@
 package com.github.bachelorpraktikum.visualisierbar.datasource;
 
 import com.github.bachelorpraktikum.visualisierbar.logparser.GraphParser;
+import com.github.bachelorpraktikum.visualisierbar.logparser.LogInput;
 import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.train.OccupancyIndex;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import javafx.application.Platform;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class FileSource implements DataSource {
 
+    private static final Logger log = Logger.getLogger(FileSource.class.getName());
+
+    /**
+     * The maximum time in milliseconds between two checks for new lines in follow mode, in case
+     * the file system doesn't report modifications.
+     */
+    private static final long FOLLOW_POLL_INTERVAL = 1000;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
     private final File file;
     private final Context context;
+    @Nullable
+    private final Follower follower;
 
     public FileSource(File file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * <p>Creates a new FileSource.</p>
+     *
+     * <p>In follow mode, the file is expected to still be written to, e.g. by a running
+     * simulation. After the lines already in the file have been parsed, the file is watched and
+     * lines appended to it are parsed into the same {@link Context} on the JavaFX application
+     * thread, until this source is {@link #close() closed}. Compressed files can't be followed,
+     * they are only parsed once.</p>
+     *
+     * @param file the log file
+     * @param follow whether to follow the file
+     * @throws IOException if the file can't be read
+     */
+    public FileSource(File file, boolean follow) throws IOException {
+        this(file, follow, Platform::runLater);
+    }
+
+    /**
+     * @param modelExecutor the executor to add lines appended to the file in follow mode on
+     */
+    FileSource(File file, boolean follow, Executor modelExecutor) throws IOException {
         this.file = file;
-        this.context = parseFile();
+        if (follow && !LogInput.isCompressed(file)) {
+            this.context = new Context();
+            this.follower = new Follower(new GraphParser().parseIncrementally(context),
+                modelExecutor);
+        } else {
+            this.context = parseFile();
+            this.follower = null;
+            buildIndices();
+        }
+    }
+
+    /**
+     * Builds the indices of the model while it is loaded, so the first query doesn't have to.
+     */
+    private void buildIndices() {
+        OccupancyIndex.in(context).update();
     }
 
     private Context parseFile() throws IOException {
-        return new GraphParser().parse(file.getPath());
+        return new GraphParser().parseCached(file.getPath());
     }
 
     @Nonnull
@@ -26,7 +97,175 @@ public class FileSource implements DataSource {
         return context;
     }
 
+    /**
+     * Checks whether this source is still watching its file for new lines.
+     *
+     * @return whether this source is following the file
+     */
+    public boolean isFollowing() {
+        return follower != null && follower.thread.isAlive();
+    }
+
     @Override
-    public void close() {
+    public void close() throws IOException {
+        if (follower != null) {
+            follower.close();
+        }
+    }
+
+    /**
+     * Reads lines appended to the file and passes them to an {@link GraphParser.IncrementalParser}.
+     * Only complete lines are parsed, a line which is still being written is kept until its line
+     * terminator has been appended.
+     */
+    private final class Follower implements Runnable {
+
+        private final GraphParser.IncrementalParser parser;
+        private final Executor modelExecutor;
+        private final FileChannel channel;
+        private final WatchService watchService;
+        private final Thread thread;
+        private final ByteBuffer buffer;
+
+        private long position;
+        // the start of a line which hasn't been terminated yet
+        private byte[] partialLine;
+        private int partialLength;
+        private volatile boolean closed;
+
+        Follower(GraphParser.IncrementalParser parser, Executor modelExecutor)
+            throws IOException {
+            this.parser = parser;
+            this.modelExecutor = modelExecutor;
+            this.buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            this.partialLine = new byte[256];
+
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            FileChannel channel = null;
+            try {
+                Path directory = file.getAbsoluteFile().getParentFile().toPath();
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY);
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            } catch (IOException e) {
+                watchService.close();
+                throw e;
+            }
+            this.watchService = watchService;
+            this.channel = channel;
+
+            try {
+                // the existing content is parsed right away, on the calling thread
+                readAppended(lines -> lines.forEach(parser::parseLine));
+                parser.link();
+                // before any lines are added on the model executor
+                buildIndices();
+            } catch (IOException | RuntimeException e) {
+                closeQuietly();
+                throw e;
+            }
+
+            this.thread = new Thread(this, "Follow " + file.getName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    WatchKey key = watchService.poll(FOLLOW_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        // the events don't matter, the file size is checked anyway
+                        key.pollEvents();
+                        key.reset();
+                    }
+                    readAppended(lines -> modelExecutor.execute(() -> {
+                        lines.forEach(parser::parseLine);
+                        parser.link();
+                    }));
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // closed
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warning("Stopped following " + file + ": " + e.getMessage());
+                }
+            } finally {
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Reads everything appended to the file since the last call and passes the complete lines
+         * to the consumer, in batches.
+         */
+        private void readAppended(Consumer<List<String>> lineConsumer) throws IOException {
+            long size = channel.size();
+            if (size < position) {
+                throw new IOException("file has been truncated");
+            }
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                position += read;
+                List<String> lines = splitLines(buffer.array(), read);
+                if (!lines.isEmpty()) {
+                    lineConsumer.accept(lines);
+                }
+            }
+        }
+
+        private List<String> splitLines(byte[] bytes, int length) {
+            List<String> lines = new ArrayList<>();
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                // in ASCII-compatible charsets like UTF-8, '\n' can't be part of a multi-byte
+                // character, so lines are split safely
+                if (bytes[i] == '\n') {
+                    appendPartial(bytes, lineStart, i - lineStart);
+                    lines.add(decodeLine());
+                    partialLength = 0;
+                    lineStart = i + 1;
+                }
+            }
+            appendPartial(bytes, lineStart, length - lineStart);
+            return lines;
+        }
+
+        private void appendPartial(byte[] bytes, int start, int length) {
+            if (partialLength + length > partialLine.length) {
+                partialLine = Arrays.copyOf(partialLine,
+                    Math.max(partialLine.length * 2, partialLength + length));
+            }
+            System.arraycopy(bytes, start, partialLine, partialLength, length);
+            partialLength += length;
+        }
+
+        private String decodeLine() {
+            int length = partialLength;
+            if (length > 0 && partialLine[length - 1] == '\r') {
+                length--;
+            }
+            // the same charset the other parse modes read the file with
+            return new String(partialLine, 0, length, Charset.defaultCharset());
+        }
+
+        void close() throws IOException {
+            closed = true;
+            watchService.close();
+            thread.interrupt();
+        }
+
+        private void closeQuietly() {
+            try {
+                watchService.close();
+                channel.close();
+            } catch (IOException e) {
+                log.warning("Could not close " + file + ": " + e.getMessage());
+            }
+        }
     }
 }
@@ -61,7 +61,7 @@ public class InputParserSource implements DataSource {
             // launch the piping thread which pipes the process output into the parser input
             launchPipingThread(reader, writer, timeout, unit);
             // this method runs / blocks until the piping thread closes the parserInputStream
-            graphParser.parse(parserInStream, context);
+            graphParser.parseStreaming(parserInStream, context);
         } catch (IOException e) {
             e.printStackTrace();
         }
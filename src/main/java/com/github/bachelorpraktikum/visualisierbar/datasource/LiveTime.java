@@ -1,11 +1,13 @@
 package com.github.bachelorpraktikum.visualisierbar.datasource;
 
+import com.github.bachelorpraktikum.visualisierbar.model.SimulationTime;
+
 class LiveTime {
 
     private Result result;
 
-    public int getTime() {
-        return (int) (result.timeValue * 1000.0);
+    public long getTime() {
+        return SimulationTime.fromSeconds(result.timeValue);
     }
 
     static class Result {
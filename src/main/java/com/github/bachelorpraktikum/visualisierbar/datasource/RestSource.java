@@ -237,9 +237,9 @@ public class RestSource implements DataSource {
      * <p>If there is no current time (probably because of a failed network call), -1 is
      * returned.</p>
      *
-     * @return the model time in milliseconds
+     * @return the model time in microseconds
      */
-    public int getTime() {
+    public long getTime() {
         LiveTime time = currentTime.getValue();
         return time == null ? -1 : time.getTime();
     }
@@ -0,0 +1,830 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Element;
+import com.github.bachelorpraktikum.visualisierbar.model.SymbolTable;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>Binary snapshot of a parsed log file.</p>
+ *
+ * <p>A snapshot contains every declaration and event of the log as a compact binary record, in
+ * the order they appeared in. Replaying the records into a {@link DeclarationHandler} and an
+ * {@link EventLineScanner.EventHandler} rebuilds the same context as parsing the log, without
+ * having to lex and parse any text.</p>
+ *
+ * <p>The snapshot is stored next to the log file. Its header contains the size, modification time
+ * and a CRC32 checksum of the head and tail of the log it has been created from, and it is only
+ * used if all three still match.</p>
+ */
+@ParametersAreNonnullByDefault
+final class ContextSnapshot {
+
+    private static final Logger log = Logger.getLogger(ContextSnapshot.class.getName());
+
+    static final String FILE_SUFFIX = ".snapshot";
+
+    private static final int MAGIC = 0x56534e50;
+    private static final int VERSION = 4;
+    // magic, version, size, last modified, checksum
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8;
+    // the maximum size of the part of a file which is mapped into memory at once
+    private static final int MAPPING_WINDOW = 64 * 1024 * 1024;
+    // the number of bytes at the start and at the end of a log file which are checksummed
+    static final int CHECKSUM_SAMPLE_SIZE = 1 << 18;
+
+    private static final byte END = 0;
+    private static final byte STRING = 1;
+    private static final byte NODE = 2;
+    private static final byte EDGE = 3;
+    private static final byte ELEMENT = 4;
+    private static final byte VIEW = 5;
+    private static final byte GROUP = 6;
+    private static final byte ALSO = 7;
+    private static final byte EXTRA = 8;
+    private static final byte TRAIN = 9;
+    private static final byte INIT = 20;
+    private static final byte MOVE = 21;
+    private static final byte SPEED = 22;
+    private static final byte REACH = 23;
+    private static final byte LEAVE = 24;
+    private static final byte TERMINATE = 25;
+    private static final byte CHANGE = 26;
+    private static final byte MESSAGE = 27;
+
+    private static final int NULL_STRING = -1;
+
+    private ContextSnapshot() {
+    }
+
+    /**
+     * Gets the file the snapshot for the given log file is stored in.
+     *
+     * @param logFile the log file
+     * @return the snapshot file, which may not exist
+     */
+    @Nonnull
+    static File getFile(File logFile) {
+        return new File(logFile.getPath() + FILE_SUFFIX);
+    }
+
+    /**
+     * <p>Calculates the CRC32 checksum of the head and tail of the given file.</p>
+     *
+     * <p>Only the first and last {@value #CHECKSUM_SAMPLE_SIZE} bytes are read, so validating a
+     * snapshot doesn't take longer for larger logs. Since the size and modification time are
+     * compared as well, this detects logs which have been rewritten or appended to.</p>
+     *
+     * @param file the file
+     * @return the checksum
+     * @throws IOException if the file can't be read
+     */
+    static long checksum(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer sample;
+            if (size <= 2L * CHECKSUM_SAMPLE_SIZE) {
+                sample = ByteBuffer.allocate((int) size);
+                readFully(channel, sample, 0);
+            } else {
+                sample = ByteBuffer.allocate(2 * CHECKSUM_SAMPLE_SIZE);
+                sample.limit(CHECKSUM_SAMPLE_SIZE);
+                readFully(channel, sample, 0);
+                sample.limit(sample.capacity());
+                readFully(channel, sample, size - CHECKSUM_SAMPLE_SIZE);
+            }
+            sample.flip();
+            CRC32 crc = new CRC32();
+            crc.update(sample);
+            return crc.getValue();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+        throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                throw new EOFException();
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * <p>Replays the snapshot of the given log file into the given handlers.</p>
+     *
+     * <p>If the snapshot doesn't belong to the current version of the log file, nothing is
+     * replayed.</p>
+     *
+     * @param logFile the log file the snapshot has been created from
+     * @param symbols the symbol table to intern the names of events in
+     * @param declarations the handler for declarations
+     * @param events the handler for events
+     * @return whether the snapshot has been replayed
+     * @throws IOException if the snapshot can't be read or is corrupt. In that case, the handlers
+     * may already have received some records.
+     */
+    static boolean replay(File logFile, SymbolTable symbols, DeclarationHandler declarations,
+        EventLineScanner.EventHandler events) throws IOException {
+        File snapshotFile = getFile(logFile);
+        if (!snapshotFile.isFile()) {
+            return false;
+        }
+
+        try (MappedInput input = new MappedInput(snapshotFile)) {
+            if (input.size() < HEADER_SIZE + 1
+                || input.getInt() != MAGIC
+                || input.getInt() != VERSION
+                || input.getLong() != logFile.length()
+                || input.getLong() != logFile.lastModified()) {
+                return false;
+            }
+            long expectedChecksum = input.getLong();
+            if (input.getLastByte() != END || checksum(logFile) != expectedChecksum) {
+                return false;
+            }
+
+            new Replay(input, symbols, declarations, events).run();
+            declarations.link();
+            return true;
+        }
+    }
+
+    /**
+     * Decodes the records of a snapshot and passes them on to the handlers.
+     */
+    private static final class Replay {
+
+        private final MappedInput input;
+        private final SymbolTable symbols;
+        private final DeclarationHandler declarations;
+        private final EventLineScanner.EventHandler events;
+        private final List<String> strings;
+        /**
+         * string ID -> symbol ID, or -1 if the string hasn't been interned yet
+         */
+        private int[] stringSymbols;
+
+        Replay(MappedInput input, SymbolTable symbols, DeclarationHandler declarations,
+            EventLineScanner.EventHandler events) {
+            this.input = input;
+            this.symbols = symbols;
+            this.declarations = declarations;
+            this.events = events;
+            this.strings = new ArrayList<>();
+            this.stringSymbols = new int[0];
+        }
+
+        @Nullable
+        private String nullableString() throws IOException {
+            int id = input.getInt();
+            if (id == NULL_STRING) {
+                return null;
+            }
+            if (id < 0 || id >= strings.size()) {
+                throw new IOException("invalid string reference: " + id);
+            }
+            return strings.get(id);
+        }
+
+        @Nonnull
+        private String string() throws IOException {
+            String result = nullableString();
+            if (result == null) {
+                throw new IOException("missing string");
+            }
+            return result;
+        }
+
+        /**
+         * Reads a string reference and returns the symbol ID of the string.
+         */
+        private int symbol() throws IOException {
+            int id = input.getInt();
+            if (id < 0 || id >= strings.size()) {
+                throw new IOException("invalid string reference: " + id);
+            }
+            if (id >= stringSymbols.length) {
+                int oldLength = stringSymbols.length;
+                stringSymbols = Arrays.copyOf(stringSymbols, Math.max(strings.size(), 64));
+                Arrays.fill(stringSymbols, oldLength, stringSymbols.length, -1);
+            }
+            int symbol = stringSymbols[id];
+            if (symbol == -1) {
+                symbol = symbols.intern(strings.get(id));
+                stringSymbols[id] = symbol;
+            }
+            return symbol;
+        }
+
+        @Nonnull
+        private Element.State state() throws IOException {
+            int ordinal = input.getByte();
+            Element.State[] states = Element.State.values();
+            if (ordinal < 0 || ordinal >= states.length) {
+                throw new IOException("invalid state: " + ordinal);
+            }
+            return states[ordinal];
+        }
+
+        void run() throws IOException {
+            byte type;
+            while ((type = input.getByte()) != END) {
+                try {
+                    switch (type) {
+                        case STRING:
+                            strings.add(input.getString());
+                            break;
+                        case NODE:
+                            declarations.node(string(), input.getInt(), input.getInt(),
+                                nullableString());
+                            break;
+                        case EDGE:
+                            declarations.edge(string(), string(), string(), input.getInt(),
+                                nullableString());
+                            break;
+                        case ELEMENT:
+                            declarations.element(string(), string(), state(), nullableString());
+                            break;
+                        case VIEW:
+                            declarations.view(string(), string(), input.getInt());
+                            break;
+                        case GROUP:
+                            String kind = string();
+                            String name = string();
+                            String switchName = string();
+                            int count = input.getInt();
+                            List<String> elementNames = new ArrayList<>(count);
+                            for (int i = 0; i < count; i++) {
+                                elementNames.add(string());
+                            }
+                            declarations.group(kind, name, switchName, elementNames);
+                            break;
+                        case ALSO:
+                            declarations.also(string(), string());
+                            break;
+                        case EXTRA:
+                            declarations.extra(string(), input.getInt(), string(), string());
+                            break;
+                        case TRAIN:
+                            declarations.train(string(), string(), input.getInt());
+                            break;
+                        case INIT:
+                            events.init(symbol(), input.getLong(), symbol());
+                            break;
+                        case MOVE:
+                            events.move(symbol(), input.getLong(), input.getInt());
+                            break;
+                        case SPEED:
+                            events.speed(symbol(), input.getLong(), input.getInt(),
+                                input.getInt());
+                            break;
+                        case REACH:
+                            events.reach(symbol(), input.getLong(), symbol(), input.getInt());
+                            break;
+                        case LEAVE:
+                            events.leave(symbol(), input.getLong(), symbol(), input.getInt());
+                            break;
+                        case TERMINATE:
+                            events.terminate(symbol(), input.getLong(), input.getInt());
+                            break;
+                        case CHANGE:
+                            events.change(symbol(), state(), input.getLong());
+                            break;
+                        case MESSAGE:
+                            events.message(symbol(), input.getLong(), string());
+                            break;
+                        default:
+                            throw new IOException("unknown record type: " + type);
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.warning("Could not replay snapshot record " + type
+                        + "\nReason: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a file through a sliding memory-mapped window, so files larger than the maximum
+     * mapping size can be read as well.
+     */
+    private static final class MappedInput implements Closeable {
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedInput(File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.size = channel.size();
+            this.windowStart = 0;
+            this.window = map(0);
+        }
+
+        private MappedByteBuffer map(long position) throws IOException {
+            long length = Math.min(MAPPING_WINDOW, size - position);
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        long size() {
+            return size;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            long position = windowStart + window.position();
+            if (size - position < bytes) {
+                throw new EOFException();
+            }
+            windowStart = position;
+            window = map(position);
+        }
+
+        byte getLastByte() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, size - 1);
+            return buffer.get(0);
+        }
+
+        byte getByte() throws IOException {
+            ensure(1);
+            return window.get();
+        }
+
+        int getInt() throws IOException {
+            ensure(4);
+            return window.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensure(8);
+            return window.getLong();
+        }
+
+        @Nonnull
+        String getString() throws IOException {
+            int length = getInt();
+            if (length < 0 || length > MAPPING_WINDOW) {
+                throw new IOException("invalid string length: " + length);
+            }
+            ensure(length);
+            byte[] bytes = new byte[length];
+            window.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * <p>Records everything passed to it into a new snapshot, and passes it on to the given
+     * handlers.</p>
+     *
+     * <p>If the snapshot can't be written, recording stops silently. Parsing is never interrupted
+     * by the writer.</p>
+     */
+    static final class Writer implements DeclarationHandler, EventLineScanner.EventHandler,
+        Closeable {
+
+        private final File logFile;
+        private final File tempFile;
+        private final SymbolTable symbols;
+        private final DeclarationHandler declarations;
+        private final EventLineScanner.EventHandler events;
+        private final Map<String, Integer> stringIds;
+        /**
+         * symbol ID -> string ID, or -1 if the symbol hasn't been written yet
+         */
+        private int[] symbolStringIds;
+
+        @Nullable
+        private FileChannel channel;
+        @Nullable
+        private DataOutputStream out;
+
+        /**
+         * Creates a writer for the snapshot of the given log file.
+         *
+         * @param logFile the log file which is being parsed
+         * @param symbols the symbol table the names of events are interned in
+         * @param declarations the handler to pass declarations on to
+         * @param events the handler to pass events on to
+         */
+        Writer(File logFile, SymbolTable symbols, DeclarationHandler declarations,
+            EventLineScanner.EventHandler events) {
+            this.logFile = logFile;
+            this.tempFile = new File(getFile(logFile).getPath() + ".tmp");
+            this.symbols = symbols;
+            this.declarations = declarations;
+            this.events = events;
+            this.stringIds = new HashMap<>();
+            this.symbolStringIds = new int[0];
+            try {
+                this.channel = FileChannel.open(tempFile.toPath(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+                this.out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)
+                );
+                out.write(new byte[HEADER_SIZE]);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void fail(IOException e) {
+            log.warning("Could not write snapshot for " + logFile + ": " + e.getMessage());
+            close();
+        }
+
+        private int stringId(@Nullable String string) throws IOException {
+            if (string == null) {
+                return NULL_STRING;
+            }
+            Integer id = stringIds.get(string);
+            if (id == null) {
+                id = stringIds.size();
+                stringIds.put(string, id);
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeByte(STRING);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            return id;
+        }
+
+        private int symbolStringId(int symbol) throws IOException {
+            if (symbol >= symbolStringIds.length) {
+                int oldLength = symbolStringIds.length;
+                symbolStringIds = Arrays.copyOf(symbolStringIds,
+                    Math.max(symbols.size(), symbol + 1));
+                Arrays.fill(symbolStringIds, oldLength, symbolStringIds.length, -1);
+            }
+            int id = symbolStringIds[symbol];
+            if (id == -1) {
+                id = stringId(symbols.getName(symbol));
+                symbolStringIds[symbol] = id;
+            }
+            return id;
+        }
+
+        private void writeStrings(byte type, String... strings) throws IOException {
+            int[] ids = new int[strings.length];
+            for (int i = 0; i < strings.length; i++) {
+                ids[i] = stringId(strings[i]);
+            }
+            out.writeByte(type);
+            for (int id : ids) {
+                out.writeInt(id);
+            }
+        }
+
+        /**
+         * Finishes the snapshot and moves it to its final location.
+         *
+         * @param size the size of the log file before it has been read
+         * @param lastModified the modification time of the log file before it has been read
+         * @param checksum the {@link #checksum(File) checksum} of the log file before it has been
+         * read
+         */
+        void commit(long size, long lastModified, long checksum) {
+            if (out == null || channel == null) {
+                return;
+            }
+            try {
+                out.writeByte(END);
+                out.flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION)
+                    .putLong(size).putLong(lastModified).putLong(checksum);
+                header.flip();
+                channel.write(header, 0);
+                out.close();
+                out = null;
+                channel = null;
+                Files.move(tempFile.toPath(), getFile(logFile).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Discards the snapshot if it hasn't been committed.
+         */
+        @Override
+        public void close() {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // the file is going to be deleted anyway
+                }
+                out = null;
+                channel = null;
+            }
+            try {
+                Files.deleteIfExists(tempFile.toPath());
+            } catch (IOException e) {
+                log.warning("Could not delete " + tempFile + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void node(String name, int x, int y, @Nullable String absName) {
+            if (out != null) {
+                try {
+                    int nameId = stringId(name);
+                    int absNameId = stringId(absName);
+                    out.writeByte(NODE);
+                    out.writeInt(nameId);
+                    out.writeInt(x);
+                    out.writeInt(y);
+                    out.writeInt(absNameId);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            declarations.node(name, x, y, absName);
+        }
+
+        @Override
+        public void edge(String name, String node1Name, String node2Name, int length,
+            @Nullable String absName) {
+            if (out != null) {
+                try {
+                    // written before the record, because new strings are records themselves
+                    int absNameId = stringId(absName);
+                    writeStrings(EDGE, name, node1Name, node2Name);
+                    out.writeInt(length);
+                    out.writeInt(absNameId);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            declarations.edge(name, node1Name, node2Name, length, absName);
+        }
+
+        @Override
+        public void element(String name, String nodeName, Element.State state,
+            @Nullable String absName) {
+            if (out != null) {
+                try {
+                    int nameId = stringId(name);
+                    int nodeNameId = stringId(nodeName);
+                    int absNameId = stringId(absName);
+                    out.writeByte(ELEMENT);
+                    out.writeInt(nameId);
+                    out.writeInt(nodeNameId);
+                    out.writeByte(state.ordinal());
+                    out.writeInt(absNameId);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            declarations.element(name, nodeName, state, absName);
+        }
+
+        @Override
+        public void view(String elementName, String edgeName, int speed) {
+            if (out != null) {
+                try {
+                    writeStrings(VIEW, elementName, edgeName);
+                    out.writeInt(speed);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            declarations.view(elementName, edgeName, speed);
+        }
+
+        @Override
+        public void group(String kindName, String name, String switchName,
+            List<String> elementNames) {
+            if (out != null) {
+                try {
+                    int[] elementIds = new int[elementNames.size()];
+                    for (int i = 0; i < elementIds.length; i++) {
+                        elementIds[i] = stringId(elementNames.get(i));
+                    }
+                    writeStrings(GROUP, kindName, name, switchName);
+                    out.writeInt(elementIds.length);
+                    for (int id : elementIds) {
+                        out.writeInt(id);
+                    }
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            declarations.group(kindName, name, switchName, elementNames);
+        }
+
+        @Override
+        public void also(String elementName, String groupName) {
+            if (out != null) {
+                try {
+                    writeStrings(ALSO, elementName, groupName);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            declarations.also(elementName, groupName);
+        }
+
+        @Override
+        public void extra(String elementName, int value, String name, String bool) {
+            if (out != null) {
+                try {
+                    int elementId = stringId(elementName);
+                    int nameId = stringId(name);
+                    int boolId = stringId(bool);
+                    out.writeByte(EXTRA);
+                    out.writeInt(elementId);
+                    out.writeInt(value);
+                    out.writeInt(nameId);
+                    out.writeInt(boolId);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            declarations.extra(elementName, value, name, bool);
+        }
+
+        @Override
+        public void train(String name, String readableName, int length) {
+            if (out != null) {
+                try {
+                    writeStrings(TRAIN, name, readableName);
+                    out.writeInt(length);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            declarations.train(name, readableName, length);
+        }
+
+        @Override
+        public void link() {
+            // the end of the declarations is implied by the end of the snapshot
+            declarations.link();
+        }
+
+        @Override
+        public void init(int train, long time, int edge) {
+            if (out != null) {
+                try {
+                    int trainId = symbolStringId(train);
+                    int edgeId = symbolStringId(edge);
+                    out.writeByte(INIT);
+                    out.writeInt(trainId);
+                    out.writeLong(time);
+                    out.writeInt(edgeId);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            events.init(train, time, edge);
+        }
+
+        @Override
+        public void move(int train, long time, int distance) {
+            if (out != null) {
+                try {
+                    int trainId = symbolStringId(train);
+                    out.writeByte(MOVE);
+                    out.writeInt(trainId);
+                    out.writeLong(time);
+                    out.writeInt(distance);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            events.move(train, time, distance);
+        }
+
+        @Override
+        public void speed(int train, long time, int distance, int speed) {
+            if (out != null) {
+                try {
+                    int trainId = symbolStringId(train);
+                    out.writeByte(SPEED);
+                    out.writeInt(trainId);
+                    out.writeLong(time);
+                    out.writeInt(distance);
+                    out.writeInt(speed);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            events.speed(train, time, distance, speed);
+        }
+
+        @Override
+        public void reach(int train, long time, int edge, int distance) {
+            writePosition(REACH, train, time, edge, distance);
+            events.reach(train, time, edge, distance);
+        }
+
+        @Override
+        public void leave(int train, long time, int edge, int distance) {
+            writePosition(LEAVE, train, time, edge, distance);
+            events.leave(train, time, edge, distance);
+        }
+
+        private void writePosition(byte type, int train, long time, int edge, int distance) {
+            if (out != null) {
+                try {
+                    int trainId = symbolStringId(train);
+                    int edgeId = symbolStringId(edge);
+                    out.writeByte(type);
+                    out.writeInt(trainId);
+                    out.writeLong(time);
+                    out.writeInt(edgeId);
+                    out.writeInt(distance);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        @Override
+        public void terminate(int train, long time, int distance) {
+            if (out != null) {
+                try {
+                    int trainId = symbolStringId(train);
+                    out.writeByte(TERMINATE);
+                    out.writeInt(trainId);
+                    out.writeLong(time);
+                    out.writeInt(distance);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            events.terminate(train, time, distance);
+        }
+
+        @Override
+        public void change(int element, Element.State state, long time) {
+            if (out != null) {
+                try {
+                    int elementId = symbolStringId(element);
+                    out.writeByte(CHANGE);
+                    out.writeInt(elementId);
+                    out.writeByte(state.ordinal());
+                    out.writeLong(time);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            events.change(element, state, time);
+        }
+
+        @Override
+        public void message(int node, long time, String text) {
+            if (out != null) {
+                try {
+                    int nodeId = symbolStringId(node);
+                    int textId = stringId(text);
+                    out.writeByte(MESSAGE);
+                    out.writeInt(nodeId);
+                    out.writeLong(time);
+                    out.writeInt(textId);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            events.message(node, time, text);
+        }
+    }
+}
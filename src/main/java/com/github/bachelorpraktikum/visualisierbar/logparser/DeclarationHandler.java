@@ -0,0 +1,49 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Element;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>Receives the declaration lines of a log, i.e. every line which is not an event.</p>
+ *
+ * <p>Methods may throw an {@link IllegalArgumentException} if the declaration is invalid, e.g.
+ * because it refers to an unknown node. Callers are expected to log such exceptions and go on
+ * with the next line.</p>
+ */
+@ParametersAreNonnullByDefault
+interface DeclarationHandler {
+
+    void node(String name, int x, int y, @Nullable String absName);
+
+    void edge(String name, String node1Name, String node2Name, int length,
+        @Nullable String absName);
+
+    void element(String name, String nodeName, Element.State state, @Nullable String absName);
+
+    /**
+     * Declares the direction an element faces.
+     *
+     * @param elementName the name of the element
+     * @param edgeName the edge the element faces
+     * @param speed the speed associated with the element, or -1 if there is none
+     */
+    void view(String elementName, String edgeName, int speed);
+
+    void group(String kindName, String name, String switchName, List<String> elementNames);
+
+    void also(String elementName, String groupName);
+
+    void extra(String elementName, int value, String name, String bool);
+
+    void train(String name, String readableName, int length);
+
+    /**
+     * Resolves the references between the declarations passed to this handler so far.
+     * Called at least once after the last declaration of the log; references between
+     * declarations may not be resolved before. References which can't be resolved yet are kept
+     * for the next call.
+     */
+    void link();
+}
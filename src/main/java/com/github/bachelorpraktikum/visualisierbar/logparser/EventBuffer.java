@@ -0,0 +1,255 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Element;
+import com.github.bachelorpraktikum.visualisierbar.model.SymbolTable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>Buffers events so they can be replayed after all declarations have been parsed.</p>
+ *
+ * <p>Train events are grouped by train. Element and message events share one sequence, because
+ * elements (and messages) share one event list in the model, which relies on the order of
+ * insertion.</p>
+ *
+ * <p>The events of a sequence are stored in primitive columns: kind, time, the symbol ID of the
+ * train, element or node, and up to two more values. Message texts are stored separately.</p>
+ *
+ * <p>On {@link #replay(EventLineScanner.EventHandler, ForkJoinPool) replay}, every sequence is
+ * applied in the order the events have been buffered in, but different sequences are applied in
+ * parallel. Since the sequences touch disjoint parts of the model, the result is the same as if
+ * all events were applied in their original order.</p>
+ */
+@ParametersAreNonnullByDefault
+final class EventBuffer implements EventLineScanner.EventHandler {
+
+    private static final byte INIT = 0;
+    private static final byte MOVE = 1;
+    private static final byte SPEED = 2;
+    private static final byte REACH = 3;
+    private static final byte LEAVE = 4;
+    private static final byte TERMINATE = 5;
+    private static final byte CHANGE = 6;
+    private static final byte MESSAGE = 7;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Element.State[] STATES = Element.State.values();
+
+    /**
+     * train ID -> events of the train
+     */
+    private SymbolTable.Index<Sequence> eventsByTrain;
+    /**
+     * the values of {@link #eventsByTrain} in order of their first event
+     */
+    private final List<Sequence> trainEvents;
+    private final Sequence otherEvents;
+    /**
+     * the texts of the message events, referenced by index
+     */
+    private final List<String> texts;
+
+    EventBuffer() {
+        this.eventsByTrain = new SymbolTable.Index<>();
+        this.trainEvents = new ArrayList<>();
+        this.otherEvents = new Sequence();
+        this.texts = new ArrayList<>();
+    }
+
+    private void addTrainEvent(byte kind, int train, long time, int first, int second) {
+        Sequence events = eventsByTrain.get(train);
+        if (events == null) {
+            events = new Sequence();
+            eventsByTrain.put(train, events);
+            trainEvents.add(events);
+        }
+        events.add(kind, train, time, first, second);
+    }
+
+    @Override
+    public void init(int train, long time, int edge) {
+        addTrainEvent(INIT, train, time, edge, 0);
+    }
+
+    @Override
+    public void move(int train, long time, int distance) {
+        addTrainEvent(MOVE, train, time, distance, 0);
+    }
+
+    @Override
+    public void speed(int train, long time, int distance, int speed) {
+        addTrainEvent(SPEED, train, time, distance, speed);
+    }
+
+    @Override
+    public void reach(int train, long time, int edge, int distance) {
+        addTrainEvent(REACH, train, time, edge, distance);
+    }
+
+    @Override
+    public void leave(int train, long time, int edge, int distance) {
+        addTrainEvent(LEAVE, train, time, edge, distance);
+    }
+
+    @Override
+    public void terminate(int train, long time, int distance) {
+        addTrainEvent(TERMINATE, train, time, distance, 0);
+    }
+
+    @Override
+    public void change(int element, Element.State state, long time) {
+        otherEvents.add(CHANGE, element, time, state.ordinal(), 0);
+    }
+
+    @Override
+    public void message(int node, long time, String text) {
+        otherEvents.add(MESSAGE, node, time, texts.size(), 0);
+        texts.add(text);
+    }
+
+    /**
+     * Applies all buffered events to the given handler and clears this buffer.
+     *
+     * @param handler a handler which accepts events of different trains from different threads
+     * @param pool the pool to run on
+     * @throws RuntimeException any exception thrown by the handler
+     */
+    void replay(EventLineScanner.EventHandler handler, ForkJoinPool pool) {
+        List<RecursiveAction> tasks = new ArrayList<>(trainEvents.size() + 1);
+        tasks.add(new ReplayAction(otherEvents, handler, texts));
+        for (Sequence events : trainEvents) {
+            tasks.add(new ReplayAction(events, handler, texts));
+        }
+
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+        } finally {
+            eventsByTrain = new SymbolTable.Index<>();
+            trainEvents.clear();
+            otherEvents.clear();
+            texts.clear();
+        }
+    }
+
+    /**
+     * A sequence of events in columns.
+     */
+    private static final class Sequence {
+
+        private byte[] kinds;
+        private long[] times;
+        /**
+         * the symbol ID of the train, element or node of each event
+         */
+        private int[] subjects;
+        /**
+         * the edge, distance, state ordinal or text index of each event
+         */
+        private int[] firstValues;
+        /**
+         * the distance after reach and leave events, the speed after speed events
+         */
+        private int[] secondValues;
+        private int size;
+
+        Sequence() {
+            clear();
+        }
+
+        void add(byte kind, int subject, long time, int first, int second) {
+            if (size == kinds.length) {
+                int capacity = size * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                times = Arrays.copyOf(times, capacity);
+                subjects = Arrays.copyOf(subjects, capacity);
+                firstValues = Arrays.copyOf(firstValues, capacity);
+                secondValues = Arrays.copyOf(secondValues, capacity);
+            }
+            kinds[size] = kind;
+            times[size] = time;
+            subjects[size] = subject;
+            firstValues[size] = first;
+            secondValues[size] = second;
+            size++;
+        }
+
+        void clear() {
+            this.kinds = new byte[INITIAL_CAPACITY];
+            this.times = new long[INITIAL_CAPACITY];
+            this.subjects = new int[INITIAL_CAPACITY];
+            this.firstValues = new int[INITIAL_CAPACITY];
+            this.secondValues = new int[INITIAL_CAPACITY];
+            this.size = 0;
+        }
+
+        /**
+         * Passes the event at the given index to the handler.
+         */
+        void replay(int index, EventLineScanner.EventHandler handler, List<String> texts) {
+            int subject = subjects[index];
+            long time = times[index];
+            int first = firstValues[index];
+            int second = secondValues[index];
+            switch (kinds[index]) {
+                case INIT:
+                    handler.init(subject, time, first);
+                    break;
+                case MOVE:
+                    handler.move(subject, time, first);
+                    break;
+                case SPEED:
+                    handler.speed(subject, time, first, second);
+                    break;
+                case REACH:
+                    handler.reach(subject, time, first, second);
+                    break;
+                case LEAVE:
+                    handler.leave(subject, time, first, second);
+                    break;
+                case TERMINATE:
+                    handler.terminate(subject, time, first);
+                    break;
+                case CHANGE:
+                    handler.change(subject, STATES[first], time);
+                    break;
+                case MESSAGE:
+                    handler.message(subject, time, texts.get(first));
+                    break;
+                default:
+                    throw new IllegalStateException("unknown event kind: " + kinds[index]);
+            }
+        }
+    }
+
+    private static final class ReplayAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Sequence events;
+        private final EventLineScanner.EventHandler handler;
+        private final List<String> texts;
+
+        ReplayAction(Sequence events, EventLineScanner.EventHandler handler, List<String> texts) {
+            this.events = events;
+            this.handler = handler;
+            this.texts = texts;
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = 0; i < events.size; i++) {
+                events.replay(i, handler, texts);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import com.github.bachelorpraktikum.visualisierbar.logparser.LogParser.MsgContext;
+import com.github.bachelorpraktikum.visualisierbar.model.Element;
+import com.github.bachelorpraktikum.visualisierbar.model.SimulationTime;
+import com.github.bachelorpraktikum.visualisierbar.model.SymbolTable;
+import java.math.BigInteger;
+
+/**
+ * <p>Converts the event lines of a parse tree into calls of an {@link
+ * EventLineScanner.EventHandler}.</p>
+ *
+ * <p>This way events are handled the same, regardless of whether a line has been parsed by ANTLR
+ * or by the {@link EventLineScanner}.</p>
+ */
+class EventLineListener extends LogBaseListener {
+
+    private static final BigInteger MICROS_PER_SECOND =
+        BigInteger.valueOf(SimulationTime.MICROS_PER_SECOND);
+    // numbers with up to this many digits fit into a long, even after conversion to microseconds
+    private static final int MAX_FAST_DIGITS = 12;
+
+    private final SymbolTable symbols;
+    private final EventLineScanner.EventHandler handler;
+
+    EventLineListener(SymbolTable symbols, EventLineScanner.EventHandler handler) {
+        this.symbols = symbols;
+        this.handler = handler;
+    }
+
+    /**
+     * Converts a time in seconds to microseconds.
+     *
+     * @throws ArithmeticException if the time doesn't fit into a long
+     */
+    private long createTime(LogParser.TimeContext ctx) {
+        if (ctx.rat() != null) {
+            String rat = ctx.rat().getText();
+            int slash = rat.indexOf('/');
+            String left = rat.substring(0, slash);
+            String right = rat.substring(slash + 1);
+            if (left.length() <= MAX_FAST_DIGITS && right.length() <= MAX_FAST_DIGITS) {
+                return Long.parseLong(left) * SimulationTime.MICROS_PER_SECOND
+                    / Long.parseLong(right);
+            }
+            return new BigInteger(left).multiply(MICROS_PER_SECOND)
+                .divide(new BigInteger(right)).longValueExact();
+        }
+        String seconds = ctx.INT().getText();
+        if (seconds.length() <= MAX_FAST_DIGITS) {
+            return Long.parseLong(seconds) * SimulationTime.MICROS_PER_SECOND;
+        }
+        return new BigInteger(seconds).multiply(MICROS_PER_SECOND).longValueExact();
+    }
+
+    @Override
+    public void enterMv_init(LogParser.Mv_initContext ctx) {
+        int train = symbols.intern(ctx.train_name().getText());
+        long time = createTime(ctx.time());
+        int edge = symbols.intern(ctx.edge_name().getText());
+        handler.init(train, time, edge);
+    }
+
+    @Override
+    public void enterMv_speed(LogParser.Mv_speedContext ctx) {
+        int train = symbols.intern(ctx.train_name().getText());
+        long time = createTime(ctx.time());
+        int distance = Integer.parseInt(ctx.distance().getText());
+        if (ctx.speed() == null) {
+            handler.move(train, time, distance);
+        } else {
+            int speed = Integer.parseInt(ctx.speed().INT().getText());
+            handler.speed(train, time, distance, speed);
+        }
+    }
+
+    @Override
+    public void enterMv_start(LogParser.Mv_startContext ctx) {
+        int train = symbols.intern(ctx.train_name().getText());
+        long time = createTime(ctx.time());
+        int edge = symbols.intern(ctx.edge_name().getText());
+        int distance = Integer.parseInt(ctx.distance().getText());
+        handler.reach(train, time, edge, distance);
+    }
+
+    @Override
+    public void enterMv_leaves(LogParser.Mv_leavesContext ctx) {
+        int train = symbols.intern(ctx.train_name().getText());
+        long time = createTime(ctx.time());
+        int edge = symbols.intern(ctx.edge_name().getText());
+        int distance = Integer.parseInt(ctx.distance().getText());
+        handler.leave(train, time, edge, distance);
+    }
+
+    @Override
+    public void enterMv_term(LogParser.Mv_termContext ctx) {
+        int train = symbols.intern(ctx.train_name().getText());
+        long time = createTime(ctx.time());
+        int distance = Integer.parseInt(ctx.distance().getText());
+        handler.terminate(train, time, distance);
+    }
+
+    @Override
+    public void enterCh(LogParser.ChContext ctx) {
+        int element = symbols.intern(ctx.elem_name().getText());
+        Element.State state = Element.State.fromName(ctx.STATE().getText());
+        long time = createTime(ctx.time());
+        handler.change(element, state, time);
+    }
+
+    @Override
+    public void enterMsg(MsgContext ctx) {
+        long time = createTime(ctx.time());
+        String text = ctx.message().getText();
+        handler.message(symbols.intern(ctx.node_name().getText()), time, text);
+    }
+}
@@ -0,0 +1,374 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Element;
+import com.github.bachelorpraktikum.visualisierbar.model.SimulationTime;
+import com.github.bachelorpraktikum.visualisierbar.model.SymbolTable;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>Hand-written scanner for the most frequent line shapes of the log grammar: {@code MV} lines,
+ * {@code CH} lines and {@code MSG} lines.</p>
+ *
+ * <p>A line is only accepted if it is a valid line according to the grammar and the result is
+ * exactly what the ANTLR parser would produce for it. Everything else (declarations, malformed
+ * lines, characters the grammar doesn't know about, numbers which would overflow) is rejected and
+ * should be handed to the ANTLR parser instead.</p>
+ *
+ * <p>The scanner works directly on the characters of the line. Numbers are parsed into primitive
+ * ints and longs and names are interned into a {@link SymbolTable}, so scanning a line doesn't
+ * allocate anything besides message texts and names seen for the first time.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+@ParametersAreNonnullByDefault
+final class EventLineScanner {
+
+    /**
+     * Receives the events scanned by {@link EventLineScanner}.
+     * Trains, edges, elements and nodes are referred to by the {@link SymbolTable} ID of their
+     * name.
+     */
+    interface EventHandler {
+
+        void init(int train, long time, int edge);
+
+        void move(int train, long time, int distance);
+
+        void speed(int train, long time, int distance, int speed);
+
+        void reach(int train, long time, int edge, int distance);
+
+        void leave(int train, long time, int edge, int distance);
+
+        void terminate(int train, long time, int distance);
+
+        void change(int element, Element.State state, long time);
+
+        void message(int node, long time, String text);
+    }
+
+    private static final char SEP = ';';
+    // the largest numerator of a time which can be converted to microseconds without overflow
+    private static final long MAX_TIME_NUMERATOR = Long.MAX_VALUE / SimulationTime.MICROS_PER_SECOND;
+
+    @Nonnull
+    private final SymbolTable symbols;
+
+    private CharSequence line;
+    private int pos;
+    private int end;
+
+    // results of the last successful read* call
+    private int symbol;
+    private int number;
+    private long time;
+
+    /**
+     * Creates a new scanner.
+     *
+     * @param symbols the symbol table names are interned in
+     */
+    EventLineScanner(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.line = "";
+    }
+
+    /**
+     * Tries to scan the given line and passes the resulting event to the handler.
+     *
+     * @param line a single line without line terminator
+     * @param handler the handler to call if the line could be scanned
+     * @return whether the line has been handled. If false, the handler has not been called.
+     */
+    boolean scan(CharSequence line, EventHandler handler) {
+        this.line = line;
+        this.pos = 0;
+        this.end = line.length();
+        try {
+            if (readKeyword("MV")) {
+                return scanMove(handler);
+            } else if (readKeyword("CH")) {
+                return scanChange(handler);
+            } else if (readKeyword("MSG")) {
+                return scanMessage(handler);
+            }
+            return false;
+        } finally {
+            this.line = "";
+        }
+    }
+
+    private boolean scanMove(EventHandler handler) {
+        if (readKeyword("INIT")) {
+            if (!readName() || !readSep()) {
+                return false;
+            }
+            int train = symbol;
+            if (!readTime() || !readSep()) {
+                return false;
+            }
+            long time = this.time;
+            if (!readName() || !isEnd()) {
+                return false;
+            }
+            handler.init(train, time, symbol);
+            return true;
+        } else if (readKeyword("SPEED")) {
+            if (!readName() || !readSep()) {
+                return false;
+            }
+            int train = symbol;
+            if (!readTime() || !readSep()) {
+                return false;
+            }
+            long time = this.time;
+            if (!readInt()) {
+                return false;
+            }
+            int distance = number;
+            if (isEnd()) {
+                handler.move(train, time, distance);
+                return true;
+            }
+            if (!readSep() || !readInt() || !isEnd()) {
+                return false;
+            }
+            handler.speed(train, time, distance, number);
+            return true;
+        }
+        boolean reach = readKeyword("REACHSTART");
+        if (reach || readKeyword("LEAVES")) {
+            if (!readName() || !readSep()) {
+                return false;
+            }
+            int train = symbol;
+            if (!readTime() || !readSep()) {
+                return false;
+            }
+            long time = this.time;
+            if (!readName() || !readSep()) {
+                return false;
+            }
+            int edge = symbol;
+            if (!readInt() || !isEnd()) {
+                return false;
+            }
+            if (reach) {
+                handler.reach(train, time, edge, number);
+            } else {
+                handler.leave(train, time, edge, number);
+            }
+            return true;
+        } else if (readKeyword("TERM")) {
+            if (!readName() || !readSep()) {
+                return false;
+            }
+            int train = symbol;
+            if (!readTime() || !readSep()) {
+                return false;
+            }
+            long time = this.time;
+            if (!readInt() || !isEnd()) {
+                return false;
+            }
+            handler.terminate(train, time, number);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean scanChange(EventHandler handler) {
+        if (!readName() || !readSep()) {
+            return false;
+        }
+        int element = symbol;
+        Element.State state;
+        if (readKeyword("NOSIG")) {
+            state = Element.State.NOSIG;
+        } else if (readKeyword("FAHRT")) {
+            state = Element.State.FAHRT;
+        } else if (readKeyword("STOP")) {
+            state = Element.State.STOP;
+        } else {
+            return false;
+        }
+        if (!readTime() || !isEnd()) {
+            return false;
+        }
+        handler.change(element, state, time);
+        return true;
+    }
+
+    private boolean scanMessage(EventHandler handler) {
+        if (!readName() || !readSep()) {
+            return false;
+        }
+        int node = symbol;
+        if (!readTime() || !readSep()) {
+            return false;
+        }
+        long time = this.time;
+        int start = pos;
+        if (!skipNameChars()) {
+            return false;
+        }
+        if (!isEnd()) {
+            return false;
+        }
+        handler.message(node, time, line.subSequence(start, pos).toString());
+        return true;
+    }
+
+    private boolean isEnd() {
+        return pos == end;
+    }
+
+    private boolean readSep() {
+        if (pos < end && line.charAt(pos) == SEP) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the given keyword followed by a separator.
+     */
+    private boolean readKeyword(String keyword) {
+        int length = keyword.length();
+        if (end - pos <= length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(pos + i) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        if (line.charAt(pos + length) != SEP) {
+            return false;
+        }
+        pos += length + 1;
+        return true;
+    }
+
+    private boolean readName() {
+        int start = pos;
+        if (!skipNameChars()) {
+            return false;
+        }
+        symbol = symbols.intern(line, start, pos);
+        return true;
+    }
+
+    /**
+     * Skips a non-empty sequence of characters the log lexer would turn into tokens other than
+     * separators and line breaks. Characters the lexer drops are not accepted, because the ANTLR
+     * parser would silently remove them from the name.
+     */
+    private boolean skipNameChars() {
+        int start = pos;
+        while (pos < end) {
+            char c = line.charAt(pos);
+            if (c == SEP) {
+                break;
+            }
+            if (!isNameChar(c)) {
+                return false;
+            }
+            pos++;
+        }
+        return pos > start;
+    }
+
+    private static boolean isNameChar(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+            return true;
+        }
+        switch (c) {
+            case '.':
+            case ':':
+            case '_':
+            case '<':
+            case '>':
+            case '/':
+            case '(':
+            case ')':
+            case ' ':
+            case '\t':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reads an unsigned int. Fails if there are no digits or the value is too large for an int.
+     */
+    private boolean readInt() {
+        int start = pos;
+        long value = 0;
+        while (pos < end) {
+            char c = line.charAt(pos);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                return false;
+            }
+            pos++;
+        }
+        number = (int) value;
+        return pos > start;
+    }
+
+    /**
+     * Reads a time in seconds in the format of the time rule ({@code INT} or {@code INT/INT}) and
+     * converts it to microseconds. Rationals are converted with primitive arithmetic; times which
+     * would need more than 64 bits are rejected.
+     */
+    private boolean readTime() {
+        int start = pos;
+        long numerator = 0;
+        while (pos < end) {
+            char c = line.charAt(pos);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            numerator = numerator * 10 + (c - '0');
+            if (numerator > MAX_TIME_NUMERATOR) {
+                return false;
+            }
+            pos++;
+        }
+        if (pos == start) {
+            return false;
+        }
+
+        if (pos < end && line.charAt(pos) == '/') {
+            pos++;
+            int denominatorStart = pos;
+            long denominator = 0;
+            while (pos < end) {
+                char c = line.charAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                denominator = denominator * 10 + (c - '0');
+                if (denominator > MAX_TIME_NUMERATOR) {
+                    return false;
+                }
+                pos++;
+            }
+            if (pos == denominatorStart || denominator == 0) {
+                return false;
+            }
+            time = numerator * SimulationTime.MICROS_PER_SECOND / denominator;
+            return true;
+        }
+
+        time = numerator * SimulationTime.MICROS_PER_SECOND;
+        return true;
+    }
+}
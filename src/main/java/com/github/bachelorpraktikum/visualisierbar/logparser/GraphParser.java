@@ -1,33 +1,39 @@
 package com.github.bachelorpraktikum.visualisierbar.logparser;
 
-import com.github.bachelorpraktikum.visualisierbar.logparser.LogParser.MsgContext;
-import com.github.bachelorpraktikum.visualisierbar.logparser.LogParser.RatContext;
 import com.github.bachelorpraktikum.visualisierbar.model.*;
-import com.github.bachelorpraktikum.visualisierbar.model.train.Train;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.math.BigInteger;
-import java.util.HashMap;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
-import org.antlr.v4.runtime.ANTLRFileStream;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.DefaultErrorStrategy;
-import org.antlr.v4.runtime.Parser;
-import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.atn.PredictionMode;
-import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
-import sun.rmi.runtime.Log;
 
 @ParametersAreNonnullByDefault
 public final class GraphParser {
 
     private static final Logger log = Logger.getLogger(GraphParser.class.getName());
 
+    private long parsedLines;
+    private long fallbackLines;
+
     public GraphParser() {
     }
 
@@ -36,31 +42,236 @@ public final class GraphParser {
         LogLexer lexer = new LogLexer(input);
         lexer.removeErrorListeners();
         CommonTokenStream tokens = new CommonTokenStream(lexer);
-        LogParser parser = new LogParser(tokens);
-        parser.setErrorHandler(new DefaultErrorStrategy() {
-            @Override
-            public void reportError(Parser recognizer, RecognitionException e) {
-                // TODO maybe log errors?
+        LineParser parser = new LineParser(tokens);
+
+        DeclarationHandler declarations = new ModelDeclarationHandler(context);
+        Listener listener = new Listener(SymbolTable.in(context), declarations,
+            new ModelEventHandler(context));
+        parser.walkLines(tokens, listener);
+        declarations.link();
+        logFallbacks();
+        return context;
+    }
+
+    /**
+     * <p>Parses the input line by line using an {@link IncrementalParser}.</p>
+     *
+     * <p>Only the current line and its parse tree are held in memory. The tree is discarded after
+     * it has been walked, so the memory needed is determined by the resulting {@link Context}
+     * instead of the size of the input.</p>
+     *
+     * @param reader the reader to read lines from
+     * @param symbols the symbol table to intern the names of events in
+     * @param declarations the handler for declaration lines
+     * @param eventHandler the handler for event lines
+     * @throws IOException if the reader throws an IOException
+     */
+    private void parseLines(BufferedReader reader, SymbolTable symbols,
+        DeclarationHandler declarations, EventLineScanner.EventHandler eventHandler)
+        throws IOException {
+        IncrementalParser lineParser = new IncrementalParser(symbols, declarations, eventHandler);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineParser.parseLine(line);
+        }
+        lineParser.link();
+        logFallbacks();
+    }
+
+    /**
+     * <p>Creates a parser which adds lines to the given context as they are passed to it.</p>
+     *
+     * <p>This is meant for logs which are still being written: new lines can be parsed as soon as
+     * they are available, without parsing the previous lines again.</p>
+     *
+     * @param context the context to add the parsed objects to
+     * @return a new parser
+     */
+    @Nonnull
+    public IncrementalParser parseIncrementally(Context context) {
+        return new IncrementalParser(SymbolTable.in(context), new ModelDeclarationHandler(context),
+            new ModelEventHandler(context));
+    }
+
+    /**
+     * <p>Parses a log line by line.</p>
+     *
+     * <p>Only the current line and its parse tree are held in memory. Event lines are handled by an
+     * {@link EventLineScanner} if possible. Only the lines it rejects are parsed by ANTLR.</p>
+     *
+     * <p>Instances are not thread-safe.</p>
+     */
+    public final class IncrementalParser {
+
+        private final EventLineScanner.EventHandler eventHandler;
+        private final DeclarationHandler declarations;
+        private final LogLexer lexer;
+        private final LineParser parser;
+        private final EventLineScanner scanner;
+        private final Listener listener;
+
+        private IncrementalParser(SymbolTable symbols, DeclarationHandler declarations,
+            EventLineScanner.EventHandler eventHandler) {
+            this.eventHandler = eventHandler;
+            this.declarations = declarations;
+            this.lexer = new LogLexer(new ANTLRInputStream());
+            lexer.removeErrorListeners();
+            this.parser = new LineParser(new CommonTokenStream(lexer));
+            this.scanner = new EventLineScanner(symbols);
+            this.listener = new Listener(symbols, declarations, eventHandler);
+        }
+
+        /**
+         * Parses a single line. Invalid lines are logged and skipped.
+         *
+         * @param line a line without line terminator
+         */
+        public void parseLine(String line) {
+            if (line.trim().isEmpty() || scanner.scan(line, eventHandler)) {
+                return;
             }
-        });
-        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
-        ParseTree parseTree;
-        try {
-            parseTree = parser.start();  // STAGE 1
-        } catch (Exception ex) {
-            tokens.reset(); // rewind input stream
-            parser.reset();
-            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
-            parseTree = parser.start();  // STAGE 2
-            // if we parse ok, it's LL not SLL
+            lexer.setInputStream(new ANTLRInputStream(line + '\n'));
+            // a fresh token stream, because the old one still remembers having reached EOF
+            CommonTokenStream tokens = new CommonTokenStream(lexer);
+            parser.walkLines(tokens, listener);
         }
 
-        ParseTreeWalker walker = new ParseTreeWalker();
-        Listener listener = new Listener(context);
-        walker.walk(listener, parseTree);
+        /**
+         * <p>Resolves references between the declarations parsed so far, e.g. the elements of a
+         * logical group.</p>
+         *
+         * <p>Should be called after each batch of lines. References to objects which haven't been
+         * parsed yet are resolved by a later call.</p>
+         */
+        public void link() {
+            declarations.link();
+        }
+    }
+
+    @Nonnull
+    private Context parseLines(BufferedReader reader, Context context) throws IOException {
+        parseLines(reader, SymbolTable.in(context), new ModelDeclarationHandler(context),
+            new ModelEventHandler(context));
+        return context;
+    }
+
+    /**
+     * <p>Parses the input in two phases.</p>
+     *
+     * <p>In the first phase, all declarations are added to the context, while all events are
+     * buffered. In the second phase, the events of each train are added in parallel. Element and
+     * message events are added in one additional task, in their original order.</p>
+     *
+     * <p>The resulting context is the same as if the input had been parsed sequentially, except
+     * that events may refer to declarations which appear later in the input.</p>
+     *
+     * @param reader the reader to read lines from
+     * @param context the context to add the parsed objects to
+     * @return the context
+     * @throws IOException if the reader throws an IOException
+     */
+    @Nonnull
+    private Context parseLinesParallel(BufferedReader reader, Context context) throws IOException {
+        EventBuffer events = new EventBuffer();
+        parseLines(reader, SymbolTable.in(context), new ModelDeclarationHandler(context), events);
+        events.replay(new ModelEventHandler(context), ForkJoinPool.commonPool());
         return context;
     }
 
+    /**
+     * Gets the number of valid lines which have been parsed by ANTLR, i.e. all lines except the
+     * event lines handled by the {@link EventLineScanner}.
+     *
+     * @return the number of lines parsed by ANTLR
+     */
+    public long getParsedLineCount() {
+        return parsedLines;
+    }
+
+    /**
+     * <p>Gets the number of lines which had to be parsed a second time.</p>
+     *
+     * <p>Lines are parsed using the fast SLL prediction mode first. Only if that fails, the line
+     * is parsed again using the full LL prediction mode, which also recovers from syntax errors.
+     * This mostly happens for invalid lines.</p>
+     *
+     * @return the number of lines which have been parsed in LL mode
+     */
+    public long getFallbackLineCount() {
+        return fallbackLines;
+    }
+
+    private void logFallbacks() {
+        if (fallbackLines > 0) {
+            log.fine(String.format("%d of %d lines needed the LL fallback",
+                fallbackLines, parsedLines));
+        }
+    }
+
+    /**
+     * <p>Parses lines using the two-stage strategy: SLL prediction first, LL prediction if SLL
+     * fails.</p>
+     *
+     * <p>The fallback is applied per line, so an odd line only causes that line to be parsed
+     * again, not the whole input.</p>
+     */
+    private final class LineParser {
+
+        private final LogParser parser;
+        private final ANTLRErrorStrategy bail;
+        private final ANTLRErrorStrategy recover;
+
+        LineParser(CommonTokenStream tokens) {
+            this.parser = new LogParser(tokens);
+            parser.removeErrorListeners();
+            this.bail = new BailErrorStrategy();
+            this.recover = new DefaultErrorStrategy();
+        }
+
+        /**
+         * Parses all lines of the given token stream and walks their parse trees, one line at a
+         * time.
+         *
+         * @param tokens the tokens to parse
+         * @param listener the listener to walk the parse trees with
+         */
+        void walkLines(CommonTokenStream tokens, ParseTreeListener listener) {
+            parser.setTokenStream(tokens);
+            while (tokens.LA(1) != Token.EOF) {
+                LogParser.LineContext line = parseLine(tokens);
+                if (line.element_line() != null) {
+                    parsedLines++;
+                }
+                ParseTreeWalker.DEFAULT.walk(listener, line);
+            }
+        }
+
+        /**
+         * Parses the next line, or the next character if it doesn't start a valid line.
+         */
+        @Nonnull
+        private LogParser.LineContext parseLine(CommonTokenStream tokens) {
+            int start = tokens.index();
+            parser.setErrorHandler(bail);
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            try {
+                return parser.line();  // STAGE 1
+            } catch (ParseCancellationException e) {
+                fallbackLines++;
+                tokens.seek(start);
+                parser.setErrorHandler(recover);
+                recover.reset(parser);
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                LogParser.LineContext line = parser.line();  // STAGE 2
+                if (tokens.index() == start) {
+                    // nothing could be recovered, skip the token to guarantee progress
+                    tokens.consume();
+                }
+                return line;
+            }
+        }
+    }
+
     @Nonnull
     public Context parse(String fileName) throws IOException {
         return parse(fileName, new Context());
@@ -68,8 +279,9 @@ public final class GraphParser {
 
     @Nonnull
     public Context parse(String fileName, Context context) throws IOException {
-        CharStream input = new ANTLRFileStream(fileName);
-        return parse(input, context);
+        try (InputStream input = LogInput.open(new File(fileName))) {
+            return parse(input, context);
+        }
     }
 
     @Nonnull
@@ -83,55 +295,204 @@ public final class GraphParser {
         return parse(stream, context);
     }
 
-    private static class Listener extends LogBaseListener {
+    /**
+     * Parses the given log file line by line. The file is never fully loaded into memory.
+     *
+     * @param fileName the path to the log file
+     * @return a new context containing the parsed objects
+     * @throws IOException if the file can't be read
+     */
+    @Nonnull
+    public Context parseStreaming(String fileName) throws IOException {
+        return parseStreaming(fileName, new Context());
+    }
+
+    /**
+     * Parses the given log file line by line. The file is never fully loaded into memory.
+     *
+     * @param fileName the path to the log file
+     * @param context the context to add the parsed objects to
+     * @return the context
+     * @throws IOException if the file can't be read
+     */
+    @Nonnull
+    public Context parseStreaming(String fileName, Context context) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(LogInput.open(new File(fileName))))) {
+            return parseLines(reader, context);
+        }
+    }
+
+    /**
+     * Parses the given input line by line. The input is never fully loaded into memory.
+     *
+     * @param input the input stream to read from
+     * @return a new context containing the parsed objects
+     * @throws IOException if the input can't be read
+     */
+    @Nonnull
+    public Context parseStreaming(InputStream input) throws IOException {
+        return parseStreaming(input, new Context());
+    }
+
+    /**
+     * Parses the given input line by line. The input is never fully loaded into memory.
+     *
+     * @param input the input stream to read from
+     * @param context the context to add the parsed objects to
+     * @return the context
+     * @throws IOException if the input can't be read
+     */
+    @Nonnull
+    public Context parseStreaming(InputStream input, Context context) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input));
+        return parseLines(reader, context);
+    }
 
-        private final Context context;
-        private final BigInteger thousandInt;
+    /**
+     * Parses the given log file using two phases: first all declarations, then the events of all
+     * trains in parallel.
+     *
+     * @param fileName the path to the log file
+     * @return a new context containing the parsed objects
+     * @throws IOException if the file can't be read
+     */
+    @Nonnull
+    public Context parseParallel(String fileName) throws IOException {
+        return parseParallel(fileName, new Context());
+    }
 
-        private HashMap<String, Edge> elemViewTracker;
-        private HashMap<String, LogicalGroup> elemGroupTracker;
-        private HashMap<String, String> alsoGroupTracker;
-        private HashMap<String, Extra> extraTracker;
+    /**
+     * Parses the given log file using two phases: first all declarations, then the events of all
+     * trains in parallel.
+     *
+     * @param fileName the path to the log file
+     * @param context the context to add the parsed objects to
+     * @return the context
+     * @throws IOException if the file can't be read
+     */
+    @Nonnull
+    public Context parseParallel(String fileName, Context context) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(LogInput.open(new File(fileName))))) {
+            return parseLinesParallel(reader, context);
+        }
+    }
 
-        Listener(Context context) {
-            this.context = context;
-            this.thousandInt = BigInteger.valueOf(1000);
-            elemViewTracker = new HashMap<>();
-            elemGroupTracker = new HashMap<>();
-            alsoGroupTracker = new HashMap<>();
-            extraTracker = new HashMap<>();
+    /**
+     * Parses the given input using two phases: first all declarations, then the events of all
+     * trains in parallel.
+     *
+     * @param input the input stream to read from
+     * @param context the context to add the parsed objects to
+     * @return the context
+     * @throws IOException if the input can't be read
+     */
+    @Nonnull
+    public Context parseParallel(InputStream input, Context context) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input));
+        return parseLinesParallel(reader, context);
+    }
+
+    /**
+     * <p>Parses the given log file like {@link #parseParallel(String)}, using a binary snapshot to
+     * speed up reopening the same file.</p>
+     *
+     * <p>If there is an up-to-date snapshot next to the log file, the context is rebuilt from it
+     * without parsing the log. Otherwise, the log is parsed and a new snapshot is written. Failing
+     * to write the snapshot doesn't cause this method to fail.</p>
+     *
+     * <p>Events are only buffered and replayed in parallel if the common pool has more than one
+     * thread. Otherwise, they are added to the context as they are read, like
+     * {@link #parseStreaming(String)} does.</p>
+     *
+     * @param fileName the path to the log file
+     * @return a new context containing the parsed objects
+     * @throws IOException if the file can't be read
+     */
+    @Nonnull
+    public Context parseCached(String fileName) throws IOException {
+        File logFile = new File(fileName);
+        boolean parallel = ForkJoinPool.getCommonPoolParallelism() > 1;
+        try {
+            Context context = new Context();
+            EventBuffer events = parallel ? new EventBuffer() : null;
+            if (ContextSnapshot.replay(logFile, SymbolTable.in(context),
+                new ModelDeclarationHandler(context), eventHandler(context, events))) {
+                replay(context, events);
+                return context;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warning("Could not load snapshot of " + fileName + ": " + e.getMessage());
         }
 
-        private int createTime(LogParser.TimeContext ctx) {
-            if (ctx.rat() != null) {
-                RatContext ratContext = ctx.rat();
-                BigInteger left = new BigInteger(ratContext.INT(0).getText());
-                BigInteger right = new BigInteger(ratContext.INT(1).getText());
-                return left.multiply(thousandInt).divide(right).intValue();
+        Context context = new Context();
+        long size = logFile.length();
+        long lastModified = logFile.lastModified();
+        // computed on the file as it is stored, which may be compressed, like it is validated
+        long checksum = ContextSnapshot.checksum(logFile);
+        SymbolTable symbols = SymbolTable.in(context);
+        EventBuffer events = parallel ? new EventBuffer() : null;
+        try (ContextSnapshot.Writer writer = new ContextSnapshot.Writer(logFile, symbols,
+            new ModelDeclarationHandler(context), eventHandler(context, events));
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(LogInput.open(logFile)))) {
+            parseLines(reader, symbols, writer, writer);
+            replay(context, events);
+            if (logFile.length() == size && logFile.lastModified() == lastModified) {
+                writer.commit(size, lastModified, checksum);
             }
-            return Integer.parseInt(ctx.INT().getText()) * 1000;
         }
+        return context;
+    }
+
+    /**
+     * Gets the handler to pass events to: the buffer, if there is one, otherwise a handler which
+     * adds them to the context right away.
+     */
+    @Nonnull
+    private static EventLineScanner.EventHandler eventHandler(Context context,
+        @Nullable EventBuffer events) {
+        return events != null ? events : new ModelEventHandler(context);
+    }
+
+    private static void replay(Context context, @Nullable EventBuffer events) {
+        if (events != null) {
+            events.replay(new ModelEventHandler(context), ForkJoinPool.commonPool());
+        }
+    }
+
+    private static class Listener extends EventLineListener {
 
-        private Coordinates createCoordinates(LogParser.CoordContext ctx) {
-            int x = Integer.parseInt(ctx.INT(0).getText());
-            int y = Integer.parseInt(ctx.INT(1).getText());
-            return new Coordinates(x, y);
+        private final DeclarationHandler declarations;
+
+        Listener(SymbolTable symbols, DeclarationHandler declarations,
+            EventLineScanner.EventHandler eventHandler) {
+            super(symbols, eventHandler);
+            this.declarations = declarations;
+        }
+
+        @Nullable
+        private static String getText(@Nullable ParserRuleContext ctx) {
+            return ctx == null ? null : ctx.getText();
+        }
+
+        private static void logInvalidLine(ParserRuleContext ctx, IllegalArgumentException e) {
+            log.warning("Could not parse line: " + ctx.getText()
+                + "\nReason: " + e.getMessage()
+            );
         }
 
         @Override
         public void enterNode(LogParser.NodeContext ctx) {
             try {
                 String nodeName = ctx.node_name().getText();
-                String nodeAbsName;
-                try {nodeAbsName = ctx.node_abs_name().getText();}
-                catch (NullPointerException e){nodeAbsName = null;}
-                Coordinates coordinates = createCoordinates(ctx.coord());
-                Node newNode = Node.in(context).create(nodeName, coordinates, nodeAbsName);
-                newNode.setOldName(newNode.higherName());
+                String nodeAbsName = getText(ctx.node_abs_name());
+                int x = Integer.parseInt(ctx.coord().INT(0).getText());
+                int y = Integer.parseInt(ctx.coord().INT(1).getText());
+                declarations.node(nodeName, x, y, nodeAbsName);
             } catch (IllegalArgumentException e) {
-                log.warning("Could not parse line: " + ctx.getText()
-                    + "\nReason: " + e.getMessage()
-                );
+                logInvalidLine(ctx, e);
             }
         }
 
@@ -140,51 +501,11 @@ public final class GraphParser {
             try {
                 String elementName = ctx.elem_name().getText();
                 String nodeName = ctx.node_name().getText();
-                String absName;
-                Node node = Node.in(context).get(nodeName);
                 Element.State state = Element.State.fromName(ctx.STATE().getText());
-                Element.Type type = Element.Type.fromName(elementName);
-                Element elemNew = Element.in(context).create(elementName, type, node, state);
-
-
-
-                try {absName = ctx.elem_abs_name().getText();
-                     elemNew.setAbsName(absName);
-                     elemNew.setOldName(elemNew.higherName());
-                    }
-                catch (NullPointerException ignored){}
-
-                if(elemViewTracker.get(elementName) != null)
-                    {Edge view = elemViewTracker.get(elementName);
-                     Node viewNode = view.getNode1().equals(node) ? view.getNode2() : view.getNode1();
-                     elemNew.setDirection(viewNode);
-                     elemViewTracker.remove(elementName);
-                    }
-
-                if(elemGroupTracker.get(elementName) != null) {
-                    LogicalGroup logicalGroup = elemGroupTracker.get(elementName);
-                    elemNew.setLogicalGroup(logicalGroup);
-                    logicalGroup.addElement(elemNew);
-                    elemGroupTracker.remove(elementName);
-                }
-
-                if(alsoGroupTracker.get(elementName) != null){
-                    LogicalGroup.in(context).getAll().forEach(gr -> {
-                        if(alsoGroupTracker.get(elementName).equals(gr.getSw_element()))
-                            {gr.setBelongsTo(elemNew);}
-                    });
-                }
-
-                if(extraTracker.get(elementName) != null) {
-                    elemNew.setExtra(extraTracker.get(elementName));
-                    extraTracker.remove(elementName);
-                }
-
-
+                String absName = getText(ctx.elem_abs_name());
+                declarations.element(elementName, nodeName, state, absName);
             } catch (IllegalArgumentException e) {
-                log.warning("Could not parse line: " + ctx.getText()
-                    + "\nReason: " + e.getMessage()
-                );
+                logInvalidLine(ctx, e);
             }
         }
 
@@ -195,111 +516,48 @@ public final class GraphParser {
                 String node1Name = ctx.node_name(0).getText();
                 String node2Name = ctx.node_name(1).getText();
                 int length = Integer.parseInt(ctx.INT().getText());
-
-                Node node1 = Node.in(context).get(node1Name);
-                Node node2 = Node.in(context).get(node2Name);
-                String absName;
-                try {absName = ctx.edge_abs_name().getText();}
-                catch (NullPointerException e){absName = null;}
-                Edge newEdge = Edge.in(context).create(edgeName, length, node1, node2, absName);
-                newEdge.setOldName(newEdge.higherName());
+                String absName = getText(ctx.edge_abs_name());
+                declarations.edge(edgeName, node1Name, node2Name, length, absName);
             } catch (IllegalArgumentException e) {
-                log.warning("Could not parse line: " + ctx.getText()
-                    + "\nReason: " + e.getMessage()
-                );
+                logInvalidLine(ctx, e);
             }
         }
 
         @Override
-        public void enterView(LogParser.ViewContext ctx)
-            {try {String edgeName = ctx.edge_name().getText();
-                  String elemName = ctx.elem_name().getText();
-                  int speed = ctx.speed() != null ? Integer.valueOf(ctx.speed().getText()) : -1;
-                  Edge edge1 = Edge.in(context).get(edgeName);
-                  // Versuche die Edge zu finden - falls nicht vorhanden, schiebe sie in die HashMap
-                  try{Element elem1 = Element.in(context).get(elemName);
-                      Node viewNode = elem1.getNode().equals(edge1.getNode1()) ? edge1.getNode2() : edge1.getNode1();
-                      elem1.setDirection(viewNode);
-                      if(speed != -1)
-                        {elem1.setExtra(new Extra(speed, null, null));}
-                     }
-                  catch (IllegalArgumentException e)
-                     {elemViewTracker.put(elemName, edge1);
-                      extraTracker.put(elemName, new Extra(speed, null, null));
-                     }
-                 }
-             catch (IllegalArgumentException e){
-                log.warning("Could not parse line: " + ctx.getText()
-                    + "\nReason: " + e.getMessage());
-             }
+        public void enterView(LogParser.ViewContext ctx) {
+            try {
+                String edgeName = ctx.edge_name().getText();
+                String elemName = ctx.elem_name().getText();
+                int speed = ctx.speed() != null ? Integer.valueOf(ctx.speed().getText()) : -1;
+                declarations.view(elemName, edgeName, speed);
+            } catch (IllegalArgumentException e) {
+                logInvalidLine(ctx, e);
             }
+        }
 
         @Override
         public void enterLogicalGroup(LogParser.LogicalGroupContext ctx) {
             try {
                 String groupName = ctx.log_name().getText();
-
                 String type = ctx.kind().getText();
-
-                LogicalGroup.Kind kind;
-                switch (type) {
-                    case ("SIGNAL"):
-                        kind = LogicalGroup.Kind.SIGNAL;
-                        break;
-                    case "SWITCH":
-                        kind = LogicalGroup.Kind.SWITCH;
-                        break;
-                    case "LIMITER":
-                        kind = LogicalGroup.Kind.LIMITER;
-                        break;
-                    case "GENERIC":
-                        kind = LogicalGroup.Kind.GENERIC;
-                        break;
-                    default:
-                        kind = LogicalGroup.Kind.DEFAULT;
-                        break;
-                }
-
-                LogicalGroup logicalGroup = LogicalGroup.in(context).create(groupName, kind);      //new logicalGroup(groupName, kind);
-                logicalGroup.setSw_element(ctx.sw_name().getText());
-
-                alsoGroupTracker.forEach((key, group) -> {
-                    if(group.equals(ctx.sw_name().getText()) && Element.in(context).NameExists(key))
-                        {logicalGroup.setBelongsTo(Element.in(context).get(key));}
-                });
-
-
-                for (int i = 0; ctx.elem_name(i) != null; i++) {
-                    if (ctx.elem_name(i).getText().equals("null")) continue;
-                    if(Element.in(context).NameExists(ctx.elem_name(i).getText()))
-                        {logicalGroup.addElement(Element.in(context).get(ctx.elem_name(i).getText()));}
-                    else
-                        {elemGroupTracker.put(ctx.elem_name(i).getText(), logicalGroup);}
-                }
+                String switchName = ctx.sw_name().getText();
+                List<String> elementNames = ctx.elem_name().stream()
+                    .map(ParserRuleContext::getText)
+                    .collect(Collectors.toList());
+                declarations.group(type, groupName, switchName, elementNames);
             } catch (IllegalArgumentException e) {
-                log.warning("Could not parse line: " + ctx.getText()
-                        + "\nReason: " + e.getMessage());
+                logInvalidLine(ctx, e);
             }
         }
 
-
         @Override
-        public void enterAlso(LogParser.AlsoContext ctx)
-            {try
-                {String elemName = ctx.elem_name().getText();
-                 String logName = ctx.log_name().getText();
-
-                 LogicalGroup.in(context).getAll().forEach(group ->{
-                     if(group.getSw_element().equals(logName) && Element.in(context).NameExists(elemName))
-                        {group.setBelongsTo(Element.in(context).get(elemName));}
-                 });
-                 alsoGroupTracker.put(elemName, logName);
-                }
-            catch (IllegalArgumentException e) {
-                log.warning("Could not parse line: " + ctx.getText()
-                        + "\nReason: " + e.getMessage());
-            }
+        public void enterAlso(LogParser.AlsoContext ctx) {
+            try {
+                declarations.also(ctx.elem_name().getText(), ctx.log_name().getText());
+            } catch (IllegalArgumentException e) {
+                logInvalidLine(ctx, e);
             }
+        }
 
         @Override
         public void enterTrain(LogParser.TrainContext ctx) {
@@ -307,99 +565,17 @@ public final class GraphParser {
                 String trainName = ctx.train_name().getText();
                 String humanName = ctx.train_readable_name().getText();
                 int length = Integer.parseInt(ctx.INT().getText());
-
-                Train.in(context).create(trainName, humanName, length);
+                declarations.train(trainName, humanName, length);
             } catch (IllegalArgumentException e) {
-                log.warning("Could not parse line: " + ctx.getText()
-                    + "\nReason: " + e.getMessage()
-                );
+                logInvalidLine(ctx, e);
             }
         }
 
         @Override
         public void enterExtra(LogParser.ExtraContext ctx) {
             String name = ctx.elem_name().getText();
-
-            //Falls das Element schon angelegt wurde:
-            if(Element.in(context).NameExists(name)) {
-                Element elem = Element.in(context).get(name);
-                elem.setExtra(new Extra(Integer.parseInt(ctx.value().getText()), ctx.name().getText(), ctx.bool().getText()));
-            }
-
-            //Falls das Element noch nicht angelegt wurde:
-            else {
-                extraTracker.put(name, new Extra(Integer.parseInt(ctx.value().getText()), ctx.name().getText(), ctx.bool().getText()));
-            }
-        }
-
-        @Override
-        public void enterMv_init(LogParser.Mv_initContext ctx) {
-            Train train = Train.in(context).get(ctx.train_name().getText());
-            Edge edge = Edge.in(context).get(ctx.edge_name().getText());
-            int time = createTime(ctx.time());
-            train.eventFactory().init(time, edge);
-        }
-
-        @Override
-        public void enterMv_speed(LogParser.Mv_speedContext ctx) {
-            String trainName = ctx.train_name().getText();
-            Train train = Train.in(context).get(trainName);
-            int time = createTime(ctx.time());
-            int distance = Integer.parseInt(ctx.distance().getText());
-            if (ctx.speed() == null) {
-                train.eventFactory().move(time, distance);
-            } else {
-                int speed = Integer.parseInt(ctx.speed().INT().getText());
-                train.eventFactory().speed(time, distance, speed);
-            }
-        }
-
-        @Override
-        public void enterMv_start(LogParser.Mv_startContext ctx) {
-            String trainName = ctx.train_name().getText();
-            Train train = Train.in(context).get(trainName);
-            int time = createTime(ctx.time());
-            String edgeName = ctx.edge_name().getText();
-            Edge edge = Edge.in(context).get(edgeName);
-            int distance = Integer.parseInt(ctx.distance().getText());
-            train.eventFactory().reach(time, edge, distance);
-        }
-
-        @Override
-        public void enterMv_leaves(LogParser.Mv_leavesContext ctx) {
-            String trainName = ctx.train_name().getText();
-            Train train = Train.in(context).get(trainName);
-            int time = createTime(ctx.time());
-            String edgeName = ctx.edge_name().getText();
-            Edge edge = Edge.in(context).get(edgeName);
-            int distance = Integer.parseInt(ctx.distance().getText());
-            train.eventFactory().leave(time, edge, distance);
-        }
-
-        @Override
-        public void enterMv_term(LogParser.Mv_termContext ctx) {
-            String trainName = ctx.train_name().getText();
-            Train train = Train.in(context).get(trainName);
-            int time = createTime(ctx.time());
-            int distance = Integer.parseInt(ctx.distance().getText());
-            train.eventFactory().terminate(time, distance);
-        }
-
-        @Override
-        public void enterCh(LogParser.ChContext ctx) {
-            String elementName = ctx.elem_name().getText();
-            Element element = Element.in(context).get(elementName);
-            Element.State state = Element.State.fromName(ctx.STATE().getText());
-            int time = createTime(ctx.time());
-            element.addEvent(state, time);
-        }
-
-        @Override
-        public void enterMsg(MsgContext ctx) {
-            int time = createTime(ctx.time());
-            String text = ctx.message().getText();
-            Node node = Node.in(context).get(ctx.node_name().getText());
-            Messages.in(context).add(time, text, node);
+            int value = Integer.parseInt(ctx.value().getText());
+            declarations.extra(name, value, ctx.name().getText(), ctx.bool().getText());
         }
     }
 
@@ -0,0 +1,119 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>Opens log files which may be compressed.</p>
+ *
+ * <p>The compression format is detected by the first bytes of the file, not by its name. Supported
+ * are the formats the JDK can read: gzip, and zip archives whose first entry is the log.
+ * Compressed input is decompressed on a separate thread, so decompression overlaps with
+ * parsing.</p>
+ */
+@ParametersAreNonnullByDefault
+public final class LogInput {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAGIC_LENGTH = 4;
+
+    private LogInput() {
+    }
+
+    private enum Compression {
+        NONE, GZIP, ZIP;
+
+        static Compression detect(byte[] magic, int length) {
+            if (length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+                return GZIP;
+            }
+            if (length >= 4 && magic[0] == 'P' && magic[1] == 'K'
+                && magic[2] == 3 && magic[3] == 4) {
+                return ZIP;
+            }
+            return NONE;
+        }
+    }
+
+    /**
+     * Opens the given log file, decompressing it if necessary.
+     *
+     * @param file the log file
+     * @return a stream of the (decompressed) log
+     * @throws IOException if the file can't be opened or its compressed format is invalid
+     */
+    @Nonnull
+    public static InputStream open(File file) throws IOException {
+        return decompress(new FileInputStream(file), file.getName());
+    }
+
+    /**
+     * Checks whether the given file is compressed in one of the supported formats.
+     *
+     * @param file a file
+     * @return whether the file is compressed
+     * @throws IOException if the file can't be read
+     */
+    public static boolean isCompressed(File file) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            byte[] magic = new byte[MAGIC_LENGTH];
+            return Compression.detect(magic, readMagic(input, magic)) != Compression.NONE;
+        }
+    }
+
+    private static int readMagic(InputStream input, byte[] magic) throws IOException {
+        int length = 0;
+        int read;
+        while (length < magic.length
+            && (read = input.read(magic, length, magic.length - length)) != -1) {
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * Wraps the given stream so it is decompressed if necessary.
+     * Uncompressed input is only buffered.
+     *
+     * @param input the raw stream, will be closed when the result is closed
+     * @param name a name for the input, used to name the decompressing thread
+     * @return a stream of the decompressed input
+     * @throws IOException if the input can't be read or its compressed format is invalid
+     */
+    @Nonnull
+    static InputStream decompress(InputStream input, String name) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+        try {
+            buffered.mark(MAGIC_LENGTH);
+            byte[] magic = new byte[MAGIC_LENGTH];
+            Compression compression = Compression.detect(magic, readMagic(buffered, magic));
+            buffered.reset();
+
+            switch (compression) {
+                case GZIP:
+                    return new ReadAheadInputStream(
+                        new GZIPInputStream(buffered, BUFFER_SIZE), name);
+                case ZIP:
+                    ZipInputStream zip = new ZipInputStream(buffered);
+                    ZipEntry entry = zip.getNextEntry();
+                    if (entry == null) {
+                        throw new IOException("empty zip archive: " + name);
+                    }
+                    return new ReadAheadInputStream(zip, name);
+                default:
+                    return buffered;
+            }
+        } catch (IOException | RuntimeException e) {
+            buffered.close();
+            throw e;
+        }
+    }
+}
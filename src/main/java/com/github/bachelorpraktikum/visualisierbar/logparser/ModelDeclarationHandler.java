@@ -0,0 +1,208 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.Coordinates;
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import com.github.bachelorpraktikum.visualisierbar.model.Element;
+import com.github.bachelorpraktikum.visualisierbar.model.Extra;
+import com.github.bachelorpraktikum.visualisierbar.model.LogicalGroup;
+import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import com.github.bachelorpraktikum.visualisierbar.model.train.Train;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>Adds parsed declarations to the model of a {@link Context}.</p>
+ *
+ * <p>Declarations may refer to elements which are declared later in the log. Instead of resolving
+ * those references on every line, they are collected in tables indexed by element name and switch
+ * element name and linked in one pass when {@link #link()} is called. References to elements
+ * which haven't been declared yet stay in the tables until a later call.</p>
+ */
+@ParametersAreNonnullByDefault
+final class ModelDeclarationHandler implements DeclarationHandler {
+
+    private final Context context;
+    private final Element.ElementFactory elements;
+
+    /**
+     * element name -> edge the element faces
+     */
+    private final Map<String, Edge> pendingViews;
+    /**
+     * element name -> extra of the element, the last declaration wins
+     */
+    private final Map<String, Extra> pendingExtras;
+    /**
+     * group -> names of the elements in the group
+     */
+    private final Map<LogicalGroup, List<String>> pendingMembers;
+    /**
+     * switch element name -> groups with that switch element
+     */
+    private final Map<String, List<LogicalGroup>> groupsBySwitch;
+    /**
+     * switch element name -> name of the element the groups belong to, the last declaration wins
+     */
+    private final Map<String, String> owners;
+    /**
+     * the entries of {@link #owners} which haven't been linked to all their groups yet
+     */
+    private final Map<String, String> pendingOwners;
+
+    ModelDeclarationHandler(Context context) {
+        this.context = context;
+        this.elements = Element.in(context);
+        this.pendingViews = new HashMap<>();
+        this.pendingExtras = new HashMap<>();
+        this.pendingMembers = new LinkedHashMap<>();
+        this.groupsBySwitch = new HashMap<>();
+        this.owners = new HashMap<>();
+        this.pendingOwners = new LinkedHashMap<>();
+    }
+
+    @Override
+    public void node(String name, int x, int y, @Nullable String absName) {
+        Coordinates coordinates = new Coordinates(x, y);
+        Node newNode = Node.in(context).create(name, coordinates, absName);
+        newNode.setOldName(newNode.higherName());
+    }
+
+    @Override
+    public void edge(String name, String node1Name, String node2Name, int length,
+        @Nullable String absName) {
+        Node node1 = Node.in(context).get(node1Name);
+        Node node2 = Node.in(context).get(node2Name);
+        Edge newEdge = Edge.in(context).create(name, length, node1, node2, absName);
+        newEdge.setOldName(newEdge.higherName());
+    }
+
+    @Override
+    public void element(String elementName, String nodeName, Element.State state,
+        @Nullable String absName) {
+        Node node = Node.in(context).get(nodeName);
+        Element.Type type = Element.Type.fromName(elementName);
+        Element elemNew = elements.create(elementName, type, node, state);
+
+        if (absName != null) {
+            elemNew.setAbsName(absName);
+            elemNew.setOldName(elemNew.higherName());
+        }
+    }
+
+    @Override
+    public void view(String elemName, String edgeName, int speed)
+        {Edge edge1 = Edge.in(context).get(edgeName);
+         pendingViews.put(elemName, edge1);
+         // Ein noch nicht angelegtes Element bekommt die Geschwindigkeit in jedem Fall
+         if(speed != -1 || !elements.NameExists(elemName))
+            {pendingExtras.put(elemName, new Extra(speed, null, null));}
+        }
+
+    @Override
+    public void group(String type, String groupName, String switchName,
+        List<String> elementNames) {
+        LogicalGroup.Kind kind;
+        switch (type) {
+            case ("SIGNAL"):
+                kind = LogicalGroup.Kind.SIGNAL;
+                break;
+            case "SWITCH":
+                kind = LogicalGroup.Kind.SWITCH;
+                break;
+            case "LIMITER":
+                kind = LogicalGroup.Kind.LIMITER;
+                break;
+            case "GENERIC":
+                kind = LogicalGroup.Kind.GENERIC;
+                break;
+            default:
+                kind = LogicalGroup.Kind.DEFAULT;
+                break;
+        }
+
+        LogicalGroup logicalGroup = LogicalGroup.in(context).create(groupName, kind);      //new logicalGroup(groupName, kind);
+        logicalGroup.setSw_element(switchName);
+        groupsBySwitch.computeIfAbsent(switchName, name -> new ArrayList<>(1)).add(logicalGroup);
+        String owner = owners.get(switchName);
+        if (owner != null) {
+            pendingOwners.put(switchName, owner);
+        }
+        pendingMembers.computeIfAbsent(logicalGroup, group -> new ArrayList<>())
+            .addAll(elementNames);
+    }
+
+    @Override
+    public void also(String elemName, String logName)
+        {owners.put(logName, elemName);
+         pendingOwners.put(logName, elemName);
+        }
+
+    @Override
+    public void extra(String elementName, int value, String name, String bool)
+        {pendingExtras.put(elementName, new Extra(value, name, bool));}
+
+    @Override
+    public void train(String name, String readableName, int length) {
+        Train.in(context).create(name, readableName, length);
+    }
+
+    /**
+     * Links all collected references to the elements they refer to. References to elements which
+     * haven't been declared yet are kept.
+     */
+    @Override
+    public void link() {
+        pendingViews.entrySet().removeIf(view -> {
+            if (!elements.NameExists(view.getKey())) {
+                return false;
+            }
+            Element elem = elements.get(view.getKey());
+            Edge edge = view.getValue();
+            Node viewNode = elem.getNode().equals(edge.getNode1())
+                ? edge.getNode2() : edge.getNode1();
+            elem.setDirection(viewNode);
+            return true;
+        });
+
+        pendingMembers.entrySet().removeIf(members -> {
+            LogicalGroup logicalGroup = members.getKey();
+            members.getValue().removeIf(elementName -> {
+                if (elementName.equals("null")) {
+                    return true;
+                }
+                if (!elements.NameExists(elementName)) {
+                    return false;
+                }
+                logicalGroup.addElement(elements.get(elementName));
+                return true;
+            });
+            return members.getValue().isEmpty();
+        });
+
+        pendingOwners.entrySet().removeIf(owner -> {
+            List<LogicalGroup> groups = groupsBySwitch.get(owner.getKey());
+            if (groups == null || !elements.NameExists(owner.getValue())) {
+                return false;
+            }
+            Element elem = elements.get(owner.getValue());
+            for (LogicalGroup group : groups) {
+                group.setBelongsTo(elem);
+            }
+            return true;
+        });
+
+        pendingExtras.entrySet().removeIf(extra -> {
+            if (!elements.NameExists(extra.getKey())) {
+                return false;
+            }
+            elements.get(extra.getKey()).setExtra(extra.getValue());
+            return true;
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import com.github.bachelorpraktikum.visualisierbar.model.Element;
+import com.github.bachelorpraktikum.visualisierbar.model.Messages;
+import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import com.github.bachelorpraktikum.visualisierbar.model.train.Train;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>Adds parsed events to the model of a {@link Context}.</p>
+ *
+ * <p>The factories are looked up once on construction. Events of different trains may therefore be
+ * added from different threads, as long as the declarations (trains, edges, ...) aren't modified
+ * at the same time. Element and message events must not be added concurrently.</p>
+ */
+@ParametersAreNonnullByDefault
+final class ModelEventHandler implements EventLineScanner.EventHandler {
+
+    private final Train.TrainFactory trains;
+    private final Edge.EdgeFactory edges;
+    private final Element.ElementFactory elements;
+    private final Node.NodeFactory nodes;
+    private final Messages messages;
+
+    ModelEventHandler(Context context) {
+        this.trains = Train.in(context);
+        this.edges = Edge.in(context);
+        this.elements = Element.in(context);
+        this.nodes = Node.in(context);
+        this.messages = Messages.in(context);
+    }
+
+    @Override
+    public void init(int trainId, long time, int edgeId) {
+        Train train = trains.get(trainId);
+        Edge edge = edges.get(edgeId);
+        train.eventFactory().init(time, edge);
+    }
+
+    @Override
+    public void move(int trainId, long time, int distance) {
+        Train train = trains.get(trainId);
+        train.eventFactory().move(time, distance);
+    }
+
+    @Override
+    public void speed(int trainId, long time, int distance, int speed) {
+        Train train = trains.get(trainId);
+        train.eventFactory().speed(time, distance, speed);
+    }
+
+    @Override
+    public void reach(int trainId, long time, int edgeId, int distance) {
+        Train train = trains.get(trainId);
+        Edge edge = edges.get(edgeId);
+        train.eventFactory().reach(time, edge, distance);
+    }
+
+    @Override
+    public void leave(int trainId, long time, int edgeId, int distance) {
+        Train train = trains.get(trainId);
+        Edge edge = edges.get(edgeId);
+        train.eventFactory().leave(time, edge, distance);
+    }
+
+    @Override
+    public void terminate(int trainId, long time, int distance) {
+        Train train = trains.get(trainId);
+        train.eventFactory().terminate(time, distance);
+    }
+
+    @Override
+    public void change(int elementId, Element.State state, long time) {
+        Element element = elements.get(elementId);
+        element.addEvent(state, time);
+    }
+
+    @Override
+    public void message(int nodeId, long time, String text) {
+        Node node = nodes.get(nodeId);
+        messages.add(time, text, node);
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>Reads another input stream on a separate thread, a few chunks ahead of the consumer.</p>
+ *
+ * <p>This lets expensive reads, e.g. decompression, overlap with the processing of the data which
+ * has already been read.</p>
+ */
+@ParametersAreNonnullByDefault
+final class ReadAheadInputStream extends InputStream {
+
+    private static final Logger log = Logger.getLogger(ReadAheadInputStream.class.getName());
+
+    private static final int CHUNK_SIZE = 1 << 18;
+    private static final int CHUNKS_AHEAD = 4;
+    // marks the end of the source, never returned to the consumer
+    private static final byte[] END = new byte[0];
+
+    private final InputStream source;
+    private final BlockingQueue<byte[]> chunks;
+    /**
+     * chunks the consumer is done with, which are reused by the reading thread
+     */
+    private final BlockingQueue<byte[]> freeChunks;
+    private final Thread thread;
+
+    @Nullable
+    private volatile IOException error;
+    private volatile boolean closed;
+
+    private byte[] chunk;
+    private int chunkPosition;
+    private boolean ended;
+
+    /**
+     * Creates a new stream and starts reading the source.
+     *
+     * @param source the stream to read, will be closed when this stream is closed
+     * @param name a name for the reading thread
+     */
+    ReadAheadInputStream(InputStream source, String name) {
+        this.source = source;
+        this.chunks = new ArrayBlockingQueue<>(CHUNKS_AHEAD);
+        // the queued chunks, the one being filled and the one being consumed
+        this.freeChunks = new ArrayBlockingQueue<>(CHUNKS_AHEAD + 2);
+        this.chunk = END;
+        this.thread = new Thread(this::readSource, "Read ahead " + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void readSource() {
+        try {
+            while (!closed) {
+                byte[] buffer = freeChunks.poll();
+                if (buffer == null) {
+                    buffer = new byte[CHUNK_SIZE];
+                }
+                int length = 0;
+                int read = 0;
+                while (length < buffer.length
+                    && (read = source.read(buffer, length, buffer.length - length)) != -1) {
+                    length += read;
+                }
+                if (length > 0) {
+                    chunks.put(length == buffer.length ? buffer : Arrays.copyOf(buffer, length));
+                }
+                if (read == -1) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            error = e;
+        } catch (RuntimeException e) {
+            // e.g. thrown by a decompressor for corrupt input, must not look like a regular end
+            error = new IOException(e);
+        } catch (InterruptedException e) {
+            // closed
+        } finally {
+            try {
+                source.close();
+            } catch (IOException e) {
+                log.warning("Could not close source: " + e.getMessage());
+            }
+            if (!closed) {
+                try {
+                    chunks.put(END);
+                } catch (InterruptedException e) {
+                    // closed
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes sure there is at least one byte left in the current chunk.
+     *
+     * @return false if the end of the source has been reached
+     */
+    private boolean fill() throws IOException {
+        if (closed) {
+            throw new IOException("stream closed");
+        }
+        while (chunkPosition == chunk.length) {
+            if (ended) {
+                return false;
+            }
+            if (chunk.length == CHUNK_SIZE) {
+                freeChunks.offer(chunk);
+            }
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            chunkPosition = 0;
+            if (chunk == END) {
+                ended = true;
+                IOException e = error;
+                if (e != null) {
+                    throw e;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return chunk[chunkPosition++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, chunk.length - chunkPosition);
+        System.arraycopy(chunk, chunkPosition, bytes, offset, count);
+        chunkPosition += count;
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return chunk.length - chunkPosition;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        thread.interrupt();
+        // unblocks the reading thread if it is waiting for room in the queue
+        chunks.clear();
+    }
+}
@@ -1,10 +1,13 @@
 package com.github.bachelorpraktikum.visualisierbar.model;
 
-import com.github.bachelorpraktikum.visualisierbar.CompositeObservableList;
 import com.github.bachelorpraktikum.visualisierbar.model.train.Train;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import javafx.collections.ObservableList;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -17,16 +20,90 @@ import javax.annotation.concurrent.Immutable;
 @Immutable
 public final class Context {
 
-    public static final int INIT_STATE_TIME = -1;
+    public static final long INIT_STATE_TIME = -1;
 
     private final List<Object> objects;
+    /**
+     * the objects of the keys, indexed by key. The array is replaced whenever an object is added,
+     * so it can be read without locking.
+     */
+    @Nonnull
+    private volatile Object[] slots;
 
     public Context() {
         this.objects = new LinkedList<>();
+        this.slots = new Object[Key.count.get()];
+    }
+
+    /**
+     * <p>Identifies an object which exists once per context, like the factories of the classes
+     * in this package.</p>
+     *
+     * <p>Each key has a slot in every context, so {@link #get(Key)} only has to read an array
+     * element.</p>
+     *
+     * @param <T> the type of the object
+     */
+    public static final class Key<T> {
+
+        private static final AtomicInteger count = new AtomicInteger();
+
+        private final int index;
+        @Nonnull
+        private final Function<Context, T> constructor;
+
+        /**
+         * Creates a new key. Keys should be stored in static fields, because every key uses a
+         * slot in every context.
+         *
+         * @param constructor creates the object for a context
+         * @throws NullPointerException if constructor is null
+         */
+        public Key(@Nonnull Function<Context, T> constructor) {
+            this.constructor = Objects.requireNonNull(constructor);
+            this.index = count.getAndIncrement();
+        }
     }
 
     /**
-     * <p>Gets a list of all events associated with this context.</p>
+     * <p>Gets the object for the given key, creating it on first access.</p>
+     *
+     * <p>This method is thread-safe. The object is only created once per context.</p>
+     *
+     * @param key the key
+     * @param <T> the type of the object
+     * @return the object for this context
+     * @throws NullPointerException if key is null
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public <T> T get(@Nonnull Key<T> key) {
+        Object[] slots = this.slots;
+        if (key.index < slots.length) {
+            Object object = slots[key.index];
+            if (object != null) {
+                return (T) object;
+            }
+        }
+        return create(key);
+    }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private synchronized <T> T create(Key<T> key) {
+        if (key.index < slots.length && slots[key.index] != null) {
+            return (T) slots[key.index];
+        }
+        // may get other objects of this context, which replaces the slots
+        T object = Objects.requireNonNull(key.constructor.apply(this));
+        Object[] result = Arrays.copyOf(slots, Math.max(slots.length, Key.count.get()));
+        result[key.index] = object;
+        slots = result;
+        return object;
+    }
+
+    /**
+     * <p>Gets a list of all events associated with this context, ordered by time.</p>
      *
      * <p>If a train is created after calling this method, the list previously returned will not
      * contain any of the new train's events.</p>
@@ -34,22 +111,14 @@ public final class Context {
      * @return an immutable observable list of events
      */
     @Nonnull
-    public ObservableList<Event> getObservableEvents() {
-        CompositeObservableList<Event> elementEvents = new CompositeObservableList<>(
-            Element.in(this).getEvents()
-        );
-
-        CompositeObservableList<Event> events = elementEvents.union(
-            Messages.in(this).getEvents()
-        );
-
-        return events.union(
-            Train.in(this).getAll().stream()
-                .map(Train::getEvents)
-                .reduce(new CompositeObservableList<>(),
-                    CompositeObservableList::union,
-                    CompositeObservableList::union)
-        );
+    public EventLog getObservableEvents() {
+        List<ObservableList<? extends Event>> sources = new ArrayList<>();
+        sources.add(Element.in(this).getEvents());
+        sources.add(Messages.in(this).getEvents());
+        for (Train train : Train.in(this).getAll()) {
+            sources.add(train.getEvents());
+        }
+        return new EventLog(sources);
     }
 
     /**
@@ -1,12 +1,10 @@
 package com.github.bachelorpraktikum.visualisierbar.model;
 
-import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.WeakHashMap;
 import java.util.logging.Logger;
 
 import com.github.bachelorpraktikum.visualisierbar.view.graph.Graph;
@@ -78,33 +76,47 @@ public final class Edge implements GraphObject<Line> {
     public static final class EdgeFactory implements Factory<Edge> {
 
         private static final int INITIAL_EDGES_CAPACITY = 512;
-        private static final Map<Context, WeakReference<EdgeFactory>> instances = new WeakHashMap<>();
+        private static final Context.Key<EdgeFactory> KEY = new Context.Key<>(EdgeFactory::new);
 
         @Nonnull
         private final Map<String, Edge> edges;
         @Nonnull
+        private final SymbolTable symbols;
+        @Nonnull
+        private final SymbolTable.Index<Edge> edgesById;
+        @Nonnull
         private final Factory<Node> nodeFactory;
 
         @Nonnull
         private static EdgeFactory getInstance(Context context) {
-
-            EdgeFactory result = instances.computeIfAbsent(context, ctx -> {
-                EdgeFactory factory = new EdgeFactory(ctx);
-                ctx.addObject(factory);
-                return new WeakReference<>(factory);
-            }).get();
-
-            if (result == null) {
-                throw new IllegalStateException();
-            }
-            return result;
+            return context.get(KEY);
         }
 
         private EdgeFactory(Context ctx) {
             this.edges = new LinkedHashMap<>(INITIAL_EDGES_CAPACITY);
+            this.symbols = SymbolTable.in(ctx);
+            this.edgesById = new SymbolTable.Index<>();
             this.nodeFactory = Node.in(ctx);
         }
 
+        private Edge index(Edge edge) {
+            edgesById.put(symbols.intern(edge.getName()), edge);
+            return edge;
+        }
+
+        private void put(String name, Edge edge) {
+            edges.put(name, edge);
+            edgesById.put(symbols.intern(name), edge);
+        }
+
+        private void remove(String name) {
+            edges.remove(name);
+            int id = symbols.find(name);
+            if (id >= 0) {
+                edgesById.put(id, null);
+            }
+        }
+
         /**
          * Potentially creates a new instance of {@link Edge}.
          *
@@ -126,7 +138,7 @@ public final class Edge implements GraphObject<Line> {
             }
 
             Edge result = edges.computeIfAbsent(Objects.requireNonNull(name), edgeName ->
-                    new Edge(edgeName, length, node1, node2)
+                    index(new Edge(edgeName, length, node1, node2))
             );
 
             if (result.getLength() != length
@@ -166,7 +178,7 @@ public final class Edge implements GraphObject<Line> {
             }
 
             Edge result = edges.computeIfAbsent(Objects.requireNonNull(name), edgeName ->
-                new Edge(edgeName, length, node1, node2, absName)
+                index(new Edge(edgeName, length, node1, node2, absName))
             );
 
             if (result.getLength() != length
@@ -194,6 +206,16 @@ public final class Edge implements GraphObject<Line> {
             return edge;
         }
 
+        @Override
+        @Nonnull
+        public Edge get(int id) {
+            Edge edge = edgesById.get(id);
+            if (edge == null) {
+                throw new IllegalArgumentException("unknown edge ID: " + id);
+            }
+            return edge;
+        }
+
         /**
          * Checks the availability of a name
          * @param name the String to check
@@ -218,7 +240,7 @@ public final class Edge implements GraphObject<Line> {
             }
 
         public void remove(Edge edge){
-            edges.remove(edge.getName());
+            remove(edge.getName());
         }
 
         @Override
@@ -342,8 +364,8 @@ public final class Edge implements GraphObject<Line> {
              boolean exit = Edge.in(graph.getContext()).AbsNameExists(newAbsName, this);
              if (!exit) {
                  this.absName = newAbsName;
-                 Edge.in(graph.getContext()).edges.remove(name);
-                 Edge.in(graph.getContext()).edges.put(name, this);
+                 Edge.in(graph.getContext()).remove(name);
+                 Edge.in(graph.getContext()).put(name, this);
                  return true;
              }
          }
@@ -360,8 +382,8 @@ public final class Edge implements GraphObject<Line> {
 
             if(!Edge.in(graph.getContext()).NameExists(newName)){
                 this.name=newName;
-                Edge.in(graph.getContext()).edges.remove(newName);
-                Edge.in(graph.getContext()).edges.put(newName,this);
+                Edge.in(graph.getContext()).remove(newName);
+                Edge.in(graph.getContext()).put(newName,this);
                 return true;
             }
         }
@@ -1,6 +1,5 @@
 package com.github.bachelorpraktikum.visualisierbar.model;
 
-import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.util.*;
 import java.util.function.Supplier;
@@ -50,6 +49,10 @@ public final class Element implements GraphObject<Shape> {
     private final Switch aSwitch;
     @Nonnull
     private final ReadOnlyObjectWrapper<State> stateProperty;
+    /**
+     * the index of this element in the state checkpoints of the factory
+     */
+    private final int slot;
     @Nullable
     private Graph graph;
     @Nullable
@@ -92,7 +95,17 @@ public final class Element implements GraphObject<Shape> {
          */
         @Nonnull
         public static State fromName(String name) {
-            return valueOf(name.trim().toUpperCase());
+            // the log always uses the exact constant names, so try those before normalizing
+            switch (name) {
+                case "NOSIG":
+                    return NOSIG;
+                case "STOP":
+                    return STOP;
+                case "FAHRT":
+                    return FAHRT;
+                default:
+                    return valueOf(name.trim().toUpperCase());
+            }
         }
     }
 
@@ -122,12 +135,20 @@ public final class Element implements GraphObject<Shape> {
         Ne5("Ne5", "Ne5"),
         UnknownElement("", Rectangle::new);
 
+        /**
+         * All types in the order {@link #fromName(String)} tries them: longest log name first,
+         * types with log names of equal length in reverse declaration order.
+         */
+        private static final Type[] MATCH_ORDER = createMatchOrder();
+
         private final String logName;
+        private final String lowerLogName;
         private final Property<VisibleState> stateProperty;
         private final Supplier<Shape> shapeSupplier;
 
         Type(String logName, String... imageNames) {
             this.logName = logName;
+            this.lowerLogName = logName.toLowerCase();
             this.stateProperty = new SimpleObjectProperty<>(VisibleState.AUTO);
             List<URL> imageUrls = new ArrayList<>(imageNames.length);
 
@@ -146,6 +167,7 @@ public final class Element implements GraphObject<Shape> {
 
         Type(String logName, Supplier<Shape> shapeSupplier) {
             this.logName = logName;
+            this.lowerLogName = logName.toLowerCase();
             this.stateProperty = new SimpleObjectProperty<>(VisibleState.AUTO);
             this.shapeSupplier = shapeSupplier;
         }
@@ -197,12 +219,10 @@ public final class Element implements GraphObject<Shape> {
         public static Type fromName(String name) {
             String lowerName = name.toLowerCase();
             Type longestMatch = UnknownElement;
-            for (Type type : values()) {
-                if (type.getLogName().length() >= longestMatch.getLogName().length()) {
-                    String lowerTypeName = type.getLogName().toLowerCase();
-                    if (lowerName.contains(lowerTypeName)) {
-                        longestMatch = type;
-                    }
+            for (Type type : MATCH_ORDER) {
+                if (lowerName.contains(type.lowerLogName)) {
+                    longestMatch = type;
+                    break;
                 }
             }
             if (longestMatch == UnknownElement) {
@@ -210,6 +230,15 @@ public final class Element implements GraphObject<Shape> {
             }
             return longestMatch;
         }
+
+        private static Type[] createMatchOrder() {
+            Type[] types = values();
+            Arrays.sort(types, Comparator
+                .comparingInt((Type type) -> type.getLogName().length())
+                .thenComparingInt(Type::ordinal)
+                .reversed());
+            return types;
+        }
     }
 
     private Element(ElementFactory factory, String name, Type type, Node node, State state) {
@@ -230,23 +259,35 @@ public final class Element implements GraphObject<Shape> {
             this.aSwitch = null;
         }
 
+        this.slot = factory.addSlot(this);
         // Add an event at time 0 with the initial state
         factory.addEvent(this, state, Context.INIT_STATE_TIME);
     }
 
     /**
      * <p>Manages all instances of {@link Element}. Ensures that is always only one instance of
-     * element per name per {@link Context}.</p> <p>Additionally, provides the {@link #setTime(int)}
+     * element per name per {@link Context}.</p> <p>Additionally, provides the {@link #setTime(long)}
      * method to set the time of all Elements that exist in this factory's context.</p>
      */
     @ParametersAreNonnullByDefault
     public static final class ElementFactory implements Factory<Element> {
 
         private static final int INITIAL_ELEMENTS_CAPACITY = 256;
-        private static final Map<Context, WeakReference<ElementFactory>> instances = new WeakHashMap<>();
+        /**
+         * The number of events between two checkpoints of the element states.
+         */
+        private static final int CHECKPOINT_INTERVAL = 1024;
+        private static final byte NO_STATE = -1;
+        private static final State[] STATES = State.values();
+        private static final Context.Key<ElementFactory> KEY =
+            new Context.Key<>(ElementFactory::new);
 
         @Nonnull
         private final Map<String, Element> elements;
+        @Nonnull
+        private final SymbolTable symbols;
+        @Nonnull
+        private final SymbolTable.Index<Element> elementsById;
 
         @Nonnull
         private final Switch.Factory switchFactory;
@@ -254,26 +295,49 @@ public final class Element implements GraphObject<Shape> {
         private final Factory<Node> nodeFactory;
         @Nonnull
         private final ObservableList<ElementEvent> events;
-        private int currentTime;
+        private long currentTime;
         private int nextIndex;
 
+        /**
+         * all elements ever created by this factory, by slot. Removed elements are null.
+         */
         @Nonnull
-        private static ElementFactory getInstance(Context context) {
-
-            ElementFactory result = instances.computeIfAbsent(context, ctx -> {
-                ElementFactory factory = new ElementFactory(ctx);
-                ctx.addObject(factory);
-                return new WeakReference<>(factory);
-            }).get();
+        private final List<Element> elementsBySlot;
+        /**
+         * The i-th checkpoint contains the state ordinals of the elements after the first
+         * i * {@link #CHECKPOINT_INTERVAL} events, indexed by slot. Elements which hadn't been
+         * created at that point are not contained.
+         */
+        @Nonnull
+        private final List<byte[]> checkpoints;
+        /**
+         * the state ordinals of the elements after all events, indexed by slot
+         */
+        @Nonnull
+        private byte[] lastStates;
+        private int lastStatesLength;
+        /**
+         * the net state ordinals of the elements during a seek, indexed by slot, or NO_STATE if
+         * the state of an element doesn't change
+         */
+        @Nonnull
+        private byte[] seekStates;
+        /**
+         * the slots which are not NO_STATE in seekStates
+         */
+        @Nonnull
+        private int[] seekSlots;
+        private int seekSlotCount;
 
-            if (result == null) {
-                throw new IllegalStateException();
-            }
-            return result;
+        @Nonnull
+        private static ElementFactory getInstance(Context context) {
+            return context.get(KEY);
         }
 
         private ElementFactory(Context context) {
             this.elements = new LinkedHashMap<>(INITIAL_ELEMENTS_CAPACITY);
+            this.symbols = SymbolTable.in(context);
+            this.elementsById = new SymbolTable.Index<>();
 
             this.switchFactory = Switch.in(context);
             this.nodeFactory = Node.in(context);
@@ -281,6 +345,31 @@ public final class Element implements GraphObject<Shape> {
             this.currentTime = -1;
             this.nextIndex = 0;
 
+            this.elementsBySlot = new ArrayList<>(INITIAL_ELEMENTS_CAPACITY);
+            this.checkpoints = new ArrayList<>();
+            this.lastStates = new byte[INITIAL_ELEMENTS_CAPACITY];
+            this.lastStatesLength = 0;
+            this.seekStates = new byte[0];
+            this.seekSlots = new int[0];
+            this.seekSlotCount = 0;
+        }
+
+        private Element index(Element element) {
+            elementsById.put(symbols.intern(element.getName()), element);
+            return element;
+        }
+
+        private void put(String name, Element element) {
+            elements.put(name, element);
+            elementsById.put(symbols.intern(name), element);
+        }
+
+        private void remove(String name) {
+            elements.remove(name);
+            int id = symbols.find(name);
+            if (id >= 0) {
+                elementsById.put(id, null);
+            }
         }
 
         public boolean NameExists (@Nonnull String name){
@@ -328,7 +417,7 @@ public final class Element implements GraphObject<Shape> {
             }
 
             Element element = elements.computeIfAbsent(Objects.requireNonNull(name), elementName ->
-                new Element(this, elementName, type, node, state)
+                index(new Element(this, elementName, type, node, state))
             );
             State resultInitState = getStateAtTime(element, Context.INIT_STATE_TIME);
             if (!element.getName().equals(name)
@@ -350,7 +439,16 @@ public final class Element implements GraphObject<Shape> {
             LinkedList<Event>eList = new LinkedList<>();
             eList.addAll(element.getFactory().getEvents());
             events.removeAll(eList);
-            elements.remove(element.getName());
+            remove(element.getName());
+            if (elementsBySlot.get(element.slot) == element) {
+                elementsBySlot.set(element.slot, null);
+            }
+
+            // the indices of the events have changed
+            rebuildCheckpoints();
+            long refreshTime = currentTime;
+            resetTime();
+            setTime(refreshTime);
         }
 
         /**
@@ -361,8 +459,8 @@ public final class Element implements GraphObject<Shape> {
          * @param time the time to look up the state for
          * @return the state of the element at the given time
          */
-        private State getStateAtTime(Element element, int time) {
-            int resetTime = currentTime;
+        private State getStateAtTime(Element element, long time) {
+            long resetTime = currentTime;
             setTime(time);
             State result = element.getState();
             setTime(resetTime);
@@ -379,6 +477,16 @@ public final class Element implements GraphObject<Shape> {
             return element;
         }
 
+        @Override
+        @Nonnull
+        public Element get(int id) {
+            Element element = elementsById.get(id);
+            if (element == null) {
+                throw new IllegalArgumentException("unknown element ID: " + id);
+            }
+            return element;
+        }
+
         @Override
         @Nonnull
         public Collection<Element> getAll() {
@@ -390,23 +498,31 @@ public final class Element implements GraphObject<Shape> {
             return elements.get(element.getName()) == element;
         }
 
-        private void addEvent(Element element, State state, int time) {
+        private void addEvent(Element element, State state, long time) {
             addEvent(element, state, new LinkedList<>(), time);
         }
 
-        private void addEvent(Element element, State state, List<String> warnings, int time) {
+        private void addEvent(Element element, State state, List<String> warnings, long time) {
             if (!events.isEmpty() && time < events.get(events.size() - 1).getTime()) {
                 warnings.add("tried to add before last event at " + time);
                 time = events.get(events.size() - 1).getTime();
             }
-            events.add(new ElementEvent(
+            ElementEvent event = new ElementEvent(
                 element, time, state, FXCollections.observableList(warnings)
-            ));
+            );
+            trackState(event, events.size());
+            events.add(event);
             // maybe the states have to be updated
             if (time <= currentTime) {
-                int refreshTime = currentTime;
-                resetTime();
-                setTime(refreshTime);
+                if (nextIndex == events.size() - 1) {
+                    // all previous events have been applied, the new one only affects its element
+                    nextIndex++;
+                    element.stateProperty.setValue(state);
+                } else {
+                    long refreshTime = currentTime;
+                    resetTime();
+                    setTime(refreshTime);
+                }
             }
         }
 
@@ -415,14 +531,104 @@ public final class Element implements GraphObject<Shape> {
             nextIndex = 0;
         }
 
+        private int addSlot(Element element) {
+            elementsBySlot.add(element);
+            return elementsBySlot.size() - 1;
+        }
+
+        /**
+         * Updates the last states with an event which is about to be added at the given index.
+         * Creates a checkpoint first, if the index is the first after a full interval.
+         */
+        private void trackState(ElementEvent event, int index) {
+            if (index % CHECKPOINT_INTERVAL == 0) {
+                checkpoints.add(Arrays.copyOf(lastStates, lastStatesLength));
+            }
+            int slot = event.getElement().slot;
+            if (slot >= lastStates.length) {
+                int oldLength = lastStates.length;
+                lastStates = Arrays.copyOf(lastStates, Math.max(slot + 1, oldLength * 2));
+                Arrays.fill(lastStates, oldLength, lastStates.length, NO_STATE);
+            }
+            lastStates[slot] = (byte) event.getState().ordinal();
+            lastStatesLength = Math.max(lastStatesLength, slot + 1);
+        }
+
+        private void rebuildCheckpoints() {
+            checkpoints.clear();
+            Arrays.fill(lastStates, NO_STATE);
+            lastStatesLength = 0;
+            for (int index = 0; index < events.size(); index++) {
+                trackState(events.get(index), index);
+            }
+        }
+
+        private void seekState(int slot, byte state) {
+            if (seekStates[slot] == NO_STATE) {
+                seekSlots[seekSlotCount++] = slot;
+            }
+            seekStates[slot] = state;
+        }
+
+        /**
+         * Seeks to the states in the given checkpoint.
+         */
+        private void seekCheckpoint(int checkpoint) {
+            byte[] states = checkpoints.get(checkpoint);
+            for (int slot = 0; slot < states.length; slot++) {
+                if (states[slot] != NO_STATE) {
+                    seekState(slot, states[slot]);
+                }
+            }
+            nextIndex = checkpoint * CHECKPOINT_INTERVAL;
+        }
+
+        /**
+         * Sets the net states of the seek. The state property of each element is set at most
+         * once, so its listeners are only notified if the state actually changed.
+         */
+        private void applySeek() {
+            for (int i = 0; i < seekSlotCount; i++) {
+                int slot = seekSlots[i];
+                Element element = elementsBySlot.get(slot);
+                if (element != null) {
+                    element.stateProperty.setValue(STATES[seekStates[slot]]);
+                }
+                seekStates[slot] = NO_STATE;
+            }
+            seekSlotCount = 0;
+        }
+
         /**
-         * Changes the time for all {@link Element elements} in this context.
+         * Counts the events which happen at or before the given time.
+         */
+        private int countEventsUntil(long time) {
+            int low = 0;
+            int high = events.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (events.get(middle).getTime() <= time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * <p>Changes the time for all {@link Element elements} in this context.</p>
          *
-         * @param time the time in milliseconds
+         * <p>Seeking restores the closest checkpoint of the element states before the wanted time
+         * and replays the events after it, so no more than {@link #CHECKPOINT_INTERVAL} events
+         * are replayed, no matter which direction the time changes in. Only the net state of
+         * each element is applied, intermediate states are skipped.</p>
+         *
+         * @param time the time in microseconds
          * @throws IllegalArgumentException if time is less than {@link Context#INIT_STATE_TIME}
          */
-        public void setTime(int time) {
-            if (time < -1) {
+        public void setTime(long time) {
+            if (time < Context.INIT_STATE_TIME) {
                 throw new IllegalArgumentException("invalid time: " + time);
             }
 
@@ -430,16 +636,25 @@ public final class Element implements GraphObject<Shape> {
                 return;
             }
 
-            if (time < currentTime) {
-                resetTime();
+            if (seekStates.length < elementsBySlot.size()) {
+                int length = Math.max(elementsBySlot.size(), seekStates.length * 2);
+                seekStates = new byte[length];
+                Arrays.fill(seekStates, NO_STATE);
+                seekSlots = new int[length];
+            }
+
+            int target = countEventsUntil(time);
+            int checkpoint = Math.min(target / CHECKPOINT_INTERVAL, checkpoints.size() - 1);
+            if (checkpoint >= 0
+                && (target < nextIndex || checkpoint * CHECKPOINT_INTERVAL > nextIndex)) {
+                seekCheckpoint(checkpoint);
             }
 
-            ElementEvent event;
-            while (nextIndex < events.size() && (event = events.get(nextIndex)).getTime() <= time) {
-                currentTime = event.getTime();
-                nextIndex += 1;
-                event.fire();
+            while (nextIndex < target) {
+                ElementEvent event = events.get(nextIndex++);
+                seekState(event.getElement().slot, (byte) event.getState().ordinal());
             }
+            applySeek();
             currentTime = time;
         }
 
@@ -470,11 +685,11 @@ public final class Element implements GraphObject<Shape> {
      * If the time is negative, it will be corrected to 0 and a warning will be added to the event.
      *
      * @param state new state after this event
-     * @param time the time of the event in milliseconds
+     * @param time the time of the event in microseconds
      * @throws NullPointerException if state is null
      * @throws IllegalStateException if there is already another event after this one
      */
-    public void addEvent(State state, int time) {
+    public void addEvent(State state, long time) {
         List<String> warnings = new LinkedList<>();
         if (time < 0) {
             warnings.add("original time was " + time);
@@ -539,8 +754,8 @@ public final class Element implements GraphObject<Shape> {
 
          if(!exit)
             {this.absName = newAbsName;
-                Element.in(graph.getContext()).elements.remove(name);
-                Element.in(graph.getContext()).elements.put(name, this);
+                Element.in(graph.getContext()).remove(name);
+                Element.in(graph.getContext()).put(name, this);
                 return true;
             }
          return false;
@@ -581,7 +796,7 @@ public final class Element implements GraphObject<Shape> {
 
     /**
      * Gets the property representing the {@link State} of this {@link Element}.<br>
-     * The state will change, if {@link ElementFactory#setTime(int)} is called.
+     * The state will change, if {@link ElementFactory#setTime(long)} is called.
      *
      * @return the state property
      */
@@ -638,8 +853,8 @@ public final class Element implements GraphObject<Shape> {
         if(graph!=null){
             if(!Element.in(graph.getContext()).NameExists(newName)){
                 this.name=newName;
-                Element.in(graph.getContext()).elements.remove(newName);
-                Element.in(graph.getContext()).elements.put(newName,this);
+                Element.in(graph.getContext()).remove(newName);
+                Element.in(graph.getContext()).put(newName,this);
                 return true;
             }
         }
@@ -828,13 +1043,13 @@ public final class Element implements GraphObject<Shape> {
 
         @Nonnull
         private final Element element;
-        private final int time;
+        private final long time;
         @Nonnull
         private final State state;
         @Nonnull
         private final ObservableList<String> warnings;
 
-        private ElementEvent(Element element, int time, State state,
+        private ElementEvent(Element element, long time, State state,
             ObservableList<String> warnings) {
             this.element = element;
             this.time = time;
@@ -848,7 +1063,7 @@ public final class Element implements GraphObject<Shape> {
         }
 
         @Override
-        public int getTime() {
+        public long getTime() {
             return time;
         }
 
@@ -870,10 +1085,6 @@ public final class Element implements GraphObject<Shape> {
             return state;
         }
 
-        private void fire() {
-            element.stateProperty.setValue(state);
-        }
-
         @Override
         public boolean equals(Object obj) {
             if (this == obj) {
@@ -890,7 +1101,7 @@ public final class Element implements GraphObject<Shape> {
 
         @Override
         public int hashCode() {
-            int result = time;
+            int result = Long.hashCode(time);
             result = 31 * result + state.hashCode();
             return result;
         }
@@ -898,7 +1109,7 @@ public final class Element implements GraphObject<Shape> {
         @Override
         public String toString() {
             return "ElementEvent{"
-                + "time=" + time
+                + "time=" + SimulationTime.format(time)
                 + ", element=" + getElement().getName()
                 + ", state=" + state
                 + '}';
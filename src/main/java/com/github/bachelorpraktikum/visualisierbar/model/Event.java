@@ -11,9 +11,9 @@ public interface Event extends Comparable<Event> {
     /**
      * Gets the time this event occured.
      *
-     * @return the time in milliseconds since simulation start
+     * @return the time in microseconds since simulation start
      */
-    int getTime();
+    long getTime();
 
     /**
      * Gets a string representation of this event.
@@ -27,6 +27,6 @@ public interface Event extends Comparable<Event> {
     ObservableList<String> getWarnings();
 
     default int compareTo(@Nonnull Event other) {
-        return Integer.compare(getTime(), other.getTime());
+        return Long.compare(getTime(), other.getTime());
     }
 }
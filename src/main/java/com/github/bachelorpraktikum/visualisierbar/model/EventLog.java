@@ -0,0 +1,338 @@
+package com.github.bachelorpraktikum.visualisierbar.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import javafx.collections.WeakListChangeListener;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>An immutable {@link ObservableList} of the events of several event lists, merged in the order
+ * of their time.</p>
+ *
+ * <p>Events with the same time are ordered by the list they come from (in the order the lists
+ * have been given in), and events of the same list keep their relative order. This is the same
+ * order a stable sort of the concatenated lists would result in.</p>
+ *
+ * <p>The log only stores the list and index of each event together with its time, and gets the
+ * event from its list when it's accessed, so lists which create their events on access don't have
+ * to keep them. Random access takes constant time and events can be looked up by time using
+ * binary search. Events appended to one of the lists are inserted into the log without merging the
+ * lists again. Any other change of a list causes the whole log to be replaced.</p>
+ *
+ * <p>Does not implement optional operations like {@link #add(Object)}.</p>
+ */
+@ParametersAreNonnullByDefault
+public final class EventLog extends ObservableListBase<Event> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Nonnull
+    private final List<ObservableList<? extends Event>> sources;
+    // the lists only hold weak references to the listeners
+    @Nonnull
+    private final List<ListChangeListener<Event>> listeners;
+
+    /**
+     * the index of the list each event comes from
+     */
+    @Nonnull
+    private int[] eventSources;
+    /**
+     * the index of each event in its list
+     */
+    @Nonnull
+    private int[] sourceIndices;
+    @Nonnull
+    private long[] times;
+    private int size;
+
+    /**
+     * Creates a log of the given lists.
+     *
+     * @param sources the lists to merge. Each list has to be ordered by time.
+     */
+    EventLog(List<? extends ObservableList<? extends Event>> sources) {
+        this.sources = new ArrayList<>(sources);
+        this.listeners = new ArrayList<>(sources.size());
+        this.eventSources = new int[INITIAL_CAPACITY];
+        this.sourceIndices = new int[INITIAL_CAPACITY];
+        this.times = new long[INITIAL_CAPACITY];
+        this.size = 0;
+
+        for (int i = 0; i < this.sources.size(); i++) {
+            int source = i;
+            ListChangeListener<Event> listener = change -> onChange(source, change);
+            listeners.add(listener);
+            this.sources.get(i).addListener(new WeakListChangeListener<>(listener));
+        }
+        merge();
+    }
+
+    private static final class Cursor {
+
+        private final int source;
+        private final List<? extends Event> events;
+        private int position;
+        private long time;
+
+        Cursor(int source, List<? extends Event> events) {
+            this.source = source;
+            this.events = events;
+            this.position = 0;
+            this.time = events.get(0).getTime();
+        }
+
+        /**
+         * Moves to the next event.
+         *
+         * @return whether there is a next event
+         */
+        boolean next() {
+            if (++position < events.size()) {
+                time = events.get(position).getTime();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Merges all lists into the events array.
+     */
+    private void merge() {
+        int total = 0;
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, sources.size()),
+            (a, b) -> {
+                int result = Long.compare(a.time, b.time);
+                return result != 0 ? result : Integer.compare(a.source, b.source);
+            });
+        for (int source = 0; source < sources.size(); source++) {
+            List<? extends Event> list = sources.get(source);
+            total += list.size();
+            if (!list.isEmpty()) {
+                cursors.add(new Cursor(source, list));
+            }
+        }
+
+        int capacity = Math.max(INITIAL_CAPACITY, total);
+        eventSources = new int[capacity];
+        sourceIndices = new int[capacity];
+        times = new long[capacity];
+        size = 0;
+        Cursor cursor;
+        while ((cursor = cursors.poll()) != null) {
+            eventSources[size] = cursor.source;
+            sourceIndices[size] = cursor.position;
+            times[size] = cursor.time;
+            size++;
+            if (cursor.next()) {
+                cursors.add(cursor);
+            }
+        }
+    }
+
+    private void onChange(int source, ListChangeListener.Change<? extends Event> change) {
+        List<? extends Event> list = sources.get(source);
+        boolean appended = change.next() && change.wasAdded() && !change.wasRemoved()
+            && change.getTo() == list.size() && !change.next();
+        change.reset();
+
+        beginChange();
+        try {
+            if (appended) {
+                change.next();
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    int index = insert(source, i, list.get(i).getTime());
+                    nextAdd(index, index + 1);
+                }
+            } else {
+                List<Event> removed = removedEvents(source, previousContent(list, change));
+                merge();
+                nextReplace(0, size, removed);
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Reconstructs the content of a list before the given change.
+     */
+    @Nonnull
+    private static List<Event> previousContent(List<? extends Event> list,
+        ListChangeListener.Change<? extends Event> change) {
+        List<int[]> ranges = new ArrayList<>();
+        List<List<? extends Event>> removed = new ArrayList<>();
+        List<int[]> permutations = new ArrayList<>();
+        while (change.next()) {
+            ranges.add(new int[]{change.getFrom(), change.getTo(), change.getAddedSize()});
+            removed.add(new ArrayList<>(change.getRemoved()));
+            int[] permutation = null;
+            if (change.wasPermutated()) {
+                permutation = new int[change.getTo() - change.getFrom()];
+                for (int i = 0; i < permutation.length; i++) {
+                    permutation[i] = change.getPermutation(change.getFrom() + i);
+                }
+            }
+            permutations.add(permutation);
+        }
+        change.reset();
+
+        // undo the parts of the change in reverse order
+        List<Event> content = new ArrayList<>(list);
+        for (int part = ranges.size() - 1; part >= 0; part--) {
+            int from = ranges.get(part)[0];
+            int[] permutation = permutations.get(part);
+            if (permutation != null) {
+                List<Event> permuted = new ArrayList<>(content);
+                for (int i = 0; i < permutation.length; i++) {
+                    permuted.set(from + i, content.get(permutation[i]));
+                }
+                content = permuted;
+            } else {
+                content.subList(from, from + ranges.get(part)[2]).clear();
+                content.addAll(from, removed.get(part));
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Creates a list of the current events of the log, which gets the events of the changed list
+     * from its previous content.
+     */
+    @Nonnull
+    private List<Event> removedEvents(int changedSource, List<Event> previous) {
+        List<Event> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (eventSources[i] == changedSource) {
+                result.add(previous.get(sourceIndices[i]));
+            } else {
+                result.add(sources.get(eventSources[i]).get(sourceIndices[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inserts an event at its position in the order of the log.
+     *
+     * @return the index of the event
+     */
+    private int insert(int source, int sourceIndex, long time) {
+        int index = findIndex(time, source);
+        if (size == times.length) {
+            int capacity = size * 2;
+            eventSources = Arrays.copyOf(eventSources, capacity);
+            sourceIndices = Arrays.copyOf(sourceIndices, capacity);
+            times = Arrays.copyOf(times, capacity);
+        }
+        System.arraycopy(eventSources, index, eventSources, index + 1, size - index);
+        System.arraycopy(sourceIndices, index, sourceIndices, index + 1, size - index);
+        System.arraycopy(times, index, times, index + 1, size - index);
+        eventSources[index] = source;
+        sourceIndices[index] = sourceIndex;
+        times[index] = time;
+        size++;
+        return index;
+    }
+
+    /**
+     * Finds the index of the first event which comes after all events with the given time from
+     * lists up to the given source.
+     */
+    private int findIndex(long time, int source) {
+        if (size == 0 || comesBefore(size - 1, time, source)) {
+            return size;
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comesBefore(middle, time, source)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private boolean comesBefore(int index, long time, int source) {
+        long eventTime = times[index];
+        return eventTime < time || (eventTime == time && eventSources[index] <= source);
+    }
+
+    /**
+     * Finds the first event which happened at or after the given time.
+     *
+     * @param time the time in microseconds
+     * @return the index of the event, or {@link #size()} if all events happened before
+     */
+    public int firstIndexAtOrAfter(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the last event which happened at or before the given time.
+     *
+     * @param time the time in microseconds
+     * @return the index of the event, or -1 if all events happened after
+     */
+    public int lastIndexAtOrBefore(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Gets the time of the event at the given index, without creating the event.
+     *
+     * @param index the index of the event
+     * @return the time in microseconds
+     * @throws IndexOutOfBoundsException if there is no event at the index
+     */
+    public long getTime(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return times[index];
+    }
+
+    @Override
+    public Event get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return sources.get(eventSources[index]).get(sourceIndices[index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
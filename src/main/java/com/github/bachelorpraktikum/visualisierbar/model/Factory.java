@@ -25,6 +25,17 @@ public interface Factory<T extends GraphObject<?>> {
     @Nonnull
     T get(@Nonnull String name);
 
+    /**
+     * Gets the instance whose name has the given ID in the {@link SymbolTable} of the
+     * {@link Context}.
+     *
+     * @param id the ID of the instance's name
+     * @return the instance with this name
+     * @throws IllegalArgumentException if there is no object associated with the ID
+     */
+    @Nonnull
+    T get(int id);
+
     /**
      * Gets all instances in this {@link Context}.
      *
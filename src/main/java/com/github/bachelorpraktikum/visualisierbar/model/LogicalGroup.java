@@ -6,7 +6,6 @@ import com.github.bachelorpraktikum.visualisierbar.view.graph.GraphShape;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
-import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -42,7 +41,7 @@ public class LogicalGroup {
     @ParametersAreNonnullByDefault
     public static final class GroupFactory{
 
-        private static final Map<Context, WeakReference<GroupFactory>> instances = new WeakHashMap<>();
+        private static final Context.Key<GroupFactory> KEY = new Context.Key<>(GroupFactory::new);
         private static final int INITIAL_NODES_CAPACITY = 32;
 
 
@@ -50,16 +49,7 @@ public class LogicalGroup {
         private final Map<String, LogicalGroup> groups;
         @Nonnull
         private static GroupFactory getInstance(Context context){
-            GroupFactory result = instances.computeIfAbsent(context, ctx -> {
-                GroupFactory factory = new GroupFactory(ctx);
-                ctx.addObject(factory);
-                return new WeakReference<>(factory);
-            }).get();
-
-            if (result == null) {
-                throw new IllegalStateException();
-            }
-            return result;
+            return context.get(KEY);
         }
 
         private GroupFactory(Context ctx) {
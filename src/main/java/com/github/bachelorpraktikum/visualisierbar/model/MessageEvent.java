@@ -28,7 +28,7 @@ final class MessageEvent implements Event {
     @Nullable
     static Consumer<MessageEvent> testFire = null;
 
-    private final int time;
+    private final long time;
     @Nonnull
     private final String text;
     @Nonnull
@@ -36,7 +36,7 @@ final class MessageEvent implements Event {
     @Nonnull
     private final ObservableList<String> warnings;
 
-    MessageEvent(int time, String text, Node node, List<String> warnings) {
+    MessageEvent(long time, String text, Node node, List<String> warnings) {
         this.time = time;
         this.text = Objects.requireNonNull(text);
         this.node = Objects.requireNonNull(node);
@@ -46,7 +46,7 @@ final class MessageEvent implements Event {
     @Override
     public String toString() {
         return "MessageEvent{"
-            + "time=" + time
+            + "time=" + SimulationTime.format(time)
             + ", text=" + text
             + ", node=" + node
             + ", warnings=" + warnings
@@ -54,7 +54,7 @@ final class MessageEvent implements Event {
     }
 
     @Override
-    public int getTime() {
+    public long getTime() {
         return time;
     }
 
@@ -63,7 +63,7 @@ final class MessageEvent implements Event {
     public String getDescription() {
         StringBuilder sb = new StringBuilder();
         sb.append("Message{")
-            .append("time=").append(getTime())
+            .append("time=").append(SimulationTime.format(getTime()))
             .append(", ").append("node=").append(getNode().getReadableName())
             .append(", ").append("text=").append(text)
             .append("}");
@@ -103,7 +103,7 @@ final class MessageEvent implements Event {
         dialog.setX(nodeBounds.getMaxX());
         dialog.setY(nodeBounds.getMaxY());
 
-        dialog.setTitle("MessageEvent at time " + getTime());
+        dialog.setTitle("MessageEvent at time " + SimulationTime.format(getTime()));
         dialog.setContentText(text);
 
         // The dialog need a button. Otherwise it won't be closable.
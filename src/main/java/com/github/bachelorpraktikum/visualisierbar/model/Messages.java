@@ -4,9 +4,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
 import java.util.Objects;
-import java.util.WeakHashMap;
 import java.util.function.Function;
 import java.util.logging.Logger;
 import javafx.collections.FXCollections;
@@ -18,7 +16,7 @@ import javax.annotation.ParametersAreNonnullByDefault;
 public final class Messages {
 
     private static final Logger log = Logger.getLogger(Messages.class.getName());
-    private static final Map<Context, Messages> instances = new WeakHashMap<>();
+    private static final Context.Key<Messages> KEY = new Context.Key<>(context -> new Messages());
 
     /**
      * Gets the Messages instance for the specified Context.
@@ -29,15 +27,15 @@ public final class Messages {
      */
     @Nonnull
     public static Messages in(Context context) {
-        return instances.computeIfAbsent(Objects.requireNonNull(context), c -> new Messages());
+        return Objects.requireNonNull(context).get(KEY);
     }
 
     private final ObservableList<MessageEvent> messageEvents;
     /**
-     * key -> endTime of the last call to {@link #fireEventsBetween(Function, int, int)}.
+     * key -> endTime of the last call to {@link #fireEventsBetween(Function, long, long)}.
      * value -> index of the next event after the key time
      */
-    private IntPair lastEvent;
+    private LongIntPair lastEvent;
 
     private Messages() {
         this.messageEvents = FXCollections.observableList(new ArrayList<>(64));
@@ -65,7 +63,7 @@ public final class Messages {
      * @throws IllegalArgumentException if time is negative
      * @throws NullPointerException if text or node are null
      */
-    public void add(int time, String text, Node node) {
+    public void add(long time, String text, Node node) {
         if (time < 0) {
             throw new IllegalArgumentException("time is negative: " + time);
         }
@@ -104,7 +102,7 @@ public final class Messages {
      * @throws NullPointerException if nodeResolver is null
      */
     public boolean fireEventsBetween(Function<Node, javafx.scene.Node> nodeResolver,
-        int startTime, int endTime) {
+        long startTime, long endTime) {
         if (nodeResolver == null) {
             throw new NullPointerException("nodeResolver is null");
         }
@@ -129,28 +127,28 @@ public final class Messages {
                 continue;
             }
             if (event.getTime() > endTime) {
-                lastEvent = new IntPair(endTime, iterator.previousIndex());
+                lastEvent = new LongIntPair(endTime, iterator.previousIndex());
                 return fired;
             }
 
             event.fire(nodeResolver);
             fired = true;
         }
-        lastEvent = new IntPair(endTime, iterator.nextIndex());
+        lastEvent = new LongIntPair(endTime, iterator.nextIndex());
         return fired;
     }
 
-    private static final class IntPair {
+    private static final class LongIntPair {
 
-        private final int key;
+        private final long key;
         private final int value;
 
-        IntPair(int key, int value) {
+        LongIntPair(long key, int value) {
             this.key = key;
             this.value = value;
         }
 
-        int getKey() {
+        long getKey() {
             return key;
         }
 
@@ -1,6 +1,5 @@
 package com.github.bachelorpraktikum.visualisierbar.model;
 
-import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -9,7 +8,6 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -88,29 +86,42 @@ public final class Node implements GraphObject<Circle> {
     public static final class NodeFactory implements Factory<Node> {
 
         private static final int INITIAL_NODES_CAPACITY = 128;
-        private static final Map<Context, WeakReference<NodeFactory>> instances = new WeakHashMap<>();
+        private static final Context.Key<NodeFactory> KEY = new Context.Key<>(NodeFactory::new);
 
         @Nonnull
         private final Map<String, Node> nodes;
-
+        @Nonnull
+        private final SymbolTable symbols;
+        @Nonnull
+        private final SymbolTable.Index<Node> nodesById;
 
         @Nonnull
         private static NodeFactory getInstance(Context context) {
-
-            NodeFactory result = instances.computeIfAbsent(context, ctx -> {
-                NodeFactory factory = new NodeFactory(ctx);
-                ctx.addObject(factory);
-                return new WeakReference<>(factory);
-            }).get();
-
-            if (result == null) {
-                throw new IllegalStateException();
-            }
-            return result;
+            return context.get(KEY);
         }
 
         private NodeFactory(Context ctx) {
             this.nodes = new LinkedHashMap<>(INITIAL_NODES_CAPACITY);
+            this.symbols = SymbolTable.in(ctx);
+            this.nodesById = new SymbolTable.Index<>();
+        }
+
+        private Node index(Node node) {
+            nodesById.put(symbols.intern(node.getName()), node);
+            return node;
+        }
+
+        private void put(String name, Node node) {
+            nodes.put(name, node);
+            nodesById.put(symbols.intern(name), node);
+        }
+
+        private void remove(String name) {
+            nodes.remove(name);
+            int id = symbols.find(name);
+            if (id >= 0) {
+                nodesById.put(id, null);
+            }
         }
 
 
@@ -128,7 +139,7 @@ public final class Node implements GraphObject<Circle> {
         @Nonnull
         public Node create(String name, Coordinates coordinates) {
             Node result = nodes.computeIfAbsent(Objects.requireNonNull(name), nodeName ->
-                    new Node(nodeName, coordinates)
+                    index(new Node(nodeName, coordinates))
             );
 
             if (!result.getCoordinates().equals(coordinates)) {
@@ -158,7 +169,7 @@ public final class Node implements GraphObject<Circle> {
         @Nonnull
         public Node create(String name, Coordinates coordinates, @Nullable String absName) {
             Node result = nodes.computeIfAbsent(Objects.requireNonNull(name), nodeName ->
-                new Node(nodeName, coordinates, absName)
+                index(new Node(nodeName, coordinates, absName))
             );
 
             if (!result.getCoordinates().equals(coordinates)) {
@@ -207,8 +218,18 @@ public final class Node implements GraphObject<Circle> {
             return node;
         }
 
+        @Override
+        @Nonnull
+        public Node get(int id) {
+            Node node = nodesById.get(id);
+            if (node == null) {
+                throw new IllegalArgumentException("unknown node ID: " + id);
+            }
+            return node;
+        }
+
         public void remove(Node node){
-            nodes.remove(node.getName());
+            remove(node.getName());
         }
 
         @Override
@@ -265,8 +286,8 @@ public final class Node implements GraphObject<Circle> {
             {Boolean exit = Node.in(graph.getContext()).absNameExists(newAbsName, this);
              if(!exit)
                 {this.absName = newAbsName;
-                 Node.in(graph.getContext()).nodes.remove(name);
-                 Node.in(graph.getContext()).nodes.put(name, this);
+                 Node.in(graph.getContext()).remove(name);
+                 Node.in(graph.getContext()).put(name, this);
                  return true;
                 }
             }
@@ -286,8 +307,8 @@ public final class Node implements GraphObject<Circle> {
         if(graph!=null){
             if(!Node.in(graph.getContext()).NameExists(newName)){
                 this.name=newName;
-                Node.in(graph.getContext()).nodes.remove(newName);
-                Node.in(graph.getContext()).nodes.put(newName,this);
+                Node.in(graph.getContext()).remove(newName);
+                Node.in(graph.getContext()).put(newName,this);
                 return true;
             }
         }
@@ -0,0 +1,83 @@
+package com.github.bachelorpraktikum.visualisierbar.model;
+
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Conversions for the time of the simulation.</p>
+ *
+ * <p>Times are {@code long} values in microseconds since the start of the simulation. That keeps
+ * the order of events which are less than a millisecond apart and allows simulations which run
+ * for much longer than the 24 days an {@code int} of milliseconds can represent.</p>
+ */
+public final class SimulationTime {
+
+    public static final long MICROS_PER_MILLI = 1000;
+    public static final long MICROS_PER_SECOND = 1000 * MICROS_PER_MILLI;
+
+    private SimulationTime() {
+    }
+
+    /**
+     * Converts milliseconds to a simulation time.
+     *
+     * @param millis the time in milliseconds
+     * @return the time in microseconds
+     * @throws ArithmeticException if the result overflows
+     */
+    public static long fromMillis(long millis) {
+        return Math.multiplyExact(millis, MICROS_PER_MILLI);
+    }
+
+    /**
+     * Converts seconds to a simulation time, rounded to the nearest microsecond.
+     *
+     * @param seconds the time in seconds
+     * @return the time in microseconds
+     */
+    public static long fromSeconds(double seconds) {
+        return Math.round(seconds * MICROS_PER_SECOND);
+    }
+
+    /**
+     * Converts a simulation time to whole milliseconds, rounding down.
+     *
+     * @param time the time in microseconds
+     * @return the time in milliseconds
+     */
+    public static long toMillis(long time) {
+        return Math.floorDiv(time, MICROS_PER_MILLI);
+    }
+
+    /**
+     * Converts a simulation time to seconds.
+     *
+     * @param time the time in microseconds
+     * @return the time in seconds
+     */
+    public static double toSeconds(long time) {
+        return time / (double) MICROS_PER_SECOND;
+    }
+
+    /**
+     * Formats a simulation time as milliseconds. The fraction is only shown if the time isn't a
+     * whole number of milliseconds, e.g. {@code "1500"} or {@code "1500.25"}.
+     *
+     * @param time the time in microseconds
+     * @return the formatted time, without unit
+     */
+    @Nonnull
+    public static String format(long time) {
+        String sign = time < 0 ? "-" : "";
+        long millis = Math.abs(time / MICROS_PER_MILLI);
+        int micros = (int) Math.abs(time % MICROS_PER_MILLI);
+        if (micros == 0) {
+            return sign + millis;
+        }
+        String fraction = String.format("%03d", micros);
+        int length = fraction.length();
+        while (fraction.charAt(length - 1) == '0') {
+            length--;
+        }
+        return sign + millis + "." + fraction.substring(0, length);
+    }
+}
@@ -1,11 +1,8 @@
 package com.github.bachelorpraktikum.visualisierbar.model;
 
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 import javafx.beans.property.Property;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.shape.Polygon;
@@ -103,7 +100,7 @@ public final class Switch implements Shapeable<Polygon> {
 
     static final class Factory {
 
-        private static final Map<Context, WeakReference<Factory>> instances = new WeakHashMap<>();
+        private static final Context.Key<Factory> KEY = new Context.Key<>(context -> new Factory());
         @Nullable
         private Switch currentSwitch;
 
@@ -111,17 +108,7 @@ public final class Switch implements Shapeable<Polygon> {
             if (context == null) {
                 throw new NullPointerException("context is null");
             }
-
-            Factory result = instances.computeIfAbsent(context, ctx -> {
-                Factory factory = new Factory();
-                ctx.addObject(factory);
-                return new WeakReference<>(factory);
-            }).get();
-
-            if (result == null) {
-                throw new IllegalStateException();
-            }
-            return result;
+            return context.get(KEY);
         }
 
         private Factory() {
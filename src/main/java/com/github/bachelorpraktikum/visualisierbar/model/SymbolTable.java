@@ -0,0 +1,235 @@
+package com.github.bachelorpraktikum.visualisierbar.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>Assigns dense integer IDs to the names of the graph objects of a {@link Context}.</p>
+ *
+ * <p>Every distinct name is stored once and gets the next free ID, starting at 0. IDs are never
+ * reassigned, so they can be used as indices into arrays (see {@link Index}). Names can be
+ * interned from a range of a {@link CharSequence}, which doesn't create a String unless the name
+ * has never been seen before.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+@ParametersAreNonnullByDefault
+public final class SymbolTable {
+
+    private static final Context.Key<SymbolTable> KEY = new Context.Key<>(context -> new SymbolTable());
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Gets the SymbolTable instance for the specified Context.
+     *
+     * @param context a Context
+     * @return a SymbolTable instance
+     * @throws NullPointerException if context is null
+     */
+    @Nonnull
+    public static SymbolTable in(Context context) {
+        return Objects.requireNonNull(context).get(KEY);
+    }
+
+    /**
+     * id -> name
+     */
+    private String[] names;
+    /**
+     * open addressing hash table of id + 1, 0 marks an empty slot
+     */
+    private int[] table;
+    private int size;
+
+    /**
+     * Creates a new SymbolTable which doesn't belong to any {@link Context}.
+     */
+    public SymbolTable() {
+        this.names = new String[INITIAL_CAPACITY / 2];
+        this.table = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Gets the ID of the given name, assigning a new one if the name hasn't been seen before.
+     *
+     * @param name a name
+     * @return the ID of the name
+     * @throws NullPointerException if name is null
+     */
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * Gets the ID of the name consisting of the characters {@code chars[start, end)}, assigning a
+     * new one if the name hasn't been seen before.
+     *
+     * @param chars the characters containing the name
+     * @param start index of the first character of the name
+     * @param end index after the last character of the name
+     * @return the ID of the name
+     * @throws NullPointerException if chars is null
+     * @throws IndexOutOfBoundsException if start or end are not within the bounds of chars
+     */
+    public int intern(CharSequence chars, int start, int end) {
+        int hash = hash(chars, start, end);
+        int mask = table.length - 1;
+        int index = spread(hash) & mask;
+        int entry;
+        while ((entry = table[index]) != 0) {
+            if (matches(names[entry - 1], chars, start, end)) {
+                return entry - 1;
+            }
+            index = (index + 1) & mask;
+        }
+
+        int id = size++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[id] = chars.subSequence(start, end).toString();
+        table[index] = id + 1;
+        if (size * 2 > table.length) {
+            grow();
+        }
+        return id;
+    }
+
+    /**
+     * Gets the ID of the given name without assigning a new one.
+     *
+     * @param name a name
+     * @return the ID of the name, or -1 if the name has never been interned
+     * @throws NullPointerException if name is null
+     */
+    public int find(String name) {
+        int mask = table.length - 1;
+        int index = spread(name.hashCode()) & mask;
+        int entry;
+        while ((entry = table[index]) != 0) {
+            if (names[entry - 1].equals(name)) {
+                return entry - 1;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the name with the given ID.
+     * The same String instance is returned for every call with the same ID.
+     *
+     * @param id the ID of the name
+     * @return the name
+     * @throws IllegalArgumentException if no name with the given ID exists
+     */
+    @Nonnull
+    public String getName(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("unknown symbol: " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * Gets the number of interned names, which is also the next ID that will be assigned.
+     *
+     * @return the number of names
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int hash(CharSequence chars, int start, int end) {
+        // same as String.hashCode(), so grow() and find() can use the cached String hash
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+        return hash;
+    }
+
+    private static boolean matches(String candidate, CharSequence chars, int start, int end) {
+        if (candidate.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (candidate.charAt(i - start) != chars.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void grow() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int index = spread(names[id].hashCode()) & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = id + 1;
+        }
+    }
+
+    /**
+     * <p>Maps symbol IDs to objects using an array.</p>
+     *
+     * <p>Used by the factories to look up their instances by the ID of their name instead of
+     * hashing the name.</p>
+     *
+     * @param <T> the type of the mapped objects
+     */
+    public static final class Index<T> {
+
+        private Object[] values;
+
+        public Index() {
+            this.values = new Object[16];
+        }
+
+        /**
+         * Gets the object associated with the given ID.
+         *
+         * @param id a symbol ID
+         * @return the object, or null if there is none
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        public T get(int id) {
+            if (id < 0 || id >= values.length) {
+                return null;
+            }
+            return (T) values[id];
+        }
+
+        /**
+         * Associates an object with the given ID, replacing any previously associated object.
+         *
+         * @param id a symbol ID
+         * @param value the object, or null to remove the association
+         * @throws IllegalArgumentException if id is negative
+         */
+        public void put(int id, @Nullable T value) {
+            if (id < 0) {
+                throw new IllegalArgumentException("negative symbol: " + id);
+            }
+            if (id >= values.length) {
+                if (value == null) {
+                    return;
+                }
+                values = Arrays.copyOf(values, Math.max(values.length * 2, id + 1));
+            }
+            values[id] = value;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * <p>The edges a train is on, from its front edge to its back edge.</p>
+ *
+ * <p>A train only ever reaches new edges with its front and leaves edges with its back, so all
+ * paths derived from each other are windows into one route, which contains the edges in the order
+ * they have been reached. Deriving a new path only moves the window and appends to the route, so
+ * it takes constant time and doesn't copy any edges. Only if a new front edge is added to a path
+ * whose route already continues with a different edge, the path continues on a copy.</p>
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+final class EdgePath extends AbstractList<Edge> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The route shared by all paths derived from each other. Edges are only appended.
+     */
+    private static final class Route {
+
+        private Edge[] edges;
+        private int size;
+
+        Route(Edge[] edges, int size) {
+            this.edges = edges;
+            this.size = size;
+        }
+    }
+
+    @Nonnull
+    private final Route route;
+    /**
+     * The array of the route at the time this path was created, containing at least the edges of
+     * this path
+     */
+    @Nonnull
+    private final Edge[] edges;
+    /**
+     * The route index of the back edge
+     */
+    private final int start;
+    /**
+     * The route index after the front edge
+     */
+    private final int end;
+
+    private EdgePath(Route route, Edge[] edges, int start, int end) {
+        this.route = route;
+        this.edges = edges;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates a path containing only the given edge.
+     *
+     * @param edge the edge
+     * @return a new path
+     * @throws NullPointerException if edge is null
+     */
+    @Nonnull
+    static EdgePath of(Edge edge) {
+        Edge[] edges = new Edge[INITIAL_CAPACITY];
+        edges[0] = Objects.requireNonNull(edge);
+        return new EdgePath(new Route(edges, 1), edges, 0, 1);
+    }
+
+    @Nonnull
+    Edge getFront() {
+        return edges[end - 1];
+    }
+
+    @Nonnull
+    Edge getBack() {
+        return edges[start];
+    }
+
+    /**
+     * Creates a path with the given edge added as the new front edge.
+     *
+     * @param edge the new front edge
+     * @return a new path
+     * @throws NullPointerException if edge is null
+     */
+    @Nonnull
+    EdgePath withFront(Edge edge) {
+        Objects.requireNonNull(edge);
+        synchronized (route) {
+            if (route.size == end) {
+                if (end == route.edges.length) {
+                    route.edges = Arrays.copyOf(route.edges, end * 2);
+                }
+                route.edges[end] = edge;
+                route.size++;
+                return new EdgePath(route, route.edges, start, end + 1);
+            }
+            if (route.edges[end].equals(edge)) {
+                return new EdgePath(route, route.edges, start, end + 1);
+            }
+        }
+
+        // the route already continues differently
+        int size = size();
+        Edge[] copy = new Edge[Math.max(INITIAL_CAPACITY, (size + 1) * 2)];
+        System.arraycopy(edges, start, copy, 0, size);
+        copy[size] = edge;
+        return new EdgePath(new Route(copy, size + 1), copy, 0, size + 1);
+    }
+
+    /**
+     * Creates a path without the current back edge.
+     *
+     * @return a new path
+     * @throws IllegalStateException if the back edge is the only edge
+     */
+    @Nonnull
+    EdgePath withoutBack() {
+        if (size() == 1) {
+            throw new IllegalStateException("can't remove the only edge");
+        }
+        return new EdgePath(route, edges, start + 1, end);
+    }
+
+    /**
+     * Gets the edge at the given index, counted from the front edge.
+     *
+     * @param index the index
+     * @return the edge
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public Edge get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+        }
+        return edges[end - 1 - index];
+    }
+
+    @Override
+    public int size() {
+        return end - start;
+    }
+}
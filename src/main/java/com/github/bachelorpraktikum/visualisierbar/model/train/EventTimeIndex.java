@@ -0,0 +1,87 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import java.util.Arrays;
+
+/**
+ * <p>The times of the events of a {@link Train}, in the order of the events list.</p>
+ *
+ * <p>Since events are only appended and their times never decrease, the event at or before any
+ * point of time can be found by binary search on a primitive array, without touching the events
+ * themselves.</p>
+ */
+final class EventTimeIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] times;
+    private int size;
+
+    EventTimeIndex() {
+        this.times = new long[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Appends the time of a new event.
+     *
+     * @param time the time of the event
+     * @throws IllegalArgumentException if time is less than the time of the previous event
+     */
+    void add(long time) {
+        if (size > 0 && time < times[size - 1]) {
+            throw new IllegalArgumentException("time is before the previous event");
+        }
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+        }
+        times[size++] = time;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return times[index];
+    }
+
+    /**
+     * <p>Finds the last event which happened at or before the given time, starting at the given
+     * index.</p>
+     *
+     * <p>The search gallops forward from the start index before it uses binary search, so it takes
+     * constant time if the result is close to the start and logarithmic time otherwise.</p>
+     *
+     * @param time the time
+     * @param start the index to start at. The event at this index is assumed to happen at or
+     * before the given time.
+     * @return the index of the last event at or before the given time, or start if there is no
+     * such event after the start
+     * @throws IndexOutOfBoundsException if start is not a valid index
+     */
+    int floorIndex(long time, int start) {
+        if (start < 0 || start >= size) {
+            throw new IndexOutOfBoundsException("index: " + start + ", size: " + size);
+        }
+        int low = start;
+        int step = 1;
+        while (start + step < size && times[start + step] <= time) {
+            low = start + step;
+            step <<= 1;
+        }
+        // times[low] <= time, everything from high on is after time
+        int high = Math.min(start + step, size);
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] <= time) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -14,7 +14,7 @@ final class InterpolatableState implements Train.State {
     @Nonnull
     private final Train train;
     private final int index;
-    private final int time;
+    private final long time;
     private final int distance;
     @Nullable
     private final TrainPosition position;
@@ -27,7 +27,7 @@ final class InterpolatableState implements Train.State {
         int index,
         boolean terminated,
         boolean initialized,
-        int time,
+        long time,
         int distance,
         @Nullable TrainPosition position,
         double speed
@@ -48,7 +48,7 @@ final class InterpolatableState implements Train.State {
         @Nonnull
         private final Train train;
 
-        private int time = Integer.MIN_VALUE;
+        private long time = Long.MIN_VALUE;
         private double speed = -1;
         private boolean terminated = false;
         private boolean initialized = true;
@@ -70,11 +70,11 @@ final class InterpolatableState implements Train.State {
         /**
          * Sets the time since the simulation start.
          *
-         * @param time the time in milliseconds
+         * @param time the time in microseconds
          * @return this Builder
          * @throws IllegalArgumentException if time is negative
          */
-        Builder time(int time) {
+        Builder time(long time) {
             if (time < Context.INIT_STATE_TIME) {
                 throw new IllegalArgumentException("time is negative");
             }
@@ -168,7 +168,7 @@ final class InterpolatableState implements Train.State {
          * Builds an {@link InterpolatableState} based on the configuration of this Builder.<br>
          * <h3>The following methods are required to be called before calling this one:</h3>
          * <ul>
-         * <li>{@link #time(int)}</li>
+         * <li>{@link #time(long)}</li>
          * <li>{@link #speed(double)}</li>
          * <li>{@link #index(int)}</li>
          * <li>{@link #distance(int)}</li>
@@ -214,7 +214,7 @@ final class InterpolatableState implements Train.State {
     }
 
     @Nonnull
-    final InterpolatableState interpolate(int targetTime, InterpolatableState other) {
+    final InterpolatableState interpolate(long targetTime, InterpolatableState other) {
         if (compareTo(other) > 0) {
             return other.interpolate(targetTime, this);
         }
@@ -234,8 +234,8 @@ final class InterpolatableState implements Train.State {
                 .build();
         }
 
-        int relativeTargetTime = targetTime - getTime();
-        int relativeOtherTime = other.getTime() - getTime();
+        long relativeTargetTime = targetTime - getTime();
+        long relativeOtherTime = other.getTime() - getTime();
 
         double interpolatedSpeed = other.getSpeed();
 
@@ -259,6 +259,52 @@ final class InterpolatableState implements Train.State {
             .build();
     }
 
+    /**
+     * Fills the given view with the state between this and the other state at the given time,
+     * like {@link #interpolate(long, InterpolatableState)}.
+     *
+     * @param targetTime the time to interpolate at
+     * @param other the other state
+     * @param view the view to fill
+     * @throws IllegalArgumentException if the time is not between the states
+     */
+    final void interpolateInto(long targetTime, InterpolatableState other, TrainStateView view) {
+        if (compareTo(other) > 0) {
+            other.interpolateInto(targetTime, this, view);
+            return;
+        }
+
+        if (getTime() > targetTime || other.getTime() < targetTime) {
+            throw new IllegalArgumentException("time not between states");
+        }
+
+        if (!isInitialized()) {
+            view.setState(getTrain(), getIndex(), targetTime, false, false, 0, 0);
+            view.setPosition(null);
+            return;
+        }
+
+        long relativeTargetTime = targetTime - getTime();
+        long relativeOtherTime = other.getTime() - getTime();
+
+        double interpolatedSpeed = other.getSpeed();
+
+        if (getPosition().equals(other.getPosition())) {
+            view.setState(getTrain(), getIndex(), targetTime, true, false, interpolatedSpeed,
+                getTotalDistance());
+            view.setPosition(getPosition());
+            return;
+        }
+
+        int distanceDiff = other.getTotalDistance() - getTotalDistance();
+        int interpolationDistance = (int) (((double) distanceDiff) / relativeOtherTime
+            * relativeTargetTime);
+        view.setState(getTrain(), getIndex(), targetTime, true, false, interpolatedSpeed,
+            getTotalDistance() + interpolationDistance);
+        view.setPosition(getPosition(), interpolationDistance,
+            other.getPosition().getFrontEdge());
+    }
+
     @Nonnull
     @Override
     public Train getTrain() {
@@ -275,7 +321,7 @@ final class InterpolatableState implements Train.State {
     }
 
     @Override
-    public int getTime() {
+    public long getTime() {
         return time;
     }
 
@@ -330,7 +376,7 @@ final class InterpolatableState implements Train.State {
     public int hashCode() {
         int result;
         long temp;
-        result = time;
+        result = Long.hashCode(time);
         result = 31 * result + (position != null ? position.hashCode() : 0);
         temp = Double.doubleToLongBits(speed);
         result = 31 * result + (int) (temp ^ (temp >>> 32));
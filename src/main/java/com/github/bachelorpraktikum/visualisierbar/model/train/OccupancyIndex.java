@@ -0,0 +1,669 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * <p>Keeps track of which {@link Train trains} occupy which {@link Edge edges} at which time.
+ * There is exactly one instance of this class per {@link Context}.</p>
+ *
+ * <p>A train occupies an edge at a point of time if the edge is one of the {@link
+ * Train.Position#getEdges() edges} of its {@link Train#getState(long) state} at that time.
+ * Each stretch of time a train spends on an edge is an {@link Occupation}. The occupations of
+ * each edge are kept in an interval tree, so all occupations at a point of time or within a range
+ * of time are found in logarithmic time plus the number of results.</p>
+ *
+ * <p>Trains report every event added to them to the index, and the index is {@link #update()
+ * updated} before it is queried. Only the occupations of trains with new events are computed
+ * again, in parallel, starting at their last event before the new ones. The occupations of all
+ * trains are computed by the first update, which should be triggered when the model has been
+ * loaded.</p>
+ */
+@ParametersAreNonnullByDefault
+public final class OccupancyIndex {
+
+    private static final Context.Key<OccupancyIndex> KEY = new Context.Key<>(OccupancyIndex::new);
+
+    /**
+     * The leave time of occupations which haven't ended yet
+     */
+    public static final long OPEN = Long.MAX_VALUE;
+
+    @Nonnull
+    private final Map<Train, TrainOccupations> trains;
+    /**
+     * The trains which have new events since the last update, added from the threads adding the
+     * events
+     */
+    @Nonnull
+    private final Queue<TrainOccupations> changedTrains;
+    @Nonnull
+    private final Map<Edge, EdgeOccupations> edges;
+
+    private OccupancyIndex(Context context) {
+        this.trains = new HashMap<>(64);
+        this.changedTrains = new ConcurrentLinkedQueue<>();
+        this.edges = new HashMap<>(256);
+        Train.TrainFactory factory = Train.in(context);
+        factory.setOccupancyIndex(this);
+        for (Train train : factory.getAll()) {
+            add(train);
+        }
+    }
+
+    /**
+     * Gets the {@link OccupancyIndex} instance for the given context.
+     *
+     * @param context the context
+     * @return the only OccupancyIndex instance for this context
+     * @throws NullPointerException if context is null
+     */
+    @Nonnull
+    public static OccupancyIndex in(Context context) {
+        if (context == null) {
+            throw new NullPointerException("context is null");
+        }
+        return context.get(KEY);
+    }
+
+    /**
+     * Represents the time a {@link Train} spends on an {@link Edge}, from the time it enters the
+     * edge (inclusive) to the time it leaves the edge (exclusive).
+     */
+    @Immutable
+    @ParametersAreNonnullByDefault
+    public static final class Occupation {
+
+        @Nonnull
+        private final Train train;
+        @Nonnull
+        private final Edge edge;
+        private final long enterTime;
+        private final long leaveTime;
+
+        Occupation(Train train, Edge edge, long enterTime, long leaveTime) {
+            this.train = train;
+            this.edge = edge;
+            this.enterTime = enterTime;
+            this.leaveTime = leaveTime;
+        }
+
+        @Nonnull
+        public Train getTrain() {
+            return train;
+        }
+
+        @Nonnull
+        public Edge getEdge() {
+            return edge;
+        }
+
+        /**
+         * Gets the first point of time at which the train is on the edge.
+         *
+         * @return the time in microseconds since the start of the simulation
+         */
+        public long getEnterTime() {
+            return enterTime;
+        }
+
+        /**
+         * Gets the first point of time after {@link #getEnterTime()} at which the train is not
+         * on the edge anymore.
+         *
+         * @return the time in microseconds since the start of the simulation, or {@link #OPEN}
+         * if the train is still on the edge after its last event
+         */
+        public long getLeaveTime() {
+            return leaveTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Occupation that = (Occupation) o;
+
+            if (enterTime != that.enterTime) {
+                return false;
+            }
+            if (leaveTime != that.leaveTime) {
+                return false;
+            }
+            if (!train.equals(that.train)) {
+                return false;
+            }
+            return edge.equals(that.edge);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = train.hashCode();
+            result = 31 * result + edge.hashCode();
+            result = 31 * result + Long.hashCode(enterTime);
+            result = 31 * result + Long.hashCode(leaveTime);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Occupation{"
+                + "train=" + train.getName()
+                + ", edge=" + edge.getName()
+                + ", enterTime=" + enterTime
+                + ", leaveTime=" + (leaveTime == OPEN ? "open" : leaveTime)
+                + '}';
+        }
+    }
+
+    /**
+     * Gets the trains which are on the given edge at the given time.
+     *
+     * @param edge the edge
+     * @param time the time in microseconds since the start of the simulation
+     * @return the trains, ordered by the time they entered the edge
+     */
+    @Nonnull
+    public synchronized List<Train> getTrains(Edge edge, long time) {
+        // open occupations end at the end of time, which is not included in any range
+        long from = Math.min(time, Long.MAX_VALUE - 1);
+        List<Occupation> occupations = getOccupations(edge, from, from + 1);
+        List<Train> result = new ArrayList<>(occupations.size());
+        for (Occupation occupation : occupations) {
+            result.add(occupation.getTrain());
+        }
+        return result;
+    }
+
+    /**
+     * Gets all occupations of the given edge.
+     *
+     * @param edge the edge
+     * @return the occupations, ordered by their enter time
+     */
+    @Nonnull
+    public synchronized List<Occupation> getOccupations(Edge edge) {
+        return getOccupations(edge, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Gets the occupations of the given edge which overlap with the given range of time.
+     *
+     * @param edge the edge
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @return the occupations, ordered by their enter time
+     * @throws IllegalArgumentException if to is less than from
+     */
+    @Nonnull
+    public synchronized List<Occupation> getOccupations(Edge edge, long from, long to) {
+        Objects.requireNonNull(edge);
+        if (to < from) {
+            throw new IllegalArgumentException("to is less than from");
+        }
+        update();
+        EdgeOccupations occupations = edges.get(edge);
+        if (occupations == null) {
+            return Collections.emptyList();
+        }
+        return occupations.query(from, to);
+    }
+
+    /**
+     * Adds a train to the index, called when the train is created.
+     */
+    synchronized void add(Train train) {
+        if (trains.containsKey(train)) {
+            return;
+        }
+        TrainOccupations occupations = new TrainOccupations(train);
+        trains.put(train, occupations);
+        train.setEventListener(() -> markChanged(occupations));
+        markChanged(occupations);
+    }
+
+    private void markChanged(TrainOccupations occupations) {
+        if (occupations.changed.compareAndSet(false, true)) {
+            changedTrains.add(occupations);
+        }
+    }
+
+    /**
+     * <p>Brings the occupations of all trains with new events up to date.</p>
+     *
+     * <p>This is done before every query. Calling it after a model has been loaded computes the
+     * occupations of all trains at once, instead of on the first query.</p>
+     */
+    public synchronized void update() {
+        if (changedTrains.isEmpty()) {
+            return;
+        }
+        List<TrainOccupations> changed = new ArrayList<>();
+        TrainOccupations next;
+        while ((next = changedTrains.poll()) != null) {
+            // events added from now on mark the train as changed again
+            next.changed.set(false);
+            changed.add(next);
+        }
+
+        // remove the occupations which may change before computing them again
+        for (TrainOccupations occupations : changed) {
+            for (Occupation occupation : occupations.getPending()) {
+                edges.get(occupation.getEdge()).removePending(occupation);
+            }
+        }
+        List<List<Occupation>> finished = changed.parallelStream()
+            .map(TrainOccupations::update)
+            .collect(Collectors.toList());
+        for (List<Occupation> occupations : finished) {
+            for (Occupation occupation : occupations) {
+                edges.computeIfAbsent(occupation.getEdge(), e -> new EdgeOccupations())
+                    .add(occupation);
+            }
+        }
+        for (TrainOccupations occupations : changed) {
+            for (Occupation occupation : occupations.getPending()) {
+                edges.computeIfAbsent(occupation.getEdge(), e -> new EdgeOccupations())
+                    .addPending(occupation);
+            }
+        }
+    }
+
+    /**
+     * <p>Computes the occupations of one train from its events.</p>
+     *
+     * <p>Only the states at or after the time of the last event can change if new events are
+     * added (except for the first reach event, which changes the init position). Occupations
+     * which end before that time are finished, all others are pending and computed again when
+     * there are new events.</p>
+     */
+    @ParametersAreNonnullByDefault
+    private static final class TrainOccupations {
+
+        @Nonnull
+        private final Train train;
+        @Nonnull
+        private final TrainStateView view;
+        /**
+         * Whether the train has new events which haven't been added to the index
+         */
+        @Nonnull
+        private final AtomicBoolean changed;
+        /**
+         * The index of the first event at the time pending occupations may start to change at
+         */
+        private int resumeIndex;
+        /**
+         * The edges the train is on right before the events at resumeIndex, with the time it
+         * entered them
+         */
+        @Nonnull
+        private Map<Edge, Long> resumeEdges;
+        @Nonnull
+        private List<Occupation> pending;
+
+        TrainOccupations(Train train) {
+            this.train = train;
+            this.view = new TrainStateView();
+            this.changed = new AtomicBoolean();
+            this.resumeIndex = 0;
+            this.resumeEdges = Collections.emptyMap();
+            this.pending = Collections.emptyList();
+        }
+
+        @Nonnull
+        List<Occupation> getPending() {
+            return pending;
+        }
+
+        /**
+         * Computes the occupations from the resume index on.
+         *
+         * @return the occupations which have been finished
+         */
+        @Nonnull
+        List<Occupation> update() {
+            TrainEventStore store = train.getEventStore();
+            int size = store.size();
+            Map<Edge, Long> entered = new LinkedHashMap<>(resumeEdges);
+            List<Occupation> occupations = new ArrayList<>();
+
+            int nextResumeIndex = resumeIndex;
+            Map<Edge, Long> nextResumeEdges = resumeEdges;
+            int index = resumeIndex;
+            while (index < size) {
+                long time = store.getTime(index);
+                int groupStart = index;
+                // the state at this time is the one after the last event at this time
+                while (index + 1 < size && store.getTime(index + 1) == time) {
+                    index++;
+                }
+                if (index == size - 1) {
+                    nextResumeIndex = groupStart;
+                    nextResumeEdges = new LinkedHashMap<>(entered);
+                }
+                sample(index, size, time);
+                moveTo(time, entered, occupations);
+                if (index + 1 < size) {
+                    moveBetween(index, entered, occupations);
+                }
+                index++;
+            }
+            long finishedBefore = store.getTime(size - 1);
+            if (store.indexOf(TrainEventStore.REACH) < 0) {
+                // the position of all states depends on the first reach event
+                finishedBefore = Long.MIN_VALUE;
+                nextResumeIndex = 0;
+                nextResumeEdges = Collections.emptyMap();
+            }
+            resumeIndex = nextResumeIndex;
+            resumeEdges = nextResumeEdges;
+            List<Occupation> finished = new ArrayList<>(occupations.size());
+            pending = new ArrayList<>(entered.size());
+            for (Occupation occupation : occupations) {
+                if (occupation.getLeaveTime() < finishedBefore) {
+                    finished.add(occupation);
+                } else {
+                    pending.add(occupation);
+                }
+            }
+            for (Map.Entry<Edge, Long> entry : entered.entrySet()) {
+                pending.add(new Occupation(train, entry.getKey(), entry.getValue(), OPEN));
+            }
+            return finished;
+        }
+
+        /**
+         * Fills the view with the state at the given time, like {@link Train#sampleInto(long,
+         * TrainStateView)} does.
+         *
+         * @param index the index of the last event at or before the time
+         * @param size the number of events
+         * @param time the time
+         */
+        private void sample(int index, int size, long time) {
+            InterpolatableState state = train.getEventState(index);
+            if (index + 1 < size) {
+                state.interpolateInto(time, train.getEventState(index + 1), view);
+            } else {
+                view.set(state);
+            }
+        }
+
+        /**
+         * Finds the points of time between two events at which the train enters or leaves edges.
+         * The edges only change once between the events, because the distance the train moved
+         * only grows with time.
+         *
+         * @param index the index of the first event, which is the last one at its time
+         */
+        private void moveBetween(int index, Map<Edge, Long> entered,
+            List<Occupation> occupations) {
+            InterpolatableState state = train.getEventState(index);
+            InterpolatableState next = train.getEventState(index + 1);
+            long start = state.getTime() + 1;
+            long end = next.getTime() - 1;
+            if (end < start) {
+                return;
+            }
+            state.interpolateInto(start, next, view);
+            moveTo(start, entered, occupations);
+            if (end == start) {
+                return;
+            }
+
+            state.interpolateInto(end, next, view);
+            List<Edge> endEdges = getEdges();
+            Iterator<Map.Entry<Edge, Long>> iterator = entered.entrySet().iterator();
+            List<Edge> leftEdges = new ArrayList<>();
+            while (iterator.hasNext()) {
+                Map.Entry<Edge, Long> entry = iterator.next();
+                if (!endEdges.contains(entry.getKey())) {
+                    long leaveTime = findChange(state, next, entry.getKey(), start, end);
+                    occupations.add(
+                        new Occupation(train, entry.getKey(), entry.getValue(), leaveTime));
+                    leftEdges.add(entry.getKey());
+                }
+            }
+            for (Edge edge : endEdges) {
+                if (!entered.containsKey(edge)) {
+                    entered.put(edge, findChange(state, next, edge, start, end));
+                }
+            }
+            leftEdges.forEach(entered::remove);
+        }
+
+        /**
+         * Finds the first point of time after low at which the train is on the given edge if it
+         * isn't at low, or isn't on the edge if it is at low, using binary search.
+         */
+        private long findChange(InterpolatableState state, InterpolatableState next, Edge edge,
+            long low, long high) {
+            state.interpolateInto(low, next, view);
+            boolean before = isOn(edge);
+            while (high - low > 1) {
+                long middle = low + (high - low) / 2;
+                state.interpolateInto(middle, next, view);
+                if (isOn(edge) == before) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+            return high;
+        }
+
+        private boolean isOn(Edge edge) {
+            if (!view.isInitialized()) {
+                return false;
+            }
+            for (int i = 0; i < view.getEdgeCount(); i++) {
+                if (view.getEdge(i).equals(edge)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Nonnull
+        private List<Edge> getEdges() {
+            if (!view.isInitialized()) {
+                return Collections.emptyList();
+            }
+            List<Edge> result = new ArrayList<>(view.getEdgeCount());
+            for (int i = 0; i < view.getEdgeCount(); i++) {
+                result.add(view.getEdge(i));
+            }
+            return result;
+        }
+
+        /**
+         * Updates the entered edges to the edges of the view, which is at the given time.
+         */
+        private void moveTo(long time, Map<Edge, Long> entered, List<Occupation> occupations) {
+            List<Edge> edges = getEdges();
+            Iterator<Map.Entry<Edge, Long>> iterator = entered.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Edge, Long> entry = iterator.next();
+                if (!edges.contains(entry.getKey())) {
+                    occupations.add(new Occupation(train, entry.getKey(), entry.getValue(), time));
+                    iterator.remove();
+                }
+            }
+            for (Edge edge : edges) {
+                entered.putIfAbsent(edge, time);
+            }
+        }
+    }
+
+    /**
+     * <p>The occupations of one edge.</p>
+     *
+     * <p>Finished occupations are kept in an implicit interval tree: they are sorted by enter
+     * time, and every element is a node of a binary tree which also stores the maximum leave time
+     * in its subtree. The node at index i is on the level of the number of trailing ones of i,
+     * leaves are on level 0. The tree is built again when it is queried after occupations have
+     * been added. Pending occupations change with every update of their train and are only a
+     * few, so they are kept in a plain list.</p>
+     */
+    @ParametersAreNonnullByDefault
+    private static final class EdgeOccupations {
+
+        private static final Comparator<Occupation> ENTER_ORDER =
+            Comparator.comparingLong(Occupation::getEnterTime);
+
+        @Nonnull
+        private Occupation[] finished;
+        /**
+         * The maximum leave time in the subtree of each node
+         */
+        @Nonnull
+        private long[] maxLeaveTimes;
+        private int size;
+        /**
+         * The level of the root node, or -1 if the tree has to be built
+         */
+        private int rootLevel;
+        @Nonnull
+        private final List<Occupation> pending;
+
+        EdgeOccupations() {
+            this.finished = new Occupation[4];
+            this.maxLeaveTimes = new long[0];
+            this.size = 0;
+            this.rootLevel = -1;
+            this.pending = new ArrayList<>(2);
+        }
+
+        void add(Occupation occupation) {
+            if (size == finished.length) {
+                finished = Arrays.copyOf(finished, size * 2);
+            }
+            finished[size++] = occupation;
+            rootLevel = -1;
+        }
+
+        void addPending(Occupation occupation) {
+            pending.add(occupation);
+        }
+
+        void removePending(Occupation occupation) {
+            pending.remove(occupation);
+        }
+
+        private void build() {
+            // the occupations are added mostly in order, which the merge sort benefits from
+            Arrays.sort(finished, 0, size, ENTER_ORDER);
+            if (maxLeaveTimes.length < size) {
+                maxLeaveTimes = new long[finished.length];
+            }
+            int last = 0;
+            long lastMax = 0;
+            for (int i = 0; i < size; i += 2) {
+                last = i;
+                lastMax = maxLeaveTimes[i] = finished[i].getLeaveTime();
+            }
+            int level = 1;
+            for (; 1L << level <= size; level++) {
+                int offset = 1 << (level - 1);
+                for (int i = (offset << 1) - 1; i < size; i += offset << 2) {
+                    long left = maxLeaveTimes[i - offset];
+                    long right = i + offset < size ? maxLeaveTimes[i + offset] : lastMax;
+                    maxLeaveTimes[i] = Math.max(finished[i].getLeaveTime(),
+                        Math.max(left, right));
+                }
+                // move to the parent of the last node
+                last = (last >> level & 1) != 0 ? last - offset : last + offset;
+                if (last < size && maxLeaveTimes[last] > lastMax) {
+                    lastMax = maxLeaveTimes[last];
+                }
+            }
+            rootLevel = level - 1;
+        }
+
+        @Nonnull
+        List<Occupation> query(long from, long to) {
+            List<Occupation> result = new ArrayList<>();
+            if (size > 0) {
+                if (rootLevel < 0) {
+                    build();
+                }
+                queryTree(from, to, result);
+            }
+            if (!pending.isEmpty()) {
+                for (Occupation occupation : pending) {
+                    if (occupation.getEnterTime() < to && from < occupation.getLeaveTime()) {
+                        result.add(occupation);
+                    }
+                }
+                result.sort(ENTER_ORDER);
+            }
+            return result;
+        }
+
+        /**
+         * Finds the finished occupations overlapping with the range by traversing the tree top
+         * down, skipping subtrees whose maximum leave time is not after the start of the range
+         * and nodes which enter after the end of the range. The results are in order.
+         */
+        private void queryTree(long from, long to, List<Occupation> result) {
+            // every entry is a node index, its level and whether its left child has been visited
+            long[] stack = new long[64];
+            int top = 0;
+            stack[top++] = pack((1 << rootLevel) - 1, rootLevel, false);
+            while (top > 0) {
+                long entry = stack[--top];
+                int node = (int) (entry >>> 32);
+                int level = (int) (entry >> 1) & 0xff;
+                if (level <= 3) {
+                    // small subtree, check every node
+                    int first = node >> level << level;
+                    int end = Math.min(first + (1 << (level + 1)) - 1, size);
+                    for (int i = first; i < end && finished[i].getEnterTime() < to; i++) {
+                        if (from < finished[i].getLeaveTime()) {
+                            result.add(finished[i]);
+                        }
+                    }
+                } else if ((entry & 1) == 0) {
+                    int left = node - (1 << (level - 1));
+                    stack[top++] = pack(node, level, true);
+                    // the left child may be out of range, but not its subtree
+                    if (left >= size || maxLeaveTimes[left] > from) {
+                        stack[top++] = pack(left, level - 1, false);
+                    }
+                } else if (node < size && finished[node].getEnterTime() < to) {
+                    if (from < finished[node].getLeaveTime()) {
+                        result.add(finished[node]);
+                    }
+                    stack[top++] = pack(node + (1 << (level - 1)), level - 1, false);
+                }
+            }
+        }
+
+        private static long pack(int node, int level, boolean leftVisited) {
+            return (long) node << 32 | level << 1 | (leftVisited ? 1 : 0);
+        }
+    }
+}
@@ -9,25 +9,24 @@ import com.github.bachelorpraktikum.visualisierbar.model.Factory;
 import com.github.bachelorpraktikum.visualisierbar.model.GraphObject;
 import com.github.bachelorpraktikum.visualisierbar.model.Node;
 import com.github.bachelorpraktikum.visualisierbar.model.Shapeable;
-import java.lang.ref.WeakReference;
+import com.github.bachelorpraktikum.visualisierbar.model.SymbolTable;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.WeakHashMap;
 import java.util.function.Function;
 import java.util.logging.Logger;
 
 import com.github.bachelorpraktikum.visualisierbar.view.graph.Graph;
 import javafx.beans.property.Property;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
 import javafx.geometry.Point2D;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Path;
@@ -39,10 +38,10 @@ import javax.annotation.concurrent.Immutable;
 
 /**
  * Represents a train.<br> There will always be exactly one instance of this class per name per
- * {@link Context}. <p>Once {@link EventFactory#init(int, Edge) initialized}, a train has exactly
- * one {@link #getState(int) state} at any given point of time (represented by a positive
+ * {@link Context}. <p>Once {@link EventFactory#init(long, Edge) initialized}, a train has exactly
+ * one {@link #getState(long) state} at any given point of time (represented by a positive
  * integer).</p> <p>Only the state at a point of time after or at the time of the last registered
- * event can change.</p> <p>{@link EventFactory#terminate(int, int) Terminated} trains are
+ * event can change.</p> <p>{@link EventFactory#terminate(long, int) Terminated} trains are
  * immutable.</p>
  */
 @ParametersAreNonnullByDefault
@@ -60,7 +59,19 @@ public class Train implements GraphObject<Shape> {
     private final Paint color;
 
     @Nonnull
-    private final ObservableList<TrainEvent> events;
+    private final TrainEventStore eventStore;
+    @Nonnull
+    private final EventList events;
+    /**
+     * The states after the events, computed when they are first needed
+     */
+    @Nonnull
+    private InterpolatableState[] eventStates;
+    /**
+     * Notified after every added event, if the train is part of an {@link OccupancyIndex}
+     */
+    @Nullable
+    private volatile Runnable eventListener;
     private Graph graph;
 
     /**
@@ -79,8 +90,11 @@ public class Train implements GraphObject<Shape> {
         }
         this.length = length;
 
-        events = FXCollections.observableArrayList();
-        events.add(new TrainEvent.Start(this));
+        eventStore = new TrainEventStore();
+        events = new EventList();
+        eventStates = new InterpolatableState[16];
+        addEvent(TrainEventStore.START, Context.INIT_STATE_TIME, 0, 0, null,
+            Collections.emptyList());
         stateProperty = new SimpleObjectProperty<>(VisibleState.AUTO);
         this.color = Objects.requireNonNull(color);
 
@@ -117,10 +131,16 @@ public class Train implements GraphObject<Shape> {
 
         private static final int INITIAL_TRAINS_CAPACITY = 16;
         private static final Paint[] COLORS = ConfigFile.getInstance().getTrainColors();
-        private static final Map<Context, WeakReference<TrainFactory>> instances = new WeakHashMap<>();
+        private static final Context.Key<TrainFactory> KEY = new Context.Key<>(TrainFactory::new);
 
         @Nonnull
         private final Map<String, Train> trains;
+        @Nonnull
+        private final SymbolTable symbols;
+        @Nonnull
+        private final SymbolTable.Index<Train> trainsById;
+        @Nullable
+        private OccupancyIndex occupancyIndex;
         private int colorCounter;
 
 
@@ -130,21 +150,13 @@ public class Train implements GraphObject<Shape> {
             if (context == null) {
                 throw new NullPointerException("context is null");
             }
-
-            TrainFactory result = instances.computeIfAbsent(context, ctx -> {
-                TrainFactory factory = new TrainFactory(ctx);
-                ctx.addObject(factory);
-                return new WeakReference<>(factory);
-            }).get();
-
-            if (result == null) {
-                throw new IllegalStateException();
-            }
-            return result;
+            return context.get(KEY);
         }
 
         private TrainFactory(Context context) {
             this.trains = new HashMap<>(INITIAL_TRAINS_CAPACITY);
+            this.symbols = SymbolTable.in(context);
+            this.trainsById = new SymbolTable.Index<>();
             this.colorCounter = 0;
         }
 
@@ -162,9 +174,14 @@ public class Train implements GraphObject<Shape> {
          */
         @Nonnull
         public Train create(String name, String readableName, int length) {
-            Train result = trains.computeIfAbsent(Objects.requireNonNull(name), n ->
-                new Train(n, readableName, length, nextColor())
-            );
+            Train result = trains.computeIfAbsent(Objects.requireNonNull(name), n -> {
+                Train train = new Train(n, readableName, length, nextColor());
+                trainsById.put(symbols.intern(n), train);
+                if (occupancyIndex != null) {
+                    occupancyIndex.add(train);
+                }
+                return train;
+            });
 
             if (result.getLength() != length
                 || !result.getReadableName().equals(readableName)) {
@@ -180,6 +197,13 @@ public class Train implements GraphObject<Shape> {
             return result;
         }
 
+        /**
+         * Sets the index all trains created from now on are added to.
+         */
+        void setOccupancyIndex(OccupancyIndex occupancyIndex) {
+            this.occupancyIndex = occupancyIndex;
+        }
+
         private Paint nextColor() {
             Paint result = COLORS[colorCounter];
             colorCounter = (colorCounter + 1) % COLORS.length;
@@ -196,6 +220,16 @@ public class Train implements GraphObject<Shape> {
             return train;
         }
 
+        @Override
+        @Nonnull
+        public Train get(int id) {
+            Train train = trainsById.get(id);
+            if (train == null) {
+                throw new IllegalArgumentException("unknown train ID: " + id);
+            }
+            return train;
+        }
+
         @Override
         @Nonnull
         public Collection<Train> getAll() {
@@ -277,25 +311,86 @@ public class Train implements GraphObject<Shape> {
      * @return the list of events
      */
     public ObservableList<? extends Event> getEvents() {
-        return FXCollections.unmodifiableObservableList(events);
+        return events;
+    }
+
+    /**
+     * <p>The events of a train, created from the {@link TrainEventStore} when they are
+     * accessed.</p>
+     *
+     * <p>The same event may be represented by different, but equal objects.</p>
+     */
+    private final class EventList extends ObservableListBase<TrainEvent> {
+
+        @Override
+        public TrainEvent get(int index) {
+            return TrainEvent.create(Train.this, index);
+        }
+
+        @Override
+        public int size() {
+            return eventStore.size();
+        }
+
+        void added(int index) {
+            beginChange();
+            nextAdd(index, index + 1);
+            endChange();
+        }
     }
 
-    List<TrainEvent> getTrainEvents() {
-        return FXCollections.unmodifiableObservableList(events);
+    @Nonnull
+    TrainEventStore getEventStore() {
+        return eventStore;
+    }
+
+    /**
+     * Gets the state of this train after the event with the given index.
+     *
+     * <p>States are computed from the previous state, so all missing states before the requested
+     * one are computed and cached first.</p>
+     *
+     * @param index the index of the event
+     * @return the state after the event
+     * @throws IndexOutOfBoundsException if there is no event with the given index
+     */
+    @Nonnull
+    InterpolatableState getEventState(int index) {
+        if (index < 0 || index >= eventStore.size()) {
+            throw new IndexOutOfBoundsException(
+                "index: " + index + ", size: " + eventStore.size());
+        }
+        InterpolatableState state = eventStates[index];
+        if (state != null) {
+            return state;
+        }
+
+        int first = index;
+        while (first > 0 && eventStates[first - 1] == null) {
+            first--;
+        }
+        for (int i = first; i <= index; i++) {
+            TrainEvent event = TrainEvent.create(this, i);
+            state = event.stateBuilder().build();
+            if (event.canCache()) {
+                eventStates[i] = state;
+            }
+        }
+        return state;
     }
 
     /**
      * Gets the state of this {@link Train} at the given time.
      * {@link State} objects are immutable.
      *
-     * @param time the time in milliseconds since the start of the simulation
+     * @param time the time in microseconds since the start of the simulation
      * @return the state of the train at the given point in time.
      * @throws IllegalArgumentException if time is less than {@link Context#INIT_STATE_TIME}
-     * @throws IllegalStateException if this train has not been {@link EventFactory#init(int, Edge)
+     * @throws IllegalStateException if this train has not been {@link EventFactory#init(long, Edge)
      * initialized}
      */
     @Nonnull
-    public State getState(int time) {
+    public State getState(long time) {
         return getState(time, 0);
     }
 
@@ -310,21 +405,21 @@ public class Train implements GraphObject<Shape> {
     public String getAbsName() {return null;}
 
     /**
-     * Gets the state of this train at the given time, similar to {@link #getState(int)}.<br>In
+     * Gets the state of this train at the given time, similar to {@link #getState(long)}.<br>In
      * contrast to the aforementioned method, this method can use the given state as a starting
      * point for searching the wanted state, which is potentially more efficient. If the time of the
      * given starting state is after the wanted time, this method won't improve performance.
      *
-     * @param time the time in milliseconds since the start of the simulation
+     * @param time the time in microseconds since the start of the simulation
      * @param before the state to use as a jumping off point
      * @return the state of the train at the given point in time.
      * @throws IllegalArgumentException if time is less than {@link Context#INIT_STATE_TIME}
      * @throws IllegalArgumentException if before is a state of a different train
-     * @throws IllegalStateException if this train has not been {@link EventFactory#init(int, Edge)
+     * @throws IllegalStateException if this train has not been {@link EventFactory#init(long, Edge)
      * initialized}
      */
     @Nonnull
-    public State getState(int time, @Nullable State before) {
+    public State getState(long time, @Nullable State before) {
         if (before == null) {
             return getState(time);
         }
@@ -345,23 +440,65 @@ public class Train implements GraphObject<Shape> {
     }
 
     @Nonnull
-    private State getState(int time, int startingIndex) {
+    private State getState(long time, int startingIndex) {
         if (time < Context.INIT_STATE_TIME) {
             throw new IllegalArgumentException("time is too small");
         }
 
-        Iterator<TrainEvent> iterator = events.listIterator(startingIndex);
-        TrainEvent result = iterator.next();
+        int index = eventStore.floorIndex(time, startingIndex);
+        InterpolatableState result = getEventState(index);
+        if (index + 1 < eventStore.size()) {
+            return result.interpolate(time, getEventState(index + 1));
+        }
+        return result;
+    }
 
-        while (iterator.hasNext()) {
-            TrainEvent event = iterator.next();
-            if (event.getTime() > time) {
-                return result.getState().interpolate(time, event.getState());
-            }
-            result = event;
+    /**
+     * Fills the given view with the state of this train at the given time. The state is the same
+     * as the one returned by {@link #getState(long)}, but no objects are allocated for it.<br>
+     * If the view has been filled with a state of this train before the given time, the search
+     * starts at that state.
+     *
+     * @param time the time in microseconds since the start of the simulation
+     * @param view the view to fill
+     * @throws IllegalArgumentException if time is less than {@link Context#INIT_STATE_TIME}
+     * @throws IllegalStateException if this train has not been {@link EventFactory#init(long, Edge)
+     * initialized}
+     */
+    public void sampleInto(long time, TrainStateView view) {
+        if (time < Context.INIT_STATE_TIME) {
+            throw new IllegalArgumentException("time is too small");
+        }
+
+        int index = eventStore.floorIndex(time, view.getStartingIndex(this, time));
+        InterpolatableState state = getEventState(index);
+        if (index + 1 < eventStore.size()) {
+            state.interpolateInto(time, getEventState(index + 1), view);
+        } else {
+            view.set(state);
+        }
+    }
+
+    private void addEvent(byte kind, long time, int distance, int speed, @Nullable Edge edge,
+        List<String> warnings) {
+        int index = eventStore.add(kind, time, distance, speed, edge);
+        warnings.forEach(warning -> eventStore.addWarning(index, warning));
+        if (index == eventStates.length) {
+            eventStates = Arrays.copyOf(eventStates, index * 2);
+        }
+        if (kind == TrainEventStore.REACH && eventStore.indexOf(kind) == index) {
+            // the init position depends on the first reach event
+            Arrays.fill(eventStates, 1, index, null);
+        }
+        events.added(index);
+        Runnable listener = eventListener;
+        if (listener != null) {
+            listener.run();
         }
+    }
 
-        return result.getState();
+    void setEventListener(Runnable eventListener) {
+        this.eventListener = eventListener;
     }
 
     /**
@@ -383,13 +520,6 @@ public class Train implements GraphObject<Shape> {
             + '}';
     }
 
-    @FunctionalInterface
-    private interface EventCreator {
-
-        @Nonnull
-        TrainEvent create(int eventTime, TrainEvent before);
-    }
-
     /**
      * Creates events for an instance of {@link Train}.
      */
@@ -407,8 +537,8 @@ public class Train implements GraphObject<Shape> {
          * @param edge the edge on which this train should be initialized.
          * @throws IllegalStateException if this method is called twice for the same train.
          */
-        public void init(int time, Edge edge) {
-            if (events.size() != 1) {
+        public void init(long time, Edge edge) {
+            if (eventStore.size() != 1) {
                 throw new IllegalStateException("already initialized. Possibly two init events?");
             }
             List<String> warnings = new LinkedList<>();
@@ -416,27 +546,24 @@ public class Train implements GraphObject<Shape> {
                 warnings.add("Tried to add with negative time: " + time);
                 time = 0;
             }
-            TrainEvent event = new TrainEvent.Init(time, Train.this, edge);
-            warnings.forEach(event::addWarning);
-            events.add(event);
+            addEvent(TrainEventStore.INIT, time, 0, 0, Objects.requireNonNull(edge), warnings);
         }
 
-        private void addState(int time, EventCreator creator) {
-            if (events.size() == 1) {
+        private void addState(byte kind, long time, int distance, int speed,
+            @Nullable Edge edge, List<String> warnings) {
+            if (eventStore.size() == 1) {
                 throw new IllegalStateException("not initialized");
             }
-            List<String> warnings = new LinkedList<>();
-            TrainEvent before = events.get(events.size() - 1);
-            if (before instanceof TrainEvent.Terminate) {
+            int before = eventStore.size() - 1;
+            if (eventStore.getKind(before) == TrainEventStore.TERMINATE) {
                 warnings.add("Event after termination!");
             }
-            if (before.getTime() > time) {
+            long beforeTime = eventStore.getTime(before);
+            if (beforeTime > time) {
                 warnings.add("tried to insert before previous event at time: " + time);
-                time = before.getTime();
+                time = beforeTime;
             }
-            TrainEvent event = creator.create(time, before);
-            warnings.forEach(event::addWarning);
-            events.add(event);
+            addEvent(kind, time, distance, speed, edge, warnings);
         }
 
         /**
@@ -450,9 +577,9 @@ public class Train implements GraphObject<Shape> {
          * @throws IllegalStateException if the specified time lies before the time of the last
          * event
          */
-        public void speed(int time, int distance, int speedAfter) {
-            addState(time, (eventTime, before) -> new TrainEvent.Speed(before, eventTime, distance,
-                speedAfter));
+        public void speed(long time, int distance, int speedAfter) {
+            addState(TrainEventStore.SPEED, time, distance, speedAfter, null,
+                new LinkedList<>());
         }
 
         /**
@@ -466,8 +593,8 @@ public class Train implements GraphObject<Shape> {
          * @throws IllegalStateException if the specified time lies before the time of the last
          * event
          */
-        public void move(int time, int distance) {
-            addState(time, (eventTime, before) -> new TrainEvent.Move(before, eventTime, distance));
+        public void move(long time, int distance) {
+            addState(TrainEventStore.MOVE, time, distance, 0, null, new LinkedList<>());
         }
 
         /**
@@ -482,9 +609,9 @@ public class Train implements GraphObject<Shape> {
          * @throws IllegalStateException if the specified time lies before the time of the last
          * event
          */
-        public void reach(int time, Edge edge, int distance) {
-            addState(time,
-                (eventTime, before) -> new TrainEvent.Reach(before, eventTime, distance, edge));
+        public void reach(long time, Edge edge, int distance) {
+            addState(TrainEventStore.REACH, time, distance, 0, Objects.requireNonNull(edge),
+                new LinkedList<>());
         }
 
         /**
@@ -499,9 +626,9 @@ public class Train implements GraphObject<Shape> {
          * @throws IllegalStateException if the specified time lies before the time of the last
          * event
          */
-        public void leave(int time, Edge edge, int distance) {
-            addState(time,
-                (eventTime, before) -> new TrainEvent.Leave(before, eventTime, distance, edge));
+        public void leave(long time, Edge edge, int distance) {
+            addState(TrainEventStore.LEAVE, time, distance, 0, Objects.requireNonNull(edge),
+                new LinkedList<>());
         }
 
         /**
@@ -514,9 +641,8 @@ public class Train implements GraphObject<Shape> {
          * @throws IllegalStateException if the specified time lies before the time of the last
          * event
          */
-        public void terminate(int time, int distance) {
-            addState(time,
-                (eventTime, before) -> new TrainEvent.Terminate(before, eventTime, distance));
+        public void terminate(long time, int distance) {
+            addState(TrainEventStore.TERMINATE, time, distance, 0, null, new LinkedList<>());
         }
     }
 
@@ -530,7 +656,7 @@ public class Train implements GraphObject<Shape> {
         @Nonnull
         Train getTrain();
 
-        int getTime();
+        long getTime();
 
         boolean isTerminated();
 
@@ -556,7 +682,7 @@ public class Train implements GraphObject<Shape> {
 
         @Override
         default int compareTo(State other) {
-            return Integer.compare(getTime(), other.getTime());
+            return Long.compare(getTime(), other.getTime());
         }
     }
 
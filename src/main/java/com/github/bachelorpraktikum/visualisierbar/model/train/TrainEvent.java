@@ -5,10 +5,10 @@ import com.github.bachelorpraktikum.visualisierbar.model.Context;
 import com.github.bachelorpraktikum.visualisierbar.model.Edge;
 import com.github.bachelorpraktikum.visualisierbar.model.Event;
 import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import com.github.bachelorpraktikum.visualisierbar.model.SimulationTime;
 import com.github.bachelorpraktikum.visualisierbar.model.train.InterpolatableState.Builder;
-import java.util.LinkedList;
+import java.util.Objects;
 import java.util.logging.Logger;
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -49,21 +49,14 @@ abstract class TrainEvent implements Event {
     private final int index;
     @Nonnull
     private final Train train;
-    private final int time;
+    private final long time;
     private final int distance;
     private final int totalDistance;
-    @Nonnull
-    private final ObservableList<String> warnings;
-    private boolean speedChecked = false;
-    @Nullable
-    private InterpolatableState cached = null;
-
-    private final InterpolatableState.Builder stateBuilder;
 
     private TrainEvent(
         int index,
         Train train,
-        int time,
+        long time,
         int distance,
         int totalDistance
     ) {
@@ -72,29 +65,64 @@ abstract class TrainEvent implements Event {
         this.time = time;
         this.distance = distance;
         this.totalDistance = totalDistance;
-        this.warnings = FXCollections.observableList(new LinkedList<>());
-        this.stateBuilder = new InterpolatableState.Builder(getTrain())
-            .index(getIndex())
-            .time(getTime())
-            .distance(getTotalDistance());
+    }
+
+    /**
+     * Creates the event with the given index from the event store of the train.
+     *
+     * @param train the train
+     * @param index the index of the event
+     * @return a new event object
+     * @throws IndexOutOfBoundsException if there is no event with the given index
+     */
+    @Nonnull
+    static TrainEvent create(Train train, int index) {
+        TrainEventStore store = train.getEventStore();
+        long time = store.getTime(index);
+        int distance = store.getDistance(index);
+        int totalDistance = store.getTotalDistance(index);
+        byte kind = store.getKind(index);
+        switch (kind) {
+            case TrainEventStore.START:
+                return new Start(train);
+            case TrainEventStore.INIT:
+                return new Init(time, train, Objects.requireNonNull(store.getEdge(index)));
+            case TrainEventStore.SPEED:
+                return new Speed(index, train, time, distance, totalDistance,
+                    store.getSpeed(index));
+            case TrainEventStore.MOVE:
+                return new Move(index, train, time, distance, totalDistance);
+            case TrainEventStore.REACH:
+                return new Reach(index, train, time, distance, totalDistance,
+                    Objects.requireNonNull(store.getEdge(index)));
+            case TrainEventStore.LEAVE:
+                return new Leave(index, train, time, distance, totalDistance,
+                    Objects.requireNonNull(store.getEdge(index)));
+            case TrainEventStore.TERMINATE:
+                return new Terminate(index, train, time, distance, totalDistance);
+            default:
+                throw new IllegalStateException("unknown event kind: " + kind);
+        }
     }
 
     protected void addWarning(String warning) {
-        warnings.add(warning);
+        getTrain().getEventStore().addWarning(getIndex(), warning);
     }
 
-    @Nullable
-    protected TrainEvent getPreviousEvent() {
-        if (getIndex() == 0) {
-            return null;
-        }
-        return getTrain().getTrainEvents().get(getIndex() - 1);
+    /**
+     * Gets the state of the train after the previous event.
+     *
+     * @return the previous state
+     */
+    @Nonnull
+    protected InterpolatableState getPreviousState() {
+        return getTrain().getEventState(getIndex() - 1);
     }
 
     @Override
     @Nonnull
     public ObservableList<String> getWarnings() {
-        return warnings;
+        return getTrain().getEventStore().getWarnings(getIndex());
     }
 
     /**
@@ -116,7 +144,7 @@ abstract class TrainEvent implements Event {
     }
 
     @Override
-    public final int getTime() {
+    public final long getTime() {
         return time;
     }
 
@@ -133,23 +161,30 @@ abstract class TrainEvent implements Event {
     @Nullable
     abstract TrainPosition getPosition();
 
+    /**
+     * Creates a builder for the state of the train after this event.
+     * The first time this is called for an event, the speed of the previous event is checked and
+     * a warning is added to this event if it doesn't match.
+     *
+     * @return the builder
+     */
     @Nonnull
     InterpolatableState.Builder stateBuilder() {
         double speed = getSpeed();
-        if (!speedChecked) {
-            speedChecked = true;
-            TrainEvent prevEvent = getPreviousEvent();
-            if (prevEvent instanceof Speed) {
-                Speed speedEvent = (Speed) prevEvent;
-                int expectedSpeed = speedEvent.getSpeedAfter();
-                if (!equalWithDelta(speed, expectedSpeed, SPEED_COMPARE_DELTA)) {
-                    addWarning(String.format(
-                        "Expected speed: %d; Calculated: %f", expectedSpeed, speed
-                    ));
-                }
+        TrainEventStore store = getTrain().getEventStore();
+        if (getIndex() > 0 && store.getKind(getIndex() - 1) == TrainEventStore.SPEED
+            && store.markSpeedChecked(getIndex())) {
+            int expectedSpeed = store.getSpeed(getIndex() - 1);
+            if (!equalWithDelta(speed, expectedSpeed, SPEED_COMPARE_DELTA)) {
+                addWarning(String.format(
+                    "Expected speed: %d; Calculated: %f", expectedSpeed, speed
+                ));
             }
         }
-        return stateBuilder
+        return new InterpolatableState.Builder(getTrain())
+            .index(getIndex())
+            .time(getTime())
+            .distance(getTotalDistance())
             .speed(speed)
             .position(getPosition());
     }
@@ -167,13 +202,25 @@ abstract class TrainEvent implements Event {
      */
     @Nonnull
     final InterpolatableState getState() {
-        if (canCache() && cached != null) {
-            return cached;
-        } else {
-            // always cache the state and use canCache() as an indicator for
-            // whether the cached value can be used
-            return (cached = stateBuilder().build());
+        return getTrain().getEventState(getIndex());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
         }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        TrainEvent that = (TrainEvent) obj;
+        return index == that.index && train.equals(that.train);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * train.hashCode() + index;
     }
 
     @Override
@@ -187,27 +234,21 @@ abstract class TrainEvent implements Event {
     @ParametersAreNonnullByDefault
     static class Move extends Position {
 
-        Move(TrainEvent before, int time, int distance) {
-            super(before.getIndex() + 1,
-                before.getTrain(),
-                time,
-                distance,
-                before.getTotalDistance() + distance
-            );
-            addWarning("Speed event without speedAfter!");
+        Move(int index, Train train, long time, int distance, int totalDistance) {
+            super(index, train, time, distance, totalDistance);
         }
 
         @Nonnull
         @Override
         TrainPosition getPosition() {
-            return getPreviousEvent().getPosition().move(getDistance());
+            return getPreviousState().getPosition().move(getDistance());
         }
 
         @Nonnull
         @Override
         public String getDescription() {
             return getTrain().getReadableName() + ": Speed{"
-                + "time=" + getTime()
+                + "time=" + SimulationTime.format(getTime())
                 + ", distance=" + getDistance()
                 + ", speedAfter=NULL"
                 + "}";
@@ -219,22 +260,11 @@ abstract class TrainEvent implements Event {
 
         private final int speedAfter;
 
-        private Speed(int index, Train train, int time, int distance, int totalDistance,
-            int speed) {
+        Speed(int index, Train train, long time, int distance, int totalDistance, int speed) {
             super(index, train, time, distance, totalDistance);
             this.speedAfter = speed;
         }
 
-        Speed(TrainEvent before, int time, int distance, int speed) {
-            this(before.getIndex() + 1,
-                before.getTrain(),
-                time,
-                distance,
-                before.getTotalDistance() + distance,
-                speed
-            );
-        }
-
         int getSpeedAfter() {
             return speedAfter;
         }
@@ -242,14 +272,14 @@ abstract class TrainEvent implements Event {
         @Nonnull
         @Override
         TrainPosition getPosition() {
-            return getPreviousEvent().getPosition().move(getDistance());
+            return getPreviousState().getPosition().move(getDistance());
         }
 
         @Nonnull
         @Override
         public String getDescription() {
             return getTrain().getReadableName() + ": Speed{"
-                + "time=" + getTime()
+                + "time=" + SimulationTime.format(getTime())
                 + ", distance=" + getDistance()
                 + ", speedAfter=" + speedAfter
                 + "}";
@@ -289,7 +319,7 @@ abstract class TrainEvent implements Event {
         @Override
         public String getDescription() {
             return getTrain().getReadableName() + ": Start{"
-                + "time=" + getTime()
+                + "time=" + SimulationTime.format(getTime())
                 + ", this event purely serves as a helper for interpolation";
         }
     }
@@ -299,7 +329,7 @@ abstract class TrainEvent implements Event {
 
         private final Edge startEdge;
 
-        Init(int time, Train train, Edge startEdge) {
+        Init(long time, Train train, Edge startEdge) {
             super(1,
                 train,
                 time,
@@ -309,29 +339,25 @@ abstract class TrainEvent implements Event {
         }
 
         private static TrainPosition getPositionWithLookahead(Train train, Edge startEdge) {
-            Reach reach = findFirstReachEvent(train);
-            if (reach == null) {
+            TrainEventStore store = train.getEventStore();
+            int reach = store.indexOf(TrainEventStore.REACH);
+            if (reach < 0) {
                 return TrainPosition
                     .init(train, startEdge, startEdge.getNode1(), startEdge.getNode2());
             }
-            Edge reached = reach.getReached();
+            Edge reached = Objects.requireNonNull(store.getEdge(reach));
             Node common = reached.getCommonNode(startEdge);
             Node other = startEdge.getOtherNode(common);
             return TrainPosition.init(train, startEdge, other, common);
         }
 
-        private static Reach findFirstReachEvent(Train train) {
-            for (Event event : train.getTrainEvents()) {
-                if (event instanceof Reach) {
-                    return (Reach) event;
-                }
-            }
-            return null;
-        }
-
+        /**
+         * The position depends on the first reach event, so the train drops the cached states up
+         * to that event when it is added.
+         */
         @Override
         boolean canCache() {
-            return false;
+            return true;
         }
 
         @Override
@@ -349,28 +375,23 @@ abstract class TrainEvent implements Event {
         @Override
         public String getDescription() {
             return getTrain().getReadableName() + ": Init{"
-                + "time=" + getTime()
-                + ", startEdge=" + getPosition().getBackEdge().getName()
+                + "time=" + SimulationTime.format(getTime())
+                + ", startEdge=" + startEdge.getName()
                 + "}";
         }
     }
 
     static class Terminate extends Position {
 
-        Terminate(TrainEvent before, int time, int distance) {
-            super(before.getIndex() + 1,
-                before.getTrain(),
-                time,
-                distance,
-                before.getTotalDistance() + distance
-            );
+        Terminate(int index, Train train, long time, int distance, int totalDistance) {
+            super(index, train, time, distance, totalDistance);
         }
 
         @Nonnull
         @Override
         public String getDescription() {
             return getTrain().getReadableName() + ": Terminate{"
-                + "time=" + getTime()
+                + "time=" + SimulationTime.format(getTime())
                 + ", totalDistance=" + getTotalDistance()
                 + "}";
         }
@@ -378,7 +399,7 @@ abstract class TrainEvent implements Event {
         @Nonnull
         @Override
         TrainPosition getPosition() {
-            return getPreviousEvent().getPosition().move(getDistance());
+            return getPreviousState().getPosition().move(getDistance());
         }
 
         @Nonnull
@@ -392,7 +413,7 @@ abstract class TrainEvent implements Event {
     @ParametersAreNonnullByDefault
     private abstract static class Position extends TrainEvent {
 
-        Position(int index, Train train, int time, int distance, int totalDistance) {
+        Position(int index, Train train, long time, int distance, int totalDistance) {
             super(index, train, time, distance, totalDistance);
         }
 
@@ -403,8 +424,8 @@ abstract class TrainEvent implements Event {
 
         @Override
         double getSpeed() {
-            TrainEvent before = getPreviousEvent();
-            double diffSeconds = (getTime() - before.getTime()) / 1000.0;
+            InterpolatableState before = getPreviousState();
+            double diffSeconds = SimulationTime.toSeconds(getTime() - before.getTime());
             if (diffSeconds == 0) {
                 return before.getSpeed();
             }
@@ -422,12 +443,9 @@ abstract class TrainEvent implements Event {
         @Nonnull
         private final Edge reached;
 
-        Reach(TrainEvent before, int time, int distance, Edge reached) {
-            super(before.getIndex() + 1,
-                before.getTrain(),
-                time,
-                distance,
-                before.getTotalDistance() + distance);
+        Reach(int index, Train train, long time, int distance, int totalDistance,
+            Edge reached) {
+            super(index, train, time, distance, totalDistance);
             this.reached = reached;
         }
 
@@ -439,14 +457,14 @@ abstract class TrainEvent implements Event {
         @Nonnull
         @Override
         TrainPosition getPosition() {
-            return getPreviousEvent().getPosition().reachFront(reached);
+            return getPreviousState().getPosition().reachFront(reached);
         }
 
         @Nonnull
         @Override
         public String getDescription() {
             return getTrain().getReadableName() + ": Reach{"
-                + "time=" + getTime()
+                + "time=" + SimulationTime.format(getTime())
                 + ", distance=" + getDistance()
                 + ", reached=" + reached.getName()
                 + "}";
@@ -459,26 +477,22 @@ abstract class TrainEvent implements Event {
         @Nonnull
         private final Edge left;
 
-        Leave(TrainEvent before, int time, int distance, Edge left) {
-            super(before.getIndex() + 1,
-                before.getTrain(),
-                time,
-                distance,
-                before.getTotalDistance() + distance);
+        Leave(int index, Train train, long time, int distance, int totalDistance, Edge left) {
+            super(index, train, time, distance, totalDistance);
             this.left = left;
         }
 
         @Nonnull
         @Override
         TrainPosition getPosition() {
-            return getPreviousEvent().getPosition().leaveBack(left, getDistance());
+            return getPreviousState().getPosition().leaveBack(left, getDistance());
         }
 
         @Nonnull
         @Override
         public String getDescription() {
             return getTrain().getReadableName() + ": Leave{"
-                + "time=" + getTime()
+                + "time=" + SimulationTime.format(getTime())
                 + ", distance=" + getDistance()
                 + ", backEdge=" + left.getName()
                 + "}";
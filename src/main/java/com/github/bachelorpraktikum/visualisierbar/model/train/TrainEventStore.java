@@ -0,0 +1,218 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>The events of a {@link Train}, stored in columns.</p>
+ *
+ * <p>Instead of an object per event, the kind, time, distances, speed and edge of the events are
+ * stored in parallel primitive arrays. Warnings are stored separately, only for the events that
+ * have any or whose warnings have been requested. {@link TrainEvent} objects are created from
+ * these columns when they are needed.</p>
+ *
+ * <p>Events are only ever appended.</p>
+ */
+@ParametersAreNonnullByDefault
+final class TrainEventStore {
+
+    static final byte START = 0;
+    static final byte INIT = 1;
+    static final byte SPEED = 2;
+    static final byte MOVE = 3;
+    static final byte REACH = 4;
+    static final byte LEAVE = 5;
+    static final byte TERMINATE = 6;
+    private static final int KIND_COUNT = 7;
+
+    /**
+     * the warning every move event has, which is not stored for each event
+     */
+    static final String MOVE_WARNING = "Speed event without speedAfter!";
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Nonnull
+    private final EventTimeIndex times;
+    @Nonnull
+    private byte[] kinds;
+    @Nonnull
+    private int[] distances;
+    @Nonnull
+    private int[] totalDistances;
+    /**
+     * the speed after speed events, 0 for all other events
+     */
+    @Nonnull
+    private int[] speeds;
+    /**
+     * the edge of init, reach and leave events, null for all other events
+     */
+    @Nonnull
+    private Edge[] edges;
+    @Nonnull
+    private final Map<Integer, ObservableList<String>> warnings;
+    /**
+     * the events whose speed has already been compared to the speed of the previous event
+     */
+    @Nonnull
+    private final BitSet speedChecked;
+    /**
+     * the index of the first event of each kind, -1 if there is none yet
+     */
+    @Nonnull
+    private final int[] firstIndices;
+    private int size;
+
+    TrainEventStore() {
+        this.times = new EventTimeIndex();
+        this.kinds = new byte[INITIAL_CAPACITY];
+        this.distances = new int[INITIAL_CAPACITY];
+        this.totalDistances = new int[INITIAL_CAPACITY];
+        this.speeds = new int[INITIAL_CAPACITY];
+        this.edges = new Edge[INITIAL_CAPACITY];
+        this.warnings = new HashMap<>();
+        this.speedChecked = new BitSet();
+        this.firstIndices = new int[KIND_COUNT];
+        Arrays.fill(firstIndices, -1);
+        this.size = 0;
+    }
+
+    /**
+     * Appends an event. The total distance of the event is the total distance of the previous
+     * event plus the given distance.
+     *
+     * @param kind the kind of the event
+     * @param time the time of the event
+     * @param distance the distance travelled since the previous event
+     * @param speed the speed after a speed event
+     * @param edge the edge of an init, reach or leave event
+     * @return the index of the event
+     * @throws IllegalArgumentException if time is less than the time of the previous event
+     */
+    int add(byte kind, long time, int distance, int speed, @Nullable Edge edge) {
+        times.add(time);
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            totalDistances = Arrays.copyOf(totalDistances, capacity);
+            speeds = Arrays.copyOf(speeds, capacity);
+            edges = Arrays.copyOf(edges, capacity);
+        }
+        kinds[size] = kind;
+        distances[size] = distance;
+        totalDistances[size] = size == 0 ? distance : totalDistances[size - 1] + distance;
+        speeds[size] = speed;
+        edges[size] = edge;
+        if (firstIndices[kind] < 0) {
+            firstIndices[kind] = size;
+        }
+        return size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    byte getKind(int index) {
+        checkIndex(index);
+        return kinds[index];
+    }
+
+    long getTime(int index) {
+        return times.get(index);
+    }
+
+    int getDistance(int index) {
+        checkIndex(index);
+        return distances[index];
+    }
+
+    int getTotalDistance(int index) {
+        checkIndex(index);
+        return totalDistances[index];
+    }
+
+    int getSpeed(int index) {
+        checkIndex(index);
+        return speeds[index];
+    }
+
+    @Nullable
+    Edge getEdge(int index) {
+        checkIndex(index);
+        return edges[index];
+    }
+
+    /**
+     * Gets the first event of the given kind. The first index of each kind is recorded when the
+     * events are added, so this takes constant time.
+     *
+     * @param kind the kind of event
+     * @return the index of the event, or -1 if there is none
+     */
+    int indexOf(byte kind) {
+        return firstIndices[kind];
+    }
+
+    /**
+     * @see EventTimeIndex#floorIndex(long, int)
+     */
+    int floorIndex(long time, int start) {
+        return times.floorIndex(time, start);
+    }
+
+    /**
+     * Gets the warnings of an event. The list is only stored once it has been requested or a
+     * warning has been added. The warnings of move events start with {@link #MOVE_WARNING}.
+     *
+     * @param index the index of the event
+     * @return the observable list of warnings
+     */
+    @Nonnull
+    ObservableList<String> getWarnings(int index) {
+        checkIndex(index);
+        return warnings.computeIfAbsent(index, i -> {
+            ObservableList<String> result = FXCollections.observableArrayList();
+            if (kinds[i] == MOVE) {
+                result.add(MOVE_WARNING);
+            }
+            return result;
+        });
+    }
+
+    void addWarning(int index, String warning) {
+        getWarnings(index).add(warning);
+    }
+
+    /**
+     * Marks the speed of an event as checked. The speed is checked when the state after the event
+     * is built, which may happen again if the cached state is discarded.
+     *
+     * @param index the index of the event
+     * @return whether the speed hasn't been checked before
+     */
+    boolean markSpeedChecked(int index) {
+        checkIndex(index);
+        if (speedChecked.get(index)) {
+            return false;
+        }
+        speedChecked.set(index);
+        return true;
+    }
+}
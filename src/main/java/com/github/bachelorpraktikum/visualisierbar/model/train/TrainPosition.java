@@ -2,8 +2,6 @@ package com.github.bachelorpraktikum.visualisierbar.model.train;
 
 import com.github.bachelorpraktikum.visualisierbar.model.Edge;
 import com.github.bachelorpraktikum.visualisierbar.model.Node;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
@@ -19,7 +17,7 @@ import javax.annotation.concurrent.Immutable;
 final class TrainPosition implements Train.Position {
 
     private final Train train;
-    private final LinkedList<Edge> edges;
+    private final EdgePath edges;
     private final Node frontNode;
     private final Node unreachedFrontNode;
     private final int frontDistance;
@@ -28,7 +26,7 @@ final class TrainPosition implements Train.Position {
     private final int backDistance;
 
     private TrainPosition(Train train,
-        LinkedList<Edge> edges,
+        EdgePath edges,
         int frontDistance,
         Node frontNode,
         Node unreachedFrontNode,
@@ -55,7 +53,7 @@ final class TrainPosition implements Train.Position {
      * @return a TrainPosition
      * @throws NullPointerException if any argument is null
      * @throws IllegalArgumentException if the edge doesn't connect the nodes
-     * @see Train.EventFactory#init(int, Edge)
+     * @see Train.EventFactory#init(long, Edge)
      */
     @Nonnull
     static TrainPosition init(Train train, Edge edge, Node start, Node end) {
@@ -68,11 +66,8 @@ final class TrainPosition implements Train.Position {
             throw new IllegalArgumentException("end node is not on edge");
         }
 
-        LinkedList<Edge> edges = new LinkedList<>();
-        edges.add(edge);
-
         return new TrainPosition(train,
-            edges,
+            EdgePath.of(edge),
             Math.min(train.getLength(), edge.getLength()),
             start,
             end,
@@ -90,7 +85,7 @@ final class TrainPosition implements Train.Position {
     @Nonnull
     @Override
     public Edge getFrontEdge() {
-        return edges.getFirst();
+        return edges.getFront();
     }
 
     @Override
@@ -118,7 +113,7 @@ final class TrainPosition implements Train.Position {
     @Nonnull
     @Override
     public Edge getBackEdge() {
-        return edges.getLast();
+        return edges.getBack();
     }
 
     @Override
@@ -170,20 +165,17 @@ final class TrainPosition implements Train.Position {
         Point2D start = getFrontPosition(adapter);
         points.add(start);
 
-        Iterator<Edge> iterator = edges.iterator();
-        Edge first = iterator.next();
-
-        if (!iterator.hasNext()) {
+        if (edges.size() == 1) {
             points.add(getBackPosition(adapter));
             return points;
         }
 
         addNode(points, adapter.apply(frontNode));
 
-        Edge last = first;
-        while (iterator.hasNext()) {
-            Edge edge = iterator.next();
-            if (iterator.hasNext()) {
+        Edge last = edges.getFront();
+        for (int i = 1; i < edges.size(); i++) {
+            Edge edge = edges.get(i);
+            if (i < edges.size() - 1) {
                 Node uncommon = edge.getOtherNode(edge.getCommonNode(last));
                 addNode(points, adapter.apply(uncommon));
             } else {
@@ -204,7 +196,32 @@ final class TrainPosition implements Train.Position {
     @Nonnull
     @Override
     public List<Edge> getEdges() {
-        return Collections.unmodifiableList(edges);
+        return edges;
+    }
+
+    @Nonnull
+    EdgePath getEdgePath() {
+        return edges;
+    }
+
+    @Nonnull
+    Node getFrontNode() {
+        return frontNode;
+    }
+
+    @Nonnull
+    Node getUnreachedFrontNode() {
+        return unreachedFrontNode;
+    }
+
+    @Nonnull
+    Node getBackNode() {
+        return backNode;
+    }
+
+    @Nonnull
+    Node getUnreachedBackNode() {
+        return unreachedBackNode;
     }
 
     /**
@@ -217,7 +234,7 @@ final class TrainPosition implements Train.Position {
     TrainPosition move(int distance) {
         int newDistance = getFrontDistance() + distance;
         return new TrainPosition(train,
-            new LinkedList<>(edges),
+            edges,
             newDistance,
             frontNode,
             unreachedFrontNode,
@@ -235,12 +252,11 @@ final class TrainPosition implements Train.Position {
      * @return a new TrainPosition
      * @throws NullPointerException if newBack is null
      * @throws IllegalArgumentException if newBack can't be the new last edge
-     * @see Train.EventFactory#leave(int, Edge, int)
+     * @see Train.EventFactory#leave(long, Edge, int)
      */
     @Nonnull
     TrainPosition leaveBack(Edge newBack, int movedDistance) {
-        LinkedList<Edge> edges = new LinkedList<>(getEdges());
-        edges.removeLast();
+        EdgePath edges = this.edges.withoutBack();
         Node unreachedBackNode = backNode;
         Node backNode = newBack.getOtherNode(unreachedBackNode);
         return new TrainPosition(getTrain(),
@@ -262,12 +278,11 @@ final class TrainPosition implements Train.Position {
      * @throws NullPointerException if newStart is null
      * @throws IllegalArgumentException if the train can't reach newStart from its current position
      * with a simple reach event
-     * @see Train.EventFactory#reach(int, Edge, int)
+     * @see Train.EventFactory#reach(long, Edge, int)
      */
     @Nonnull
     TrainPosition reachFront(Edge newStart) {
-        LinkedList<Edge> edges = new LinkedList<>(getEdges());
-        edges.addFirst(newStart);
+        EdgePath edges = this.edges.withFront(newStart);
         Node frontNode = unreachedFrontNode;
         Node unreachedFrontNode = newStart.getOtherNode(frontNode);
         return new TrainPosition(getTrain(),
@@ -280,19 +295,15 @@ final class TrainPosition implements Train.Position {
             unreachedBackNode);
     }
 
-    private static int calculateBackDistance(int trainLength, List<Edge> edges, int frontDistance) {
+    private static int calculateBackDistance(int trainLength, EdgePath edges, int frontDistance) {
         if (edges.size() == 1) {
-            return edges.get(0).getLength() - frontDistance + trainLength;
+            return edges.getFront().getLength() - frontDistance + trainLength;
         }
 
         trainLength -= frontDistance;
-        Iterator<Edge> iterator = edges.listIterator(1);
-        while (iterator.hasNext()) {
-            Edge edge = iterator.next();
-            if (iterator.hasNext()) {
-                // Subtract the lengths of all intermediate edges, just not the last one
-                trainLength -= edge.getLength();
-            }
+        // Subtract the lengths of all intermediate edges, just not the last one
+        for (int i = 1; i < edges.size() - 1; i++) {
+            trainLength -= edges.get(i).getLength();
         }
 
         return trainLength;
@@ -309,15 +320,15 @@ final class TrainPosition implements Train.Position {
      */
     @Nonnull
     TrainPosition interpolationMove(int moveDistance, @Nullable Edge possibleNewStart) {
-        LinkedList<Edge> edges = new LinkedList<>(getEdges());
+        EdgePath edges = this.edges;
         Node frontNode = this.frontNode;
         Node unreachedFrontNode = this.unreachedFrontNode;
         int newDistance = getFrontDistance() + moveDistance;
         if (newDistance > getFrontEdge().getLength()) {
-            edges.addFirst(possibleNewStart);
+            edges = edges.withFront(Objects.requireNonNull(possibleNewStart));
             newDistance -= getFrontEdge().getLength();
             frontNode = unreachedFrontNode;
-            unreachedFrontNode = Objects.requireNonNull(possibleNewStart).getOtherNode(frontNode);
+            unreachedFrontNode = possibleNewStart.getOtherNode(frontNode);
         }
 
         int trainLength = getTrain().getLength();
@@ -325,8 +336,9 @@ final class TrainPosition implements Train.Position {
         Node unreachedBackNode = this.unreachedBackNode;
         int backDistance = calculateBackDistance(trainLength, edges, newDistance);
         while (backDistance < 0) {
-            Edge removed = edges.removeLast();
-            Edge newLast = edges.getLast();
+            Edge removed = edges.getBack();
+            edges = edges.withoutBack();
+            Edge newLast = edges.getBack();
             unreachedBackNode = backNode;
             backNode = newLast.getOtherNode(unreachedBackNode);
             backDistance += removed.getLength();
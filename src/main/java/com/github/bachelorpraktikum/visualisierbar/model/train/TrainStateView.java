@@ -0,0 +1,420 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import java.util.Objects;
+import java.util.function.Function;
+import javafx.geometry.Point2D;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>A mutable view of the state of a {@link Train} at a specific point of time.</p>
+ *
+ * <p>In contrast to {@link Train.State}, a view is filled in place by {@link
+ * Train#sampleInto(long, TrainStateView)}, so sampling trains over and over again, e.g. for every
+ * frame of the playback, doesn't allocate any objects. If a view is filled with a later state of
+ * the same train, the search for the state starts at the previous one.</p>
+ *
+ * <p>Views are not thread-safe. Their values are only valid until they are filled again.</p>
+ */
+@ParametersAreNonnullByDefault
+public final class TrainStateView {
+
+    @Nullable
+    private Train train;
+    private int index;
+    private long time;
+    private boolean initialized;
+    private boolean terminated;
+    private double speed;
+    private int totalDistance;
+
+    /**
+     * The position this view has been filled with, if it hasn't been moved
+     */
+    @Nullable
+    private TrainPosition position;
+    /**
+     * The edges of the position this view has been filled with
+     */
+    @Nullable
+    private EdgePath edges;
+    /**
+     * The edge the front has moved onto, in front of the edges
+     */
+    @Nullable
+    private Edge newFront;
+    /**
+     * The number of edges, including newFront and excluding the edges the back has left
+     */
+    private int edgeCount;
+    @Nullable
+    private Node frontNode;
+    @Nullable
+    private Node unreachedFrontNode;
+    private int frontDistance;
+    @Nullable
+    private Node backNode;
+    @Nullable
+    private Node unreachedBackNode;
+    private int backDistance;
+
+    /**
+     * Creates an empty view, which has to be filled by {@link Train#sampleInto(long,
+     * TrainStateView)} before it can be used.
+     */
+    public TrainStateView() {
+    }
+
+    /**
+     * Gets the index to start searching the state of the given train at the given time at.
+     */
+    int getStartingIndex(Train train, long time) {
+        if (train.equals(this.train) && this.time <= time) {
+            return index;
+        }
+        return 0;
+    }
+
+    void set(InterpolatableState state) {
+        setState(state.getTrain(),
+            state.getIndex(),
+            state.getTime(),
+            state.isInitialized(),
+            state.isTerminated(),
+            state.getSpeed(),
+            state.getTotalDistance());
+        setPosition(state.isInitialized() ? state.getPosition() : null);
+    }
+
+    void setState(Train train, int index, long time, boolean initialized, boolean terminated,
+        double speed, int totalDistance) {
+        this.train = train;
+        this.index = index;
+        this.time = time;
+        this.initialized = initialized;
+        this.terminated = terminated;
+        this.speed = speed;
+        this.totalDistance = totalDistance;
+    }
+
+    void setPosition(@Nullable TrainPosition position) {
+        this.position = position;
+        this.newFront = null;
+        if (position == null) {
+            this.edges = null;
+            this.edgeCount = 0;
+            this.frontNode = null;
+            this.unreachedFrontNode = null;
+            this.backNode = null;
+            this.unreachedBackNode = null;
+            return;
+        }
+        this.train = position.getTrain();
+        this.edges = position.getEdgePath();
+        this.edgeCount = edges.size();
+        this.frontNode = position.getFrontNode();
+        this.unreachedFrontNode = position.getUnreachedFrontNode();
+        this.frontDistance = position.getFrontDistance();
+        this.backNode = position.getBackNode();
+        this.unreachedBackNode = position.getUnreachedBackNode();
+        this.backDistance = position.getBackDistance();
+    }
+
+    /**
+     * Sets the given position moved by the specified distance. If the front leaves the current
+     * front edge while doing so, the possibleNewStart is assumed to be the new front edge.
+     *
+     * @param position the position before moving
+     * @param moveDistance the moved distance in meters
+     * @param possibleNewStart the possible new front edge
+     * @throws NullPointerException if possibleNewStart is needed and null
+     * @see TrainPosition#interpolationMove(int, Edge)
+     */
+    void setPosition(TrainPosition position, int moveDistance, @Nullable Edge possibleNewStart) {
+        setPosition(position);
+        this.position = null;
+
+        int newDistance = frontDistance + moveDistance;
+        Edge oldFront = edgeAt(0);
+        if (newDistance > oldFront.getLength()) {
+            newFront = Objects.requireNonNull(possibleNewStart);
+            edgeCount++;
+            newDistance -= oldFront.getLength();
+            frontNode = unreachedFrontNode;
+            unreachedFrontNode = newFront.getOtherNode(frontNode);
+        }
+        frontDistance = newDistance;
+
+        backDistance = calculateBackDistance(position.getTrain().getLength());
+        while (backDistance < 0) {
+            if (edgeCount == 1) {
+                throw new IllegalStateException("can't remove the only edge");
+            }
+            Edge removed = edgeAt(--edgeCount);
+            Edge newLast = edgeAt(edgeCount - 1);
+            unreachedBackNode = backNode;
+            backNode = newLast.getOtherNode(unreachedBackNode);
+            backDistance += removed.getLength();
+        }
+    }
+
+    private int calculateBackDistance(int trainLength) {
+        if (edgeCount == 1) {
+            return edgeAt(0).getLength() - frontDistance + trainLength;
+        }
+
+        trainLength -= frontDistance;
+        // Subtract the lengths of all intermediate edges, just not the last one
+        for (int i = 1; i < edgeCount - 1; i++) {
+            trainLength -= edgeAt(i).getLength();
+        }
+        return trainLength;
+    }
+
+    private void checkInitialized() {
+        if (!initialized || edges == null) {
+            throw new IllegalStateException("Tried to get position of uninitialized train");
+        }
+    }
+
+    /**
+     * Gets the train this view has last been filled with.
+     *
+     * @return the train
+     * @throws IllegalStateException if this view hasn't been filled yet
+     */
+    @Nonnull
+    public Train getTrain() {
+        if (train == null) {
+            throw new IllegalStateException("view has not been filled");
+        }
+        return train;
+    }
+
+    /**
+     * @return the time in microseconds since the start of the simulation
+     * @see Train.State#getTime()
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @see Train.State#isInitialized()
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * @see Train.State#isTerminated()
+     */
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    /**
+     * @see Train.State#getSpeed()
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return the total distance in meters
+     * @see Train.State#getTotalDistance()
+     */
+    public int getTotalDistance() {
+        return totalDistance;
+    }
+
+    /**
+     * @throws IllegalStateException if {@link #isInitialized()} is false
+     * @see Train.Position#getFrontEdge()
+     */
+    @Nonnull
+    public Edge getFrontEdge() {
+        return getEdge(0);
+    }
+
+    /**
+     * @throws IllegalStateException if {@link #isInitialized()} is false
+     * @see Train.Position#getFrontDistance()
+     */
+    public int getFrontDistance() {
+        checkInitialized();
+        return frontDistance;
+    }
+
+    /**
+     * @throws IllegalStateException if {@link #isInitialized()} is false
+     * @see Train.Position#getBackEdge()
+     */
+    @Nonnull
+    public Edge getBackEdge() {
+        return getEdge(edgeCount - 1);
+    }
+
+    /**
+     * @throws IllegalStateException if {@link #isInitialized()} is false
+     * @see Train.Position#getBackDistance()
+     */
+    public int getBackDistance() {
+        checkInitialized();
+        return backDistance;
+    }
+
+    /**
+     * Gets the number of edges the train is on.
+     *
+     * @return the number of edges
+     * @throws IllegalStateException if {@link #isInitialized()} is false
+     */
+    public int getEdgeCount() {
+        checkInitialized();
+        return edgeCount;
+    }
+
+    /**
+     * Gets an edge the train is on. The front edge has index 0, the back edge has index {@link
+     * #getEdgeCount()} - 1.
+     *
+     * @param index the index of the edge
+     * @return the edge
+     * @throws IllegalStateException if {@link #isInitialized()} is false
+     * @throws IndexOutOfBoundsException if the index is invalid
+     * @see Train.Position#getEdges()
+     */
+    @Nonnull
+    public Edge getEdge(int index) {
+        checkInitialized();
+        if (index < 0 || index >= edgeCount) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + edgeCount);
+        }
+        return edgeAt(index);
+    }
+
+    @Nonnull
+    private Edge edgeAt(int index) {
+        if (newFront == null) {
+            return edges.get(index);
+        }
+        return index == 0 ? newFront : edges.get(index - 1);
+    }
+
+    /**
+     * @throws IllegalStateException if {@link #isInitialized()} is false
+     * @see Train.Position#getFrontCoordinates()
+     */
+    @Nonnull
+    public Point2D getFrontCoordinates() {
+        return getEndCoordinates(frontNode, unreachedFrontNode, getFrontEdge(), frontDistance);
+    }
+
+    /**
+     * @throws IllegalStateException if {@link #isInitialized()} is false
+     * @see Train.Position#getBackCoordinates()
+     */
+    @Nonnull
+    public Point2D getBackCoordinates() {
+        return getEndCoordinates(backNode, unreachedBackNode, getBackEdge(), backDistance);
+    }
+
+    @Nonnull
+    private Point2D getEndCoordinates(Node endNode, Node unreachedNode, Edge edge, int distance) {
+        Point2D end = endNode.getCoordinates().toPoint2D();
+        Point2D vector = unreachedNode.getCoordinates().toPoint2D().subtract(end);
+        double endLength = ((double) distance) / edge.getLength() * vector.magnitude();
+        return end.add(vector.normalize().multiply(endLength));
+    }
+
+    /**
+     * <p>Writes the real coordinates of all significant points the train is on into the given
+     * array, like {@link Train.Position#getPositions(Function)} does. The x and y coordinates of
+     * each point are written next to each other, starting at index 0.</p>
+     *
+     * <p>There are at most {@link #getEdgeCount()} + 1 points, so the array needs a length of at
+     * least twice that.</p>
+     *
+     * @param adapter the adapter to translate Node Coordinates to real positions
+     * @param points the array to write the coordinates into
+     * @return the number of points written
+     * @throws IllegalStateException if {@link #isInitialized()} is false
+     * @throws IllegalArgumentException if the array is too short
+     */
+    public int getPoints(Function<Node, Point2D> adapter, double[] points) {
+        checkInitialized();
+        if (points.length < 2 * (edgeCount + 1)) {
+            throw new IllegalArgumentException("array is too short: " + points.length);
+        }
+
+        int count = 0;
+        count = addEndPoint(points, count, adapter, frontNode, unreachedFrontNode,
+            getFrontEdge(), frontDistance);
+
+        if (edgeCount == 1) {
+            return addEndPoint(points, count, adapter, backNode, unreachedBackNode,
+                getBackEdge(), backDistance);
+        }
+
+        count = addPoint(points, count, adapter.apply(frontNode));
+
+        Edge last = getFrontEdge();
+        for (int i = 1; i < edgeCount; i++) {
+            Edge edge = getEdge(i);
+            if (i < edgeCount - 1) {
+                Node uncommon = edge.getOtherNode(edge.getCommonNode(last));
+                count = addPoint(points, count, adapter.apply(uncommon));
+            } else {
+                int backIndex = count;
+                count = addEndPoint(points, count, adapter, backNode, unreachedBackNode,
+                    getBackEdge(), backDistance);
+                if (points[2 * backIndex - 2] == points[2 * backIndex]
+                    && points[2 * backIndex - 1] == points[2 * backIndex + 1]) {
+                    count--;
+                }
+            }
+            last = edge;
+        }
+        return count;
+    }
+
+    /**
+     * Adds the point unless it's equal to the previous one.
+     */
+    private int addPoint(double[] points, int count, Point2D point) {
+        if (count > 0
+            && points[2 * count - 2] == point.getX() && points[2 * count - 1] == point.getY()) {
+            return count;
+        }
+        points[2 * count] = point.getX();
+        points[2 * count + 1] = point.getY();
+        return count + 1;
+    }
+
+    /**
+     * Adds the exact position of the front or back, computed the same way as {@link
+     * Train.Position#getFrontPosition(Function)}.
+     */
+    private int addEndPoint(double[] points, int count, Function<Node, Point2D> adapter,
+        Node endNode, Node unreachedNode, Edge edge, int distance) {
+        Point2D end = adapter.apply(endNode);
+        Point2D unreached = adapter.apply(unreachedNode);
+        double vectorX = unreached.getX() - end.getX();
+        double vectorY = unreached.getY() - end.getY();
+        double magnitude = Math.sqrt(vectorX * vectorX + vectorY * vectorY);
+        double length = ((double) distance) / edge.getLength() * magnitude;
+        double x = end.getX();
+        double y = end.getY();
+        if (magnitude != 0) {
+            x += vectorX / magnitude * length;
+            y += vectorY / magnitude * length;
+        }
+        points[2 * count] = x;
+        points[2 * count + 1] = y;
+        return count + 1;
+    }
+}
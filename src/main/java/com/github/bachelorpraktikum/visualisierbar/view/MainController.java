@@ -30,9 +30,11 @@ import javafx.animation.Timeline;
 import javafx.beans.binding.Binding;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableIntegerValue;
+import javafx.beans.value.ObservableLongValue;
 import javafx.beans.value.ObservableValue;
 import javafx.beans.value.WeakChangeListener;
 import javafx.collections.FXCollections;
@@ -79,6 +81,11 @@ import java.util.stream.Stream;
 public class MainController {
 
     private static final double SCALE_DELTA = 1.1;
+    /**
+     * The number of log entries the log cursor is moved forward one by one, before binary search
+     * is used instead.
+     */
+    private static final int MAX_LOG_CURSOR_STEPS = 16;
     static private HashSet<Node> nodeClipboard = new HashSet<>();
     @FXML
     private AnchorPane detail;
@@ -185,7 +192,7 @@ public class MainController {
     private File newAbsFile;
 
 
-    private IntegerProperty simulationTime;
+    private LongProperty simulationTime;
     private LinkedList<ChangeListener> listeners;
 
     private Stage editorStage;
@@ -195,10 +202,16 @@ public class MainController {
     /**
      * Is updated when simulationTime changes, but AFTER the model state has been updated
      */
-    private ObservableIntegerValue postSimulationTime;
+    private ObservableLongValue postSimulationTime;
     private IntegerProperty velocity;
     private Animation simulation;
     private Timeline eventTraversalTimeline;
+    @Nullable
+    private EventLog eventLog;
+    /**
+     * The index of the log entry found by the last lookup in the log list
+     */
+    private int logCursor;
 
     @FXML
     private void initialize() {
@@ -210,22 +223,22 @@ public class MainController {
         // START OF TIME RELATED INIT
 
 
-        simulationTime = new SimpleIntegerProperty();
-        IntegerProperty postSimulationTime = new SimpleIntegerProperty();
+        simulationTime = new SimpleLongProperty();
+        LongProperty postSimulationTime = new SimpleLongProperty();
         this.postSimulationTime = postSimulationTime;
         simulationTime.addListener((observable, oldValue, newValue) -> {
             DataSourceHolder.getInstance().ifPresent(dataSource -> {
                 Context context = dataSource.getContext();
-                int oldInt = oldValue.intValue();
-                int newInt = newValue.intValue();
-                timeText.setText(String.format("%dms", newInt));
-                Element.in(context).setTime(newInt);
+                long oldTime = oldValue.longValue();
+                long newTime = newValue.longValue();
+                timeText.setText(SimulationTime.format(newTime) + "ms");
+                Element.in(context).setTime(newTime);
 
-                if (newInt > oldInt) {
+                if (newTime > oldTime) {
                     boolean messages = Messages.in(context).fireEventsBetween(
                             node -> getGraph().getNodes().get(node).getShape(),
-                            oldInt,
-                            newInt
+                            oldTime,
+                            newTime
                     );
                     if (messages) {
                         playToggle.setSelected(false);
@@ -238,13 +251,13 @@ public class MainController {
         timeText.setOnAction(event -> {
             String text = timeText.getText();
             Matcher timeMatch = timePattern.matcher(text);
-            int newTime = 0;
+            long newTime = 0;
 
             if (timeMatch.find()) {
                 try {
-                    newTime = getMsFromString(text);
-                } catch (NumberFormatException e) {
-                    timeText.setText(simulationTime.get() + "ms");
+                    newTime = getTimeFromString(text);
+                } catch (NumberFormatException | ArithmeticException e) {
+                    timeText.setText(SimulationTime.format(simulationTime.get()) + "ms");
                     return;
                 }
             }
@@ -254,12 +267,13 @@ public class MainController {
         });
         timeText.focusedProperty().addListener((observable, oldValue, newValue) -> {
             if (!newValue) {
-                timeText.setText(simulationTime.get() + "ms");
+                timeText.setText(SimulationTime.format(simulationTime.get()) + "ms");
             }
         });
 
         this.simulation = new Timeline(new KeyFrame(Duration.millis(50), event -> {
-            int time = (int) (simulationTime.get() + (velocity.get() * 0.05));
+            long time = simulationTime.get()
+                    + (long) (velocity.get() * SimulationTime.MICROS_PER_MILLI * 0.05);
             simulationTime.set(time);
             selectClosestLogEntry(time);
         }));
@@ -701,7 +715,7 @@ public class MainController {
             source.continueSimulation();
             String text = ResourceBundle.getBundle("bundles.localization")
                     .getString("model_time");
-            modelTime.setText(String.format(text, source.getTime()));
+            modelTime.setText(String.format(text, SimulationTime.toMillis(source.getTime())));
             continueSimulation.setDisable(false);
         });
     }
@@ -1089,51 +1103,72 @@ public class MainController {
     }
 
 
-    private int getLastEventIndex(int time) {
-        int last = 0;
+    /**
+     * Finds the last log entry at or before the given time. During playback, the time only moves
+     * forward a little between lookups, so the search starts at the entry found by the previous
+     * lookup. Binary search is used for anything else.
+     *
+     * @return the index of the entry, or 0 if there is none
+     */
+    private int getLastEventIndex(long time) {
         List<Event> items = logList.getItems();
-        for (int index = 0; index < items.size(); index++) {
-            Event item = items.get(index);
-            if (item.getTime() > time) {
-                return last;
+        if (eventLog == null || items != eventLog || items.isEmpty()) {
+            logCursor = 0;
+            return 0;
+        }
+
+        if (logCursor >= items.size() || eventLog.getTime(logCursor) > time) {
+            logCursor = Math.max(0, eventLog.lastIndexAtOrBefore(time));
+            return logCursor;
+        }
+        for (int step = 0; step < MAX_LOG_CURSOR_STEPS; step++) {
+            if (logCursor + 1 == items.size() || eventLog.getTime(logCursor + 1) > time) {
+                return logCursor;
             }
-            last = index;
+            logCursor++;
         }
-        // Return last
-        return last;
+        logCursor = eventLog.lastIndexAtOrBefore(time);
+        return logCursor;
     }
 
-    private Event selectNextEvent(int time) {
+    private Event selectNextEvent(long time) {
         int index = getLastEventIndex(time) + 1;
         if (index >= logList.getItems().size()) {
             index--;
         }
 
-        Event event = logList.getItems().get(index);
-        selectEvent(event);
-        return event;
+        selectEvent(index);
+        return logList.getItems().get(index);
     }
 
-    private Event selectClosestLogEntry(int time) {
-        if (logList.getItems().size() == 0) {return null;}
-        Event event = logList.getItems().get(getLastEventIndex(time));
-        selectEvent(event);
-        return event;
+    private void selectClosestLogEntry(long time) {
+        if (logList.getItems().size() == 0) {return;}
+        selectEvent(getLastEventIndex(time));
     }
 
-    private void selectEvent(Event event) {
+    /**
+     * Selects the log entry at the given index. Selecting by index rather than by entry avoids
+     * searching the log for an equal entry.
+     */
+    private void selectEvent(int index) {
         autoChange = true;
-        logList.getSelectionModel().select(event);
-        logList.scrollTo(event);
+        logList.getSelectionModel().select(index);
+        logList.scrollTo(index);
         autoChange = false;
     }
 
-    private int getMsFromString(String timeString) {
-        int ms = -1;
+    /**
+     * Parses a time entered by the user, e.g. "500ms", "3s" or "2h". Without unit, milliseconds
+     * are assumed.
+     *
+     * @return the time in microseconds
+     */
+    private long getTimeFromString(String timeString) {
+        long ms = -1;
 
         Matcher timeMatch = timePattern.matcher(timeString);
         String type = "ms";
-        int time = ms;
+        long time = ms;
 
         if (timeMatch.find()) {
             String typeMatch = timeMatch.group(2);
@@ -1141,24 +1176,24 @@ public class MainController {
                 type = typeMatch;
             }
 
-            time = Integer.valueOf(timeMatch.group(1));
+            time = Long.parseLong(timeMatch.group(1));
         }
 
         switch (type) {
             case "s":
-                ms = time * 1000;
+                ms = Math.multiplyExact(time, 1000);
                 break;
             case "m":
-                ms = time * 1000 * 60;
+                ms = Math.multiplyExact(time, 1000 * 60);
                 break;
             case "h":
-                ms = time * 1000 * 60 * 60;
+                ms = Math.multiplyExact(time, 1000 * 60 * 60);
                 break;
             default:
                 ms = time;
         }
 
-        return ms;
+        return SimulationTime.fromMillis(ms);
     }
 
     private void showDetailView() {
@@ -1214,7 +1249,7 @@ public class MainController {
         legend.setCellFactory(studentListView -> new LegendListViewCell());
     }
 
-    private int getCurrentTime() {
+    private long getCurrentTime() {
         return simulationTime.get();
     }
 
@@ -1374,7 +1409,9 @@ public class MainController {
         {DataSourceHolder.getInstance().set(source);
          Context context = source.getContext();
 
-         logList.setItems(context.getObservableEvents().sorted());
+         eventLog = context.getObservableEvents();
+         logCursor = 0;
+         logList.setItems(eventLog);
          fitGraphToCenter(getGraph());
          simulationTime.set(Context.INIT_STATE_TIME);
         }
@@ -9,7 +9,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
-import javafx.beans.value.ObservableIntegerValue;
+import javafx.beans.value.ObservableLongValue;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
@@ -23,10 +23,10 @@ import javax.annotation.ParametersAreNonnullByDefault;
 public abstract class DetailsBase<O extends GraphObject<?>> {
 
     private final O element;
-    private final ObservableIntegerValue time;
+    private final ObservableLongValue time;
     private final List<Object> bindings;
 
-    DetailsBase(O element, ObservableIntegerValue time, String fxmlLocation) {
+    DetailsBase(O element, ObservableLongValue time, String fxmlLocation) {
         this.element = Objects.requireNonNull(element);
         this.time = Objects.requireNonNull(time);
         this.bindings = new LinkedList<>();
@@ -86,7 +86,7 @@ public abstract class DetailsBase<O extends GraphObject<?>> {
      * @return the observable time
      */
     @Nonnull
-    ObservableIntegerValue timeProperty() {
+    ObservableLongValue timeProperty() {
         return time;
     }
 
@@ -111,7 +111,7 @@ public abstract class DetailsBase<O extends GraphObject<?>> {
      * the given object
      */
     @Nonnull
-    public static DetailsBase<?> create(GraphObject<?> object, ObservableIntegerValue timeProperty,
+    public static DetailsBase<?> create(GraphObject<?> object, ObservableLongValue timeProperty,
         Pane centerPane) {
         if (object instanceof Train) {
             Train train = (Train) object;
@@ -9,7 +9,7 @@ import com.github.bachelorpraktikum.visualisierbar.view.Highlightable;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.BooleanBinding;
 import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableIntegerValue;
+import javafx.beans.value.ObservableLongValue;
 import javafx.beans.value.WeakChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -49,7 +49,7 @@ class ElementDetails extends DetailsBase<Element> {
     private Button breakButton;
 
 
-    ElementDetails(Element element, ObservableIntegerValue time) {
+    ElementDetails(Element element, ObservableLongValue time) {
         // this is executed first
         super(element, time, FXML_LOCATION);
         // this is executed AFTER initialize()
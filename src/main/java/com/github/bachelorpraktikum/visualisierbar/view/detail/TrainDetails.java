@@ -3,8 +3,10 @@ package com.github.bachelorpraktikum.visualisierbar.view.detail;
 import com.github.bachelorpraktikum.visualisierbar.config.ConfigKey;
 import com.github.bachelorpraktikum.visualisierbar.datasource.RestSource;
 import com.github.bachelorpraktikum.visualisierbar.model.Event;
+import com.github.bachelorpraktikum.visualisierbar.model.SimulationTime;
 import com.github.bachelorpraktikum.visualisierbar.model.train.Train;
 import com.github.bachelorpraktikum.visualisierbar.model.train.Train.State;
+import com.github.bachelorpraktikum.visualisierbar.model.train.TrainStateView;
 import com.github.bachelorpraktikum.visualisierbar.view.ContextMenuUtil;
 import com.github.bachelorpraktikum.visualisierbar.view.DataSourceHolder;
 import com.github.bachelorpraktikum.visualisierbar.view.Exporter;
@@ -24,7 +26,7 @@ import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableIntegerValue;
+import javafx.beans.value.ObservableLongValue;
 import javafx.beans.value.WeakChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -81,7 +83,7 @@ class TrainDetails extends DetailsBase<Train> {
         return distance < 0 ? 0 : distance;
     };
     private static final Function<State, Double> TIME = s -> {
-        double time = s.getTime() / 1000.0;
+        double time = SimulationTime.toSeconds(s.getTime());
         return time < 0 ? 0 : time;
     };
 
@@ -145,8 +147,9 @@ class TrainDetails extends DetailsBase<Train> {
     private Map<ChartType, ObservableList<Data<Double, Double>>> chartData;
     private LineChart<Double, Double> bigChart;
     private ChartType currentBigChart;
+    private final TrainStateView stateView = new TrainStateView();
 
-    TrainDetails(Train train, ObservableIntegerValue time, Pane centerPane) {
+    TrainDetails(Train train, ObservableLongValue time, Pane centerPane) {
         // this is executed first
         super(train, time, FXML_LOCATION);
         // this is executed AFTER initialize()
@@ -217,9 +220,9 @@ class TrainDetails extends DetailsBase<Train> {
         addBinding(speedBinding);
         speedValue.textProperty().bind(speedBinding);
 
-        updateCharts(timeProperty().get(), Integer.MAX_VALUE);
+        updateCharts(timeProperty().get(), Long.MAX_VALUE);
         ChangeListener<Number> chartListener = ((observable, oldValue, newValue) ->
-            updateCharts(newValue.intValue(), oldValue.intValue())
+            updateCharts(newValue.longValue(), oldValue.longValue())
         );
         addBinding(chartListener);
         timeProperty().addListener(new WeakChangeListener<>(chartListener));
@@ -274,7 +277,7 @@ class TrainDetails extends DetailsBase<Train> {
         }
     }
 
-    private void updateCharts(int time, int previousTime) {
+    private void updateCharts(long time, long previousTime) {
         if (previousTime > time) {
             resetCharts();
         }
@@ -284,7 +287,7 @@ class TrainDetails extends DetailsBase<Train> {
         }
     }
 
-    private void updateChart(ChartType type, int time, int previousTime) {
+    private void updateChart(ChartType type, long time, long previousTime) {
         Train train = getObject();
 
         ObservableList<Data<Double, Double>> data = chartData.get(type);
@@ -293,7 +296,7 @@ class TrainDetails extends DetailsBase<Train> {
 
         State state = null;
         if (previousTime > time) {
-            previousTime = Integer.MIN_VALUE;
+            previousTime = Long.MIN_VALUE;
             state = train.getState(0);
             data.add(new Data<>(xFunction.apply(state), yFunction.apply(state)));
         } else if (!data.isEmpty()) {
@@ -329,8 +332,13 @@ class TrainDetails extends DetailsBase<Train> {
         return trainDetails;
     }
 
-    Train.State getState() {
-        return getObject().getState(timeProperty().get());
+    /**
+     * Gets the state of the train at the current time. The returned view is reused for every
+     * call.
+     */
+    TrainStateView getState() {
+        getObject().sampleInto(timeProperty().get(), stateView);
+        return stateView;
     }
 
     double getSpeed() {
@@ -343,10 +351,10 @@ class TrainDetails extends DetailsBase<Train> {
 
     @Nullable
     private Point2D getFrontCoordinates() {
-        State state = getState();
+        TrainStateView state = getState();
 
         if (state.isInitialized()) {
-            return getState().getPosition().getFrontCoordinates();
+            return state.getFrontCoordinates();
         } else {
             return null;
         }
@@ -354,9 +362,9 @@ class TrainDetails extends DetailsBase<Train> {
 
     @Nullable
     private Point2D getBackCoordinates() {
-        State state = getState();
+        TrainStateView state = getState();
         if (state.isInitialized()) {
-            return state.getPosition().getBackCoordinates();
+            return state.getBackCoordinates();
         } else {
             return null;
         }
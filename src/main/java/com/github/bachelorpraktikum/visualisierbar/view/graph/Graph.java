@@ -7,6 +7,10 @@ import com.github.bachelorpraktikum.visualisierbar.view.graph.elements.Elements;
 
 import java.util.*;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.WeakChangeListener;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -15,6 +19,12 @@ import javax.annotation.ParametersAreNonnullByDefault;
 @ParametersAreNonnullByDefault
 public final class Graph {
 
+    /**
+     * the size of the cells of the spatial indices, relative to the calibration base of the
+     * coordinates adapter
+     */
+    private static final double INDEX_CELL_SIZE = 4;
+
     @Nonnull
     private SimpleBooleanProperty change;
     @Nonnull
@@ -32,6 +42,21 @@ public final class Graph {
     @Nonnull
     private Map<Element, GraphShape<Element>> elements;
 
+    /**
+     * the nodes of this graph by their location in the coordinates of the adapter
+     */
+    @Nonnull
+    private final SpatialIndex<Node> nodeIndex;
+    /**
+     * the edges of this graph by their location in the coordinates of the adapter
+     */
+    @Nonnull
+    private final SpatialIndex<Edge> edgeIndex;
+    /**
+     * the listeners which update the indices when a node is moved, referenced weakly by the nodes
+     */
+    @Nonnull
+    private final Map<Node, ChangeListener<Boolean>> moveListeners;
 
 
     /**
@@ -52,6 +77,10 @@ public final class Graph {
         this.elements = new LinkedHashMap<>(256);
         this.group = new Group();
         this.edges = new LinkedHashMap<>(256);
+        double cellSize = INDEX_CELL_SIZE * coordinatesAdapter.getCalibrationBase();
+        this.nodeIndex = new SpatialIndex<>(cellSize);
+        this.edgeIndex = new SpatialIndex<>(cellSize);
+        this.moveListeners = new HashMap<>(128);
 
         Junction.clearSelection();
         for (Node node : Node.in(context).getAll()) {
@@ -97,6 +126,116 @@ public final class Graph {
         return coordinatesAdapter;
     }
 
+    /**
+     * Gets the nodes of this graph within the given bounds.
+     *
+     * @param bounds the area in the coordinates of the {@link CoordinatesAdapter}
+     * @return the nodes in no particular order
+     */
+    @Nonnull
+    public List<Node> getNodesIn(Bounds bounds) {
+        return nodeIndex.query(bounds);
+    }
+
+    /**
+     * Gets the edges of this graph which pass through the given bounds.
+     *
+     * @param bounds the area in the coordinates of the {@link CoordinatesAdapter}
+     * @return the edges in no particular order
+     */
+    @Nonnull
+    public List<Edge> getEdgesIn(Bounds bounds) {
+        return edgeIndex.query(bounds);
+    }
+
+    /**
+     * Gets the elements of this graph whose node is within the given bounds.
+     *
+     * @param bounds the area in the coordinates of the {@link CoordinatesAdapter}
+     * @return the elements in no particular order
+     */
+    @Nonnull
+    public List<Element> getElementsIn(Bounds bounds) {
+        List<Element> result = new ArrayList<>();
+        for (Node node : nodeIndex.query(bounds)) {
+            for (Element element : node.getElements()) {
+                if (elements.containsKey(element)) {
+                    result.add(element);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the node of this graph closest to the given point.
+     *
+     * @param point the point in the coordinates of the {@link CoordinatesAdapter}
+     * @param maxDistance the maximum distance of the node from the point
+     * @return the closest node, or null if there is no node within maxDistance
+     */
+    @Nullable
+    public Node getNearestNode(Point2D point, double maxDistance) {
+        return nodeIndex.nearest(point, maxDistance);
+    }
+
+    /**
+     * Gets the edge of this graph closest to the given point.
+     *
+     * @param point the point in the coordinates of the {@link CoordinatesAdapter}
+     * @param maxDistance the maximum distance of the edge from the point
+     * @return the closest edge, or null if there is no edge within maxDistance
+     */
+    @Nullable
+    public Edge getNearestEdge(Point2D point, double maxDistance) {
+        return edgeIndex.nearest(point, maxDistance);
+    }
+
+    private static boolean isFinite(Point2D point) {
+        return !Double.isNaN(point.getX()) && !Double.isInfinite(point.getX())
+            && !Double.isNaN(point.getY()) && !Double.isInfinite(point.getY());
+    }
+
+    /**
+     * Adds a node to the spatial index, or updates its location. Nodes whose location isn't
+     * finite are not indexed.
+     */
+    private void indexNode(Node node) {
+        Point2D point = coordinatesAdapter.apply(node);
+        if (isFinite(point)) {
+            nodeIndex.put(node, point);
+        } else {
+            nodeIndex.remove(node);
+        }
+        if (!moveListeners.containsKey(node)) {
+            ChangeListener<Boolean> listener = (observable, oldValue, newValue) -> nodeMoved(node);
+            moveListeners.put(node, listener);
+            node.movedProperty().addListener(new WeakChangeListener<>(listener));
+        }
+    }
+
+    private void indexEdge(Edge edge) {
+        Point2D start = coordinatesAdapter.apply(edge.getNode1());
+        Point2D end = coordinatesAdapter.apply(edge.getNode2());
+        if (isFinite(start) && isFinite(end)) {
+            edgeIndex.putSegment(edge, start, end);
+        } else {
+            edgeIndex.remove(edge);
+        }
+    }
+
+    private void nodeMoved(Node node) {
+        if (!nodes.containsKey(node)) {
+            return;
+        }
+        indexNode(node);
+        for (Edge edge : node.getEdges()) {
+            if (edges.containsKey(edge)) {
+                indexEdge(edge);
+            }
+        }
+    }
+
     /**
      * removes a {@link Node} from the Graph and the Factory mapping.
      * removes any {@link Edge} from the Graph, Factory and connected Nodes that contain this node
@@ -123,6 +262,8 @@ public final class Graph {
 
         group.getChildren().remove(nodes.get(node).getFullNode());
         node.setGraph(null);
+        nodeIndex.remove(node);
+        moveListeners.remove(node);
         nodes.remove(node);                                                                                                 //remove node from graph, factory context and graph pane
         Node.in(context).remove(node);
         changed();
@@ -149,6 +290,7 @@ public final class Graph {
         }
         group.getChildren().remove(edges.get(edge).getFullNode());
         edges.remove(edge);
+        edgeIndex.remove(edge);
         node1.getEdges().remove(edge);
         node2.getEdges().remove(edge);
         Edge.in(context).remove(edge);
@@ -211,6 +353,7 @@ public final class Graph {
                     edge.setGraph(this);
                     GraphShape<Edge> shape = new Rail(edge, coordinatesAdapter);
                     edges.put(edge, shape);
+                    indexEdge(edge);
                     group.getChildren().add(shape.getFullNode());
                 }
             }
@@ -307,6 +450,7 @@ public final class Graph {
             if(edge.getGraph()==null){
                 GraphShape<Edge> EdgeShape = new Rail(edge, coordinatesAdapter);
                 edges.put(edge, EdgeShape);
+                indexEdge(edge);
                 edge.setGraph(this);
                 group.getChildren().add(EdgeShape.getFullNode());
 
@@ -316,6 +460,7 @@ public final class Graph {
         GraphShape<Node> shape = new Junction(node, coordinatesAdapter);
 
         nodes.put(node, shape);
+        indexNode(node);
         node.setGraph(this);
         group.getChildren().add(shape.getFullNode());
 
@@ -349,6 +494,7 @@ public final class Graph {
         ((Junction) shape).setMoveable(true);
 
         nodes.put(newNode, shape);
+        indexNode(newNode);
         group.getChildren().add(shape.getFullNode());
         changed();
     }
@@ -368,6 +514,7 @@ public final class Graph {
          if(edges.containsKey(newEdge)) return;
          GraphShape<Edge> shape = new Rail(newEdge, coordinatesAdapter);
          edges.put(newEdge, shape);
+         indexEdge(newEdge);
          group.getChildren().add(shape.getFullNode());
 
          changed();
@@ -390,6 +537,7 @@ public final class Graph {
         ((Junction) shape).setMoveable(true);
 
         nodes.put(newNode, shape);
+        indexNode(newNode);
         group.getChildren().add(shape.getFullNode());
         changed();
     }
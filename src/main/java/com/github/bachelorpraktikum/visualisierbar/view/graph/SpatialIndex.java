@@ -0,0 +1,402 @@
+package com.github.bachelorpraktikum.visualisierbar.view.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * <p>A uniform grid over points, rectangles and line segments, which supports range and nearest
+ * neighbour queries.</p>
+ *
+ * <p>The plane is divided into square cells of a fixed size. Each object is stored in every cell
+ * it touches. Segments are only stored in the cells they pass through, not in every cell of their
+ * bounding box, so long diagonal edges don't fill large parts of the grid.</p>
+ *
+ * <p>Queries only look at the cells around the queried area, so they take time proportional to
+ * the number of objects nearby instead of the number of all objects, if the cell size roughly
+ * matches the distance between objects.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ *
+ * @param <T> the type of the indexed objects
+ */
+@ParametersAreNonnullByDefault
+public final class SpatialIndex<T> {
+
+    /**
+     * the tolerance used for the cells of segments, relative to the cell size
+     */
+    private static final double CELL_TOLERANCE = 1e-9;
+
+    private static final class Entry<T> {
+
+        @Nonnull
+        private final T object;
+        private final double x1;
+        private final double y1;
+        private final double x2;
+        private final double y2;
+        /**
+         * whether (x1, y1) and (x2, y2) are the end points of a segment instead of the corners of
+         * a rectangle
+         */
+        private final boolean segment;
+        @Nonnull
+        private final List<Long> cells;
+        private int mark;
+
+        private Entry(T object, double x1, double y1, double x2, double y2, boolean segment) {
+            this.object = object;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.x2 = x2;
+            this.y2 = y2;
+            this.segment = segment;
+            this.cells = new ArrayList<>(segment ? 4 : 1);
+        }
+
+        double minX() {
+            return Math.min(x1, x2);
+        }
+
+        double minY() {
+            return Math.min(y1, y2);
+        }
+
+        double maxX() {
+            return Math.max(x1, x2);
+        }
+
+        double maxY() {
+            return Math.max(y1, y2);
+        }
+
+        boolean intersects(double minX, double minY, double maxX, double maxY) {
+            if (maxX() < minX || minX() > maxX || maxY() < minY || minY() > maxY) {
+                return false;
+            }
+            if (!segment) {
+                return true;
+            }
+            // clip the segment to the rectangle (Liang-Barsky)
+            double dx = x2 - x1;
+            double dy = y2 - y1;
+            double[] p = {-dx, dx, -dy, dy};
+            double[] q = {x1 - minX, maxX - x1, y1 - minY, maxY - y1};
+            double start = 0;
+            double end = 1;
+            for (int i = 0; i < 4; i++) {
+                if (p[i] == 0) {
+                    if (q[i] < 0) {
+                        return false;
+                    }
+                } else {
+                    double t = q[i] / p[i];
+                    if (p[i] < 0) {
+                        start = Math.max(start, t);
+                    } else {
+                        end = Math.min(end, t);
+                    }
+                }
+            }
+            return start <= end;
+        }
+
+        double distance(double x, double y) {
+            if (!segment) {
+                double dx = Math.max(Math.max(minX() - x, x - maxX()), 0);
+                double dy = Math.max(Math.max(minY() - y, y - maxY()), 0);
+                return Math.hypot(dx, dy);
+            }
+            double dx = x2 - x1;
+            double dy = y2 - y1;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = 0;
+            if (lengthSquared > 0) {
+                t = Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+            }
+            return Math.hypot(x1 + t * dx - x, y1 + t * dy - y);
+        }
+    }
+
+    private final double cellSize;
+    @Nonnull
+    private final Map<T, Entry<T>> entries;
+    @Nonnull
+    private final Map<Long, List<Entry<T>>> cells;
+    /**
+     * the range of cells which may contain objects
+     */
+    private int minCellX;
+    private int minCellY;
+    private int maxCellX;
+    private int maxCellY;
+    private int queryCount;
+
+    /**
+     * Creates a new, empty index.
+     *
+     * @param cellSize the side length of the cells
+     * @throws IllegalArgumentException if cellSize is not positive and finite
+     */
+    public SpatialIndex(double cellSize) {
+        if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+            throw new IllegalArgumentException("invalid cell size: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.entries = new HashMap<>();
+        this.cells = new HashMap<>();
+        this.minCellX = Integer.MAX_VALUE;
+        this.minCellY = Integer.MAX_VALUE;
+        this.maxCellX = Integer.MIN_VALUE;
+        this.maxCellY = Integer.MIN_VALUE;
+        this.queryCount = 0;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    private static void checkFinite(double... coordinates) {
+        for (double coordinate : coordinates) {
+            if (Double.isNaN(coordinate) || Double.isInfinite(coordinate)) {
+                throw new IllegalArgumentException("coordinate is not finite: " + coordinate);
+            }
+        }
+    }
+
+    /**
+     * Adds an object at a point. If the object is already in this index, it is moved.
+     *
+     * @param object the object
+     * @param point the location of the object
+     * @throws IllegalArgumentException if the coordinates are not finite
+     */
+    public void put(T object, Point2D point) {
+        put(object, point.getX(), point.getY(), point.getX(), point.getY());
+    }
+
+    /**
+     * Adds an object covering a rectangle. If the object is already in this index, it is moved.
+     *
+     * @param object the object
+     * @param bounds the area of the object
+     * @throws IllegalArgumentException if the coordinates are not finite
+     */
+    public void put(T object, Bounds bounds) {
+        put(object, bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY());
+    }
+
+    private void put(T object, double minX, double minY, double maxX, double maxY) {
+        checkFinite(minX, minY, maxX, maxY);
+        remove(object);
+        Entry<T> entry = new Entry<>(Objects.requireNonNull(object), minX, minY, maxX, maxY,
+            false);
+        for (int cellX = cell(minX); cellX <= cell(maxX); cellX++) {
+            for (int cellY = cell(minY); cellY <= cell(maxY); cellY++) {
+                add(entry, cellX, cellY);
+            }
+        }
+        entries.put(object, entry);
+    }
+
+    /**
+     * Adds an object along a line segment, like an edge. If the object is already in this index,
+     * it is moved.
+     *
+     * @param object the object
+     * @param start the start of the segment
+     * @param end the end of the segment
+     * @throws IllegalArgumentException if the coordinates are not finite
+     */
+    public void putSegment(T object, Point2D start, Point2D end) {
+        double x1 = start.getX();
+        double y1 = start.getY();
+        double x2 = end.getX();
+        double y2 = end.getY();
+        checkFinite(x1, y1, x2, y2);
+        remove(object);
+        Entry<T> entry = new Entry<>(Objects.requireNonNull(object), x1, y1, x2, y2, true);
+
+        // go through the columns of cells the segment crosses and add the cells of the part of
+        // the segment in each column
+        double tolerance = cellSize * CELL_TOLERANCE;
+        double minX = entry.minX();
+        double maxX = entry.maxX();
+        for (int cellX = cell(minX - tolerance); cellX <= cell(maxX + tolerance); cellX++) {
+            double minY = entry.minY();
+            double maxY = entry.maxY();
+            if (x1 != x2) {
+                double slope = (y2 - y1) / (x2 - x1);
+                double left = Math.max(minX, cellX * cellSize);
+                double right = Math.min(maxX, (cellX + 1) * cellSize);
+                double leftY = y1 + (left - x1) * slope;
+                double rightY = y1 + (right - x1) * slope;
+                minY = Math.max(minY, Math.min(leftY, rightY));
+                maxY = Math.min(maxY, Math.max(leftY, rightY));
+            }
+            for (int cellY = cell(minY - tolerance); cellY <= cell(maxY + tolerance); cellY++) {
+                add(entry, cellX, cellY);
+            }
+        }
+        entries.put(object, entry);
+    }
+
+    private void add(Entry<T> entry, int cellX, int cellY) {
+        long key = key(cellX, cellY);
+        cells.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry);
+        entry.cells.add(key);
+        minCellX = Math.min(minCellX, cellX);
+        minCellY = Math.min(minCellY, cellY);
+        maxCellX = Math.max(maxCellX, cellX);
+        maxCellY = Math.max(maxCellY, cellY);
+    }
+
+    /**
+     * Removes an object from this index.
+     *
+     * @param object the object
+     * @return whether the object was in this index
+     */
+    public boolean remove(Object object) {
+        Entry<T> entry = entries.remove(object);
+        if (entry == null) {
+            return false;
+        }
+        for (long key : entry.cells) {
+            List<Entry<T>> cell = cells.get(key);
+            cell.remove(entry);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(Object object) {
+        return entries.containsKey(object);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets all objects which intersect the given rectangle. Segments are only returned if the
+     * segment itself intersects the rectangle, not just its bounding box.
+     *
+     * @param bounds the rectangle
+     * @return the objects in no particular order
+     */
+    @Nonnull
+    public List<T> query(Bounds bounds) {
+        double minX = bounds.getMinX();
+        double minY = bounds.getMinY();
+        double maxX = bounds.getMaxX();
+        double maxY = bounds.getMaxY();
+        List<T> result = new ArrayList<>();
+        if (entries.isEmpty() || maxX < minX || maxY < minY) {
+            return result;
+        }
+
+        int fromX = Math.max(cell(minX), minCellX);
+        int fromY = Math.max(cell(minY), minCellY);
+        int toX = Math.min(cell(maxX), maxCellX);
+        int toY = Math.min(cell(maxY), maxCellY);
+        int mark = ++queryCount;
+        for (int cellX = fromX; cellX <= toX; cellX++) {
+            for (int cellY = fromY; cellY <= toY; cellY++) {
+                List<Entry<T>> cell = cells.get(key(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry<T> entry : cell) {
+                    // objects are in several cells, but should only be returned once
+                    if (entry.mark != mark) {
+                        entry.mark = mark;
+                        if (entry.intersects(minX, minY, maxX, maxY)) {
+                            result.add(entry.object);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the object closest to the given point. The distance of a segment is the distance to
+     * its closest point, the distance of a rectangle is 0 if it contains the point.
+     *
+     * @param point the point
+     * @param maxDistance the maximum distance of the object
+     * @return the closest object, or null if there is no object within maxDistance
+     */
+    @Nullable
+    public T nearest(Point2D point, double maxDistance) {
+        double x = point.getX();
+        double y = point.getY();
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        int centerX = cell(x);
+        int centerY = cell(y);
+        // the number of rings around the center cell which can contain objects
+        long maxRadius = Math.max(
+            Math.max((long) centerX - minCellX, (long) maxCellX - centerX),
+            Math.max((long) centerY - minCellY, (long) maxCellY - centerY));
+        double limit = Math.ceil(maxDistance / cellSize) + 1;
+        if (limit < maxRadius) {
+            maxRadius = (long) limit;
+        }
+
+        Entry<T> best = null;
+        double bestDistance = maxDistance;
+        int mark = ++queryCount;
+        for (long radius = 0; radius <= maxRadius; radius++) {
+            // all cells of this ring are at least this far away from the point
+            if (best != null && (radius - 1) * cellSize > bestDistance) {
+                break;
+            }
+            for (long cellX = centerX - radius; cellX <= centerX + radius; cellX++) {
+                boolean edgeColumn = cellX == centerX - radius || cellX == centerX + radius;
+                // only the top and bottom cell of the inner columns belong to the ring
+                long step = edgeColumn ? 1 : 2 * radius;
+                for (long cellY = centerY - radius; cellY <= centerY + radius; cellY += step) {
+                    if (cellX < minCellX || cellX > maxCellX
+                        || cellY < minCellY || cellY > maxCellY) {
+                        continue;
+                    }
+                    List<Entry<T>> cell = cells.get(key((int) cellX, (int) cellY));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Entry<T> entry : cell) {
+                        if (entry.mark == mark) {
+                            continue;
+                        }
+                        entry.mark = mark;
+                        double distance = entry.distance(x, y);
+                        if (best == null ? distance <= bestDistance : distance < bestDistance) {
+                            best = entry;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return best == null ? null : best.object;
+    }
+}
@@ -4,12 +4,17 @@ import com.github.bachelorpraktikum.visualisierbar.model.Context;
 import com.github.bachelorpraktikum.visualisierbar.model.Coordinates;
 import com.github.bachelorpraktikum.visualisierbar.model.Edge;
 import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import com.github.bachelorpraktikum.visualisierbar.view.graph.SpatialIndex;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import javafx.geometry.BoundingBox;
 import javafx.geometry.Point2D;
 import javax.annotation.Nonnull;
 
@@ -26,6 +31,15 @@ public final class ProportionalCoordinatesAdapter implements CoordinatesAdapter
     private HashMap<Node, Point2D> transformationMap = new HashMap<>();
     private LinkedList<GraphSegment> segments = new LinkedList<>();
     private final static double MOVING_DISTANCE = 1.5;
+    /**
+     * the cell size of the index of edges. The shortest edge has length 1.
+     */
+    private final static double EDGE_INDEX_CELL_SIZE = 4;
+    /**
+     * Rounding errors can make a node which is slightly off an edge count as on the edge. This is
+     * the distance such a node can have, relative to its coordinates.
+     */
+    private final static double ON_EDGE_MARGIN = 1e-6;
 
 
     public ProportionalCoordinatesAdapter(Context context) {
@@ -50,7 +64,7 @@ public final class ProportionalCoordinatesAdapter implements CoordinatesAdapter
                 if (c1.getX() == c2.getX()) {
                     return Integer.compare(c1.getY(), c2.getY());
                 } else {
-                    return Integer.compare(c1.getX(), c2.getY());
+                    return Integer.compare(c1.getX(), c2.getX());
                 }
             })
             .findFirst().orElseThrow(IllegalStateException::new);
@@ -72,66 +86,67 @@ public final class ProportionalCoordinatesAdapter implements CoordinatesAdapter
     /**
      * Finds and fixes Nodes overlapping with other Edges
      *
+     * <p>Nodes with the same transformation vector are found by grouping the nodes by their
+     * vector, and the edges a node may lie on are found in a {@link SpatialIndex}, instead of
+     * comparing all pairs. The nodes are moved in the same order as comparing all pairs would.</p>
+     *
      * @return true if a collision was found and fixed, false otherwise.
      */
     private boolean removeSingleNodeCollisions() {
         boolean foundCollisions = false;
         // first find overlapping nodes and replace their transformation vectors
-        for (Map.Entry<Node, Point2D> entry : transformationMap.entrySet()) {
-            for (Map.Entry<Node, Point2D> entry2 : transformationMap.entrySet()) {
-                if (entry.getValue().equals(entry2.getValue()) &&
-                    !entry.getKey().equals(entry2.getKey())) {
-                    // same transformation Vector but different Nodes
-                    Node node = entry2.getKey();
-                    Edge edge = null;
-                    Point2D edgeVec = null;
-                    // look for an edge that will serve as a vector to move the node
-                    for (Edge e : node.getEdges()) {
-                        double p1X = this.apply(e.getNode1()).getX();
-                        double p1Y = this.apply(e.getNode1()).getY();
-                        double p2X = this.apply(e.getNode2()).getX();
-                        double p2Y = this.apply(e.getNode2()).getY();
-                        double dx = (p1X > p2X) ? p2X - p1X : p1X - p2X;
-                        double dy = (p1Y > p2Y) ? p2Y - p1Y : p1Y - p2Y;
-                        Point2D eVec = new Point2D(dx, dy);
-                        // prefer vertical edges
-                        if (eVec.getY() == 0) {
-                            edge = e;
-                            edgeVec = eVec.normalize();
-                            continue;
-                        }
-                        // horizontal edges used if no better edge is found
-                        if (eVec.getY() == 0 && edge == null) {
-                            edge = e;
-                            edgeVec = eVec.normalize();
-                            continue;
-                        }
-                        edge = e;
-                        edgeVec = eVec.normalize();
-                    }
-                    Point2D oldVec = entry2.getValue();
-                    Point2D newVec = oldVec.add(edgeVec.multiply(MOVING_DISTANCE));
-                    transformationMap.replace(node, newVec);
-                    foundCollisions = true;
-                }
+        List<Node> order = new ArrayList<>(transformationMap.keySet());
+        Map<Node, Integer> positions = new HashMap<>();
+        Map<Point2D, List<Node>> nodesByVector = new HashMap<>();
+        for (Node node : order) {
+            positions.put(node, positions.size());
+            nodesByVector.computeIfAbsent(vectorKey(transformationMap.get(node)),
+                vector -> new ArrayList<>(1)).add(node);
+        }
+        for (Node current : order) {
+            List<Node> sameVector = nodesByVector.get(vectorKey(transformationMap.get(current)));
+            if (sameVector == null || sameVector.size() < 2) {
+                continue;
+            }
+            // same transformation Vector but different Nodes
+            List<Node> others = new ArrayList<>(sameVector);
+            others.remove(current);
+            others.sort(Comparator.comparing(positions::get));
+            for (Node node : others) {
+                Point2D oldVec = transformationMap.get(node);
+                Point2D newVec = oldVec.add(findMovingVector(node).multiply(MOVING_DISTANCE));
+                transformationMap.replace(node, newVec);
+                nodesByVector.get(vectorKey(oldVec)).remove(node);
+                nodesByVector.computeIfAbsent(vectorKey(newVec), vector -> new ArrayList<>(1))
+                    .add(node);
+                foundCollisions = true;
             }
         }
 
         // find nodes that lie on other edges and move them
+        SpatialIndex<Edge> edgeIndex = new SpatialIndex<>(EDGE_INDEX_CELL_SIZE);
+        Map<Edge, Integer> edgeOrder = new HashMap<>();
+        for (Edge edge : Edge.in(context).getAll()) {
+            edgeOrder.put(edge, edgeOrder.size());
+            indexEdge(edgeIndex, edge);
+        }
         for (Node node : Node.in(context).getAll()) {
             Point2D nodePoint = this.apply(node);
+            if (!isFinite(nodePoint)) {
+                continue;
+            }
 
-            for (Edge edge : Edge.in(context).getAll()) {
+            double margin = ON_EDGE_MARGIN
+                * (1 + Math.max(Math.abs(nodePoint.getX()), Math.abs(nodePoint.getY())));
+            List<Edge> edges = edgeIndex.query(new BoundingBox(nodePoint.getX() - margin,
+                nodePoint.getY() - margin, 2 * margin, 2 * margin));
+            edges.sort(Comparator.comparing(edgeOrder::get));
+            boolean moved = false;
+            for (Edge edge : edges) {
                 // check if the current node should be part
                 // of the current edge and continue with another edge
                 // if that is the case
-                boolean isNodeEdge = false;
-                for (Edge nodeEdge : node.getEdges()) {
-                    if (nodeEdge.equals(edge)) {
-                        isNodeEdge = true;
-                    }
-                }
-                if (isNodeEdge) {
+                if (node.getEdges().contains(edge)) {
                     continue;
                 }
 
@@ -154,6 +169,14 @@ public final class ProportionalCoordinatesAdapter implements CoordinatesAdapter
                     Point2D newVec = oldVec.add(edgeNormal.multiply(MOVING_DISTANCE));
                     transformationMap.replace(node, newVec);
                     foundCollisions = true;
+                    moved = true;
+                }
+            }
+            if (moved) {
+                for (Edge edge : node.getEdges()) {
+                    if (edgeOrder.containsKey(edge)) {
+                        indexEdge(edgeIndex, edge);
+                    }
                 }
             }
         }
@@ -161,6 +184,70 @@ public final class ProportionalCoordinatesAdapter implements CoordinatesAdapter
         return foundCollisions;
     }
 
+    /**
+     * Finds the direction in which a node is moved if another node has the same transformation
+     * vector.
+     *
+     * @param node the node to move
+     * @return the normalized direction of one of the edges of the node
+     */
+    private Point2D findMovingVector(Node node) {
+        Edge edge = null;
+        Point2D edgeVec = null;
+        // look for an edge that will serve as a vector to move the node
+        for (Edge e : node.getEdges()) {
+            double p1X = this.apply(e.getNode1()).getX();
+            double p1Y = this.apply(e.getNode1()).getY();
+            double p2X = this.apply(e.getNode2()).getX();
+            double p2Y = this.apply(e.getNode2()).getY();
+            double dx = (p1X > p2X) ? p2X - p1X : p1X - p2X;
+            double dy = (p1Y > p2Y) ? p2Y - p1Y : p1Y - p2Y;
+            Point2D eVec = new Point2D(dx, dy);
+            // prefer vertical edges
+            if (eVec.getY() == 0) {
+                edge = e;
+                edgeVec = eVec.normalize();
+                continue;
+            }
+            // horizontal edges used if no better edge is found
+            if (eVec.getY() == 0 && edge == null) {
+                edge = e;
+                edgeVec = eVec.normalize();
+                continue;
+            }
+            edge = e;
+            edgeVec = eVec.normalize();
+        }
+        return edgeVec;
+    }
+
+    /**
+     * Gets the key of a transformation vector in a hash map. Point2D considers 0 and -0 equal,
+     * but gives them different hash codes.
+     */
+    private static Point2D vectorKey(Point2D vector) {
+        return new Point2D(vector.getX() + 0.0, vector.getY() + 0.0);
+    }
+
+    private static boolean isFinite(Point2D point) {
+        return !Double.isNaN(point.getX()) && !Double.isInfinite(point.getX())
+            && !Double.isNaN(point.getY()) && !Double.isInfinite(point.getY());
+    }
+
+    /**
+     * Adds an edge to the index, widened by the margin around nodes which are tested for lying
+     * on the edge. Edges with points which aren't finite can't have a node on them.
+     */
+    private void indexEdge(SpatialIndex<Edge> edgeIndex, Edge edge) {
+        Point2D edgeP1 = this.apply(edge.getNode1());
+        Point2D edgeP2 = this.apply(edge.getNode2());
+        if (isFinite(edgeP1) && isFinite(edgeP2)) {
+            edgeIndex.putSegment(edge, edgeP1, edgeP2);
+        } else {
+            edgeIndex.remove(edge);
+        }
+    }
+
     /**
      * Tries to move segments of straight edges to remove overlapping nodes
      * and edges.
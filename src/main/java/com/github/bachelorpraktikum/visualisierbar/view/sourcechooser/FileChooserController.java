@@ -10,6 +10,7 @@ import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.value.ObservableBooleanValue;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
@@ -28,6 +29,8 @@ public class FileChooserController implements SourceChooser<FileSource> {
 
     @FXML
     private Button explorerButton;
+    @FXML
+    private CheckBox followCheckBox;
     private FileChooser fileChooser;
 
     private ReadOnlyObjectWrapper<URI> fileUriProperty;
@@ -92,7 +95,8 @@ public class FileChooserController implements SourceChooser<FileSource> {
     @Nonnull
     @Override
     public FileSource getResource() throws IOException {
-        return new FileSource(new File(fileUriProperty.get().toURL().getFile()));
+        return new FileSource(new File(fileUriProperty.get().toURL().getFile()),
+            followCheckBox.isSelected());
     }
 
     @Nonnull
@@ -4,20 +4,19 @@ import com.github.bachelorpraktikum.visualisierbar.config.ConfigFile;
 import com.github.bachelorpraktikum.visualisierbar.model.Context;
 import com.github.bachelorpraktikum.visualisierbar.model.Node;
 import com.github.bachelorpraktikum.visualisierbar.model.train.Train;
+import com.github.bachelorpraktikum.visualisierbar.model.train.TrainStateView;
 import com.github.bachelorpraktikum.visualisierbar.view.DataSourceHolder;
 import com.github.bachelorpraktikum.visualisierbar.view.Highlightable;
 import com.github.bachelorpraktikum.visualisierbar.view.TooltipUtil;
 import com.github.bachelorpraktikum.visualisierbar.view.graph.Graph;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.function.Function;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.value.ObservableBooleanValue;
+import javafx.collections.ObservableList;
 import javafx.event.EventHandler;
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
@@ -38,11 +37,14 @@ public final class TrainView implements Highlightable {
     private static final double HIGHLIGHT_FACTOR = 0.6;
 
     private final Train train;
-    private final IntegerProperty timeProperty;
+    private final LongProperty timeProperty;
     private final Function<Node, Point2D> coordinatesTranslator;
     private final Path path;
     private final Rectangle highlightRectangle;
     private BooleanProperty highlightedProperty;
+    // reused for every update, so playback doesn't allocate
+    private final TrainStateView state;
+    private double[] points;
 
     private static final Paint[] COLORS = ConfigFile.getInstance().getTrainColors();
 
@@ -50,8 +52,10 @@ public final class TrainView implements Highlightable {
         this.train = train;
         this.coordinatesTranslator = (a)->graph.getCoordinatesAdapter().apply(a);
         double calibrationBase = graph.getCoordinatesAdapter().getCalibrationBase();
-        this.timeProperty = new SimpleIntegerProperty(0);
+        this.timeProperty = new SimpleLongProperty(0);
         this.highlightedProperty = new SimpleBooleanProperty(false);
+        this.state = new TrainStateView();
+        this.points = new double[8];
 
         this.highlightRectangle = new Rectangle();
         highlightRectangle.setFill(Color.TRANSPARENT);
@@ -76,7 +80,7 @@ public final class TrainView implements Highlightable {
         path.visibleProperty().bind(visibleBinding);
 
         timeProperty.addListener((observable, oldValue, newValue) ->
-            updateTrain(newValue.intValue())
+            updateTrain(newValue.longValue())
         );
         updateTrain(0);
 
@@ -91,33 +95,24 @@ public final class TrainView implements Highlightable {
         return train;
     }
 
-    public IntegerProperty timeProperty() {
+    public LongProperty timeProperty() {
         return timeProperty;
     }
 
-    private void updateTrain(int time) {
-        path.getElements().clear();
-        Train.State state = train.getState(time);
+    private void updateTrain(long time) {
+        train.sampleInto(time, state);
         if (!state.isInitialized()) {
+            path.getElements().clear();
             highlightRectangle.setStroke(Color.TRANSPARENT);
             return;
         } else {
             highlightRectangle.setStroke(Color.BLUE);
         }
-        Train.Position trainPosition = state.getPosition();
-        List<Point2D> points = trainPosition.getPositions(coordinatesTranslator);
-        List<PathElement> elements = new LinkedList<>();
-
-        Iterator<Point2D> iterator = points.iterator();
-        Point2D start = iterator.next();
-        elements.add(new MoveTo(start.getX(), start.getY()));
-
-        while (iterator.hasNext()) {
-            Point2D point = iterator.next();
-            elements.add(new LineTo(point.getX(), point.getY()));
+        if (points.length < 2 * (state.getEdgeCount() + 1)) {
+            points = new double[4 * (state.getEdgeCount() + 1)];
         }
-
-        path.getElements().addAll(elements);
+        int count = state.getPoints(coordinatesTranslator, points);
+        updateElements(count);
 
         if (state.isTerminated()) {
             path.setStroke(Color.GRAY);
@@ -134,6 +129,34 @@ public final class TrainView implements Highlightable {
         highlightRectangle.setHeight(height);
     }
 
+    /**
+     * Moves the path elements to the given number of points, reusing the existing elements.
+     */
+    private void updateElements(int count) {
+        ObservableList<PathElement> elements = path.getElements();
+        if (elements.size() > count) {
+            elements.remove(count, elements.size());
+        }
+        for (int i = 0; i < count; i++) {
+            double x = points[2 * i];
+            double y = points[2 * i + 1];
+            if (i < elements.size()) {
+                PathElement element = elements.get(i);
+                if (i == 0) {
+                    ((MoveTo) element).setX(x);
+                    ((MoveTo) element).setY(y);
+                } else {
+                    ((LineTo) element).setX(x);
+                    ((LineTo) element).setY(y);
+                }
+            } else if (i == 0) {
+                elements.add(new MoveTo(x, y));
+            } else {
+                elements.add(new LineTo(x, y));
+            }
+        }
+    }
+
     @Override
     public BooleanProperty highlightedProperty() {
         return highlightedProperty;
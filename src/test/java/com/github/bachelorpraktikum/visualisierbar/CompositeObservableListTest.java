@@ -0,0 +1,115 @@
+package com.github.bachelorpraktikum.visualisierbar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.Test;
+
+public class CompositeObservableListTest {
+
+    private static List<ObservableList<Integer>> createLists(Random random, int count) {
+        List<ObservableList<Integer>> lists = new ArrayList<>();
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            ObservableList<Integer> list = FXCollections.observableArrayList();
+            // some lists are empty
+            int size = random.nextInt(3) * random.nextInt(10);
+            for (int j = 0; j < size; j++) {
+                list.add(value++);
+            }
+            lists.add(list);
+        }
+        return lists;
+    }
+
+    private static List<Integer> concatenation(List<ObservableList<Integer>> lists) {
+        List<Integer> result = new ArrayList<>();
+        lists.forEach(result::addAll);
+        return result;
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(new CompositeObservableList<Integer>().isEmpty());
+        assertTrue(CompositeObservableList.of(new ArrayList<ObservableList<Integer>>()).isEmpty());
+    }
+
+    @Test
+    public void testGet() {
+        List<ObservableList<Integer>> lists = createLists(new Random(42), 100);
+        assertEquals(concatenation(lists), CompositeObservableList.of(lists));
+    }
+
+    @Test
+    public void testUnion() {
+        List<ObservableList<Integer>> lists = createLists(new Random(42), 10);
+        CompositeObservableList<Integer> composite = new CompositeObservableList<>();
+        for (ObservableList<Integer> list : lists) {
+            composite = composite.union(list);
+        }
+        assertEquals(concatenation(lists), composite);
+    }
+
+    @Test
+    public void testChangesRemapped() {
+        Random random = new Random(42);
+        List<ObservableList<Integer>> lists = createLists(random, 50);
+        CompositeObservableList<Integer> composite = CompositeObservableList.of(lists);
+
+        // applies all changes to a copy, which has to end up equal to the composite list
+        List<Integer> copy = new ArrayList<>(composite);
+        composite.addListener((ListChangeListener<Integer>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated()) {
+                    List<Integer> permuted = new ArrayList<>(copy);
+                    for (int i = change.getFrom(); i < change.getTo(); i++) {
+                        permuted.set(change.getPermutation(i), copy.get(i));
+                    }
+                    copy.clear();
+                    copy.addAll(permuted);
+                    continue;
+                }
+                if (change.wasRemoved()) {
+                    copy.subList(change.getFrom(), change.getFrom() + change.getRemovedSize())
+                        .clear();
+                }
+                if (change.wasAdded()) {
+                    copy.addAll(change.getFrom(), change.getAddedSubList());
+                }
+            }
+        });
+
+        for (int i = 0; i < 500; i++) {
+            ObservableList<Integer> list = lists.get(random.nextInt(lists.size()));
+            switch (random.nextInt(4)) {
+                case 0:
+                    list.add(random.nextInt(list.size() + 1), -i);
+                    break;
+                case 1:
+                    if (!list.isEmpty()) {
+                        list.remove(random.nextInt(list.size()));
+                    }
+                    break;
+                case 2:
+                    list.addAll(Arrays.asList(i, i + 1));
+                    break;
+                default:
+                    FXCollections.sort(list);
+            }
+            assertEquals(concatenation(lists), composite);
+            assertEquals(composite, copy);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAdd() {
+        new CompositeObservableList<Integer>().add(1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.bachelorpraktikum.visualisierbar.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import com.github.bachelorpraktikum.visualisierbar.model.train.Train;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BooleanSupplier;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileSourceTest {
+
+    private static final long TIMEOUT = 10000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void append(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                throw new AssertionError("timed out");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testNotFollowing() throws IOException {
+        File log = folder.newFile("log.zug");
+        append(log, "NODE;n1;0;0\n");
+        try (FileSource source = new FileSource(log)) {
+            assertFalse(source.isFollowing());
+            assertTrue(Node.in(source.getContext()).NameExists("n1"));
+        }
+    }
+
+    @Test
+    public void testFollowAppendedLines() throws IOException, InterruptedException {
+        File log = folder.newFile("log.zug");
+        append(log, "NODE;n1;0;0\nNODE;n2;0;10\nNO");
+
+        FileSource source = new FileSource(log, true, Runnable::run);
+        Context context = source.getContext();
+        try {
+            assertTrue(source.isFollowing());
+            assertEquals(2, Node.in(context).getAll().size());
+
+            // completes the partial line
+            append(log, "DE;n3;0;20\nEDGE;e1;n1;n2;10\nZUG;t1;z1;5\n");
+            await(() -> Train.in(context).NameExists("t1"));
+            assertEquals(3, Node.in(context).getAll().size());
+            assertEquals(1, Edge.in(context).getAll().size());
+
+            append(log, "MV;INIT;t1;0;e1\r\nMV;SPEED;t1;1;5;10\n");
+            await(() -> Train.in(context).get("t1").getEvents().size() == 3);
+        } finally {
+            source.close();
+        }
+        await(() -> !source.isFollowing());
+    }
+}
@@ -0,0 +1,218 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Element.State;
+import com.github.bachelorpraktikum.visualisierbar.model.SymbolTable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventLineScannerTest {
+
+    private SymbolTable symbols;
+    private EventLineScanner scanner;
+    private List<String> scanned;
+
+    @Before
+    public void init() {
+        symbols = new SymbolTable();
+        scanner = new EventLineScanner(symbols);
+        scanned = new ArrayList<>();
+    }
+
+    private boolean scan(String line) {
+        return scanner.scan(line, new Recorder(scanned));
+    }
+
+    private List<String> parseWithAntlr(String line) {
+        List<String> result = new ArrayList<>();
+        LogLexer lexer = new LogLexer(new ANTLRInputStream(line + '\n'));
+        lexer.removeErrorListeners();
+        LogParser parser = new LogParser(new CommonTokenStream(lexer));
+        parser.removeErrorListeners();
+        new ParseTreeWalker().walk(new EventLineListener(symbols, new Recorder(result)), parser.start());
+        return result;
+    }
+
+    @Test
+    public void testParityWithAntlr() throws IOException {
+        int handled = 0;
+        try (DirectoryStream<Path> files = Files
+            .newDirectoryStream(Paths.get("src/test/resources"), "test*.zug*")) {
+            for (Path file : files) {
+                for (String line : Files.readAllLines(file)) {
+                    scanned.clear();
+                    if (scan(line)) {
+                        handled++;
+                        assertEquals(line, parseWithAntlr(line), scanned);
+                    } else {
+                        assertTrue(line, scanned.isEmpty());
+                    }
+                }
+            }
+        }
+        assertTrue(handled > 0);
+    }
+
+    private void assertParity(String line) {
+        scanned.clear();
+        assertTrue(line, scan(line));
+        assertEquals(line, parseWithAntlr(line), scanned);
+    }
+
+    @Test
+    public void testMove() {
+        assertParity("MV;INIT;t1;61901/200;e1");
+        assertParity("MV;SPEED;t1;5;100");
+        assertParity("MV;SPEED;t1;5;100;30");
+        assertParity("MV;REACHSTART;t1;6;e2;110");
+        assertParity("MV;LEAVES;t1;7;e1;120");
+        assertParity("MV;TERM;t1;8;130");
+    }
+
+    @Test
+    public void testChange() {
+        assertTrue(scan("CH;TrackElements.Signal:<0.150.0>;FAHRT;3/2"));
+        assertEquals("change|CH;TrackElements.Signal:<0.150.0>;FAHRT;1500000", scanned.get(0));
+        assertParity("CH;e1;NOSIG;2147483");
+    }
+
+    @Test
+    public void testTimeInMicroseconds() {
+        assertTrue(scan("CH;e1;STOP;1/3000"));
+        assertEquals("change|CH;e1;STOP;333", scanned.get(0));
+        // more milliseconds than fit into an int
+        assertParity("CH;e1;STOP;4000000");
+        assertParity("MV;SPEED;t1;8000000001/2;100");
+    }
+
+    @Test
+    public void testMessage() {
+        assertParity("MSG;<0.45.0>:class_Graph_NodeImpl;21559/200;Hello there");
+    }
+
+    @Test
+    public void testRejectsDeclarations() {
+        assertFalse(scan("NODE;n1;0;0"));
+        assertFalse(scan("EDGE;e1;n1;n2;10"));
+        assertFalse(scan("ELEM;TrackElements.Signal:<0.150.0>;n1;STOP"));
+        assertFalse(scan("ZUG;t1;z1;100"));
+        assertFalse(scan("DATA;z1;5 30;Time(5)"));
+        assertTrue(scanned.isEmpty());
+    }
+
+    @Test
+    public void testRejectsMalformed() {
+        assertFalse(scan(""));
+        assertFalse(scan("MV"));
+        assertFalse(scan("MV;SPEED;t1;5"));
+        assertFalse(scan("MV;SPEED;t1;5;100;"));
+        assertFalse(scan("MV;SPEED;;5;100"));
+        assertFalse(scan("MV;SPEED;t1;5;100 "));
+        assertFalse(scan("MV;TERM;t1;5/0;100"));
+        assertFalse(scan("MV;TERM;t1;5;99999999999"));
+        assertFalse(scan("MV;TERM;t1;99999999999999;5"));
+        assertFalse(scan("MV;TERM;t1;1/99999999999999;5"));
+        assertFalse(scan("CH;e1;STOPP;5"));
+        assertFalse(scan("CH;e1;stop;5"));
+        assertFalse(scan("CH;e-1;STOP;5"));
+        assertFalse(scan("MSG;n1;5;"));
+        assertTrue(scanned.isEmpty());
+    }
+
+    @Test
+    public void testNamesInterned() {
+        List<Integer> trains = new ArrayList<>();
+        EventLineScanner.EventHandler handler = new Recorder(new ArrayList<>()) {
+            @Override
+            public void terminate(int train, long time, int distance) {
+                trains.add(train);
+            }
+        };
+        scanner.scan(new StringBuilder("MV;TERM;t1;5;100"), handler);
+        scanner.scan(new StringBuilder("MV;TERM;t1;6;100"), handler);
+        scanner.scan(new StringBuilder("MV;TERM;t2;6;100"), handler);
+        assertEquals(3, trains.size());
+        assertEquals(trains.get(0), trains.get(1));
+        assertNotEquals(trains.get(0), trains.get(2));
+        assertEquals("t1", symbols.getName(trains.get(0)));
+    }
+
+    /**
+     * Records each event as a String in a line-like format.
+     */
+    private class Recorder implements EventLineScanner.EventHandler {
+
+        private final List<String> events;
+
+        Recorder(List<String> events) {
+            this.events = events;
+        }
+
+        private void record(String kind, Object... fields) {
+            StringBuilder builder = new StringBuilder(kind).append('|');
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    builder.append(';');
+                }
+                builder.append(fields[i]);
+            }
+            events.add(builder.toString());
+        }
+
+        @Override
+        public void init(int train, long time, int edge) {
+            record("init", "MV", "INIT", symbols.getName(train), time, symbols.getName(edge));
+        }
+
+        @Override
+        public void move(int train, long time, int distance) {
+            record("move", "MV", "SPEED", symbols.getName(train), time, distance);
+        }
+
+        @Override
+        public void speed(int train, long time, int distance, int speed) {
+            record("speed", "MV", "SPEED", symbols.getName(train), time, distance, speed);
+        }
+
+        @Override
+        public void reach(int train, long time, int edge, int distance) {
+            record("reach", "MV", "REACHSTART", symbols.getName(train), time, symbols.getName(edge),
+                distance);
+        }
+
+        @Override
+        public void leave(int train, long time, int edge, int distance) {
+            record("leave", "MV", "LEAVES", symbols.getName(train), time, symbols.getName(edge),
+                distance);
+        }
+
+        @Override
+        public void terminate(int train, long time, int distance) {
+            record("terminate", "MV", "TERM", symbols.getName(train), time, distance);
+        }
+
+        @Override
+        public void change(int element, State state, long time) {
+            record("change", "CH", symbols.getName(element), state, time);
+        }
+
+        @Override
+        public void message(int node, long time, String text) {
+            record("message", "MSG", symbols.getName(node), time, text);
+        }
+    }
+}
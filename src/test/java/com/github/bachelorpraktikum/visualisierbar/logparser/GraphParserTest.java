@@ -1,13 +1,43 @@
 package com.github.bachelorpraktikum.visualisierbar.logparser;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import com.github.bachelorpraktikum.visualisierbar.model.Element;
+import com.github.bachelorpraktikum.visualisierbar.model.Event;
+import com.github.bachelorpraktikum.visualisierbar.model.LogicalGroup;
+import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import com.github.bachelorpraktikum.visualisierbar.model.SymbolTable;
+import com.github.bachelorpraktikum.visualisierbar.model.train.Train;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class GraphParserTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testLog1() throws IOException {
         Context context = new GraphParser().parse("src/test/resources/test.zug.clean");
@@ -73,4 +103,227 @@ public class GraphParserTest {
         Context context = new GraphParser().parse("src/test/resources/test10.zug.clean");
         assertNotNull(context);
     }
+
+    private void assertSameContent(Context expected, Context actual) {
+        assertEquals(Node.in(expected).getAll().size(), Node.in(actual).getAll().size());
+        assertEquals(Edge.in(expected).getAll().size(), Edge.in(actual).getAll().size());
+        assertEquals(Element.in(expected).getAll().size(), Element.in(actual).getAll().size());
+        assertEquals(Train.in(expected).getAll().size(), Train.in(actual).getAll().size());
+
+        List<Event> expectedEvents = expected.getObservableEvents();
+        List<Event> actualEvents = actual.getObservableEvents();
+        assertEquals(expectedEvents.size(), actualEvents.size());
+        for (int i = 0; i < expectedEvents.size(); i++) {
+            assertEquals(expectedEvents.get(i).getTime(), actualEvents.get(i).getTime());
+            assertEquals(expectedEvents.get(i).getDescription(),
+                actualEvents.get(i).getDescription());
+        }
+    }
+
+    @Test
+    public void testStreamingSameAsFull() throws IOException {
+        String[] files = {"test.zug.clean", "test5.zug.clean", "test6.zug", "test6MSG.zug",
+            "test10.zug.clean"};
+        for (String file : files) {
+            String path = "src/test/resources/" + file;
+            assertSameContent(new GraphParser().parse(path),
+                new GraphParser().parseStreaming(path));
+        }
+    }
+
+    @Test
+    public void testParallelSameAsFull() throws IOException {
+        String[] files = {"test.zug.clean", "test5.zug.clean", "test6.zug", "test6MSG.zug",
+            "test10.zug.clean"};
+        for (String file : files) {
+            String path = "src/test/resources/" + file;
+            assertSameContent(new GraphParser().parse(path),
+                new GraphParser().parseParallel(path));
+        }
+    }
+
+    @Test
+    public void testParallelEventBeforeDeclaration() throws IOException {
+        String log = "NODE;n1;0;0\nNODE;n2;0;10\nEDGE;e1;n1;n2;10\nMV;INIT;t1;0;e1\n"
+            + "MV;SPEED;t1;1;5;10\nZUG;t1;z1;5\n";
+        Context context = new GraphParser().parseParallel(
+            new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)), new Context()
+        );
+
+        assertEquals(3, Train.in(context).get("t1").getEvents().size());
+    }
+
+    @Test
+    public void testForwardReferences() throws IOException {
+        String log = "NODE;n1;0;0\nNODE;n2;0;10\nEDGE;e1;n1;n2;10\nTOWARDS;hs1;e1;60\n"
+            + "GROUP;SIGNAL;g1;sw1;hs1;m1;\nALSO;hs1;sw1\nELEM;hs1;n1;STOP\n"
+            + "GROUP;GENERIC;g2;sw2;m1;\nELEM;m1;n2;STOP\nALSO;m1;sw2\n";
+        Context context = new GraphParser().parseStreaming(
+            new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8))
+        );
+
+        Element hs1 = Element.in(context).get("hs1");
+        Element m1 = Element.in(context).get("m1");
+        LogicalGroup g1 = LogicalGroup.in(context).get("g1");
+        LogicalGroup g2 = LogicalGroup.in(context).get("g2");
+        assertSame(Node.in(context).get("n2"), hs1.getDirection());
+        assertEquals(Arrays.asList(hs1, m1), g1.getElements());
+        assertEquals(Collections.singletonList(m1), g2.getElements());
+        assertSame(g1, hs1.getLogicalGroup());
+        assertSame(g2, m1.getLogicalGroup());
+        assertSame(hs1, g1.getBelongsTo());
+        assertSame(m1, g2.getBelongsTo());
+    }
+
+    /**
+     * Asserts that the snapshot of the given log is valid and contains the expected content.
+     */
+    private void assertSnapshotValid(Context expected, File log) throws IOException {
+        Context context = new Context();
+        assertTrue(ContextSnapshot.replay(log, SymbolTable.in(context),
+            new ModelDeclarationHandler(context), new ModelEventHandler(context)));
+        assertSameContent(expected, context);
+    }
+
+    @Test
+    public void testCachedSameAsFull() throws IOException {
+        File log = folder.newFile("test10.zug");
+        Files.copy(Paths.get("src/test/resources/test10.zug.clean"), log.toPath(),
+            StandardCopyOption.REPLACE_EXISTING);
+        Context expected = new GraphParser().parse(log.getPath());
+
+        assertSameContent(expected, new GraphParser().parseCached(log.getPath()));
+        assertTrue(ContextSnapshot.getFile(log).isFile());
+        assertSnapshotValid(expected, log);
+        // second time, the snapshot is used
+        assertSameContent(expected, new GraphParser().parseCached(log.getPath()));
+    }
+
+    @Test
+    public void testCachedLogChanged() throws IOException {
+        File log = folder.newFile("test.zug");
+        String content = "NODE;n1;0;0\nNODE;n2;0;10\n";
+        Files.write(log.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        new GraphParser().parseCached(log.getPath());
+
+        // same size, same modification time, different content
+        long lastModified = log.lastModified();
+        Files.write(log.toPath(), content.replace("n2", "n3").getBytes(StandardCharsets.UTF_8));
+        assertTrue(log.setLastModified(lastModified));
+
+        Context context = new GraphParser().parseCached(log.getPath());
+        assertTrue(Node.in(context).NameExists("n3"));
+        assertFalse(Node.in(context).NameExists("n2"));
+    }
+
+    @Test
+    public void testCachedLargeLogChanged() throws IOException {
+        // padded with empty lines, so the file is larger than the checksummed head and tail
+        byte[] log = Files.readAllBytes(Paths.get("src/test/resources/test10.zug.clean"));
+        byte[] content = Arrays.copyOf(log, log.length + 2 * ContextSnapshot.CHECKSUM_SAMPLE_SIZE);
+        Arrays.fill(content, log.length, content.length, (byte) '\n');
+        File file = folder.newFile("large.zug");
+        Files.write(file.toPath(), content);
+        Context expected = new GraphParser().parse(file.getPath());
+        assertSameContent(expected, new GraphParser().parseCached(file.getPath()));
+        assertSnapshotValid(expected, file);
+
+        // same size, same modification time, a line at the end
+        long lastModified = file.lastModified();
+        byte[] line = "NODE;n99;0;0\n".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(line, 0, content, content.length - line.length, line.length);
+        Files.write(file.toPath(), content);
+        assertTrue(file.setLastModified(lastModified));
+
+        Context context = new GraphParser().parseCached(file.getPath());
+        assertTrue(Node.in(context).NameExists("n99"));
+    }
+
+    @Test
+    public void testCompressedSameAsPlain() throws IOException {
+        String path = "src/test/resources/test10.zug.clean";
+        File gzip = folder.newFile("test10.zug.gz");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(gzip))) {
+            Files.copy(Paths.get(path), out);
+        }
+        File zip = folder.newFile("test10.zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("test10.zug"));
+            Files.copy(Paths.get(path), out);
+        }
+        Context expected = new GraphParser().parse(path);
+
+        for (File file : Arrays.asList(gzip, zip)) {
+            assertSameContent(expected, new GraphParser().parse(file.getPath()));
+            assertSameContent(expected, new GraphParser().parseStreaming(file.getPath()));
+            assertSameContent(expected, new GraphParser().parseParallel(file.getPath()));
+            assertSameContent(expected, new GraphParser().parseCached(file.getPath()));
+            assertSameContent(expected, new GraphParser().parseCached(file.getPath()));
+        }
+    }
+
+    @Test
+    public void testCachedZip() throws IOException {
+        String path = "src/test/resources/test10.zug.clean";
+        File zip = folder.newFile("test10.zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("test10.zug"));
+            Files.copy(Paths.get(path), out);
+            // the parser only reads the first entry, but the rest is part of the file as well
+            out.putNextEntry(new ZipEntry("readme.txt"));
+            out.write("not a log".getBytes(StandardCharsets.UTF_8));
+        }
+        Context expected = new GraphParser().parse(path);
+
+        assertSameContent(expected, new GraphParser().parseCached(zip.getPath()));
+        assertSnapshotValid(expected, zip);
+        assertSameContent(expected, new GraphParser().parseCached(zip.getPath()));
+    }
+
+    @Test
+    public void testLineCounts() throws IOException {
+        String log = "NODE;n1;0;0\nNODE;n2;0;10\nNOT A LINE\nEDGE;e1;n1;n2;10\nZUG;t1;z1;5\n"
+            + "MV;INIT;t1;0;e1\n";
+        GraphParser full = new GraphParser();
+        full.parse(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(5, full.getParsedLineCount());
+        assertEquals(0, full.getFallbackLineCount());
+
+        // the event line is handled by the scanner
+        GraphParser streaming = new GraphParser();
+        streaming.parseStreaming(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(4, streaming.getParsedLineCount());
+        assertEquals(0, streaming.getFallbackLineCount());
+    }
+
+    @Test
+    public void testNameTokens() throws IOException {
+        String log = "NODE;<0.68.0>:class_Graph_NodeImpl;0;0\nNODE;NODE;0;10\nNODE;n-3;0;20\n"
+            + "ZUG;t1;z1;5\nDATA;z1;38 38;Time(38)\nMSG;NODE;7/2;a (message) 1/2\n";
+        Context context = new GraphParser().parse(
+            new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8))
+        );
+
+        assertTrue(Node.in(context).NameExists("<0.68.0>:class_Graph_NodeImpl"));
+        assertTrue(Node.in(context).NameExists("NODE"));
+        // characters which aren't part of the log format are dropped
+        assertTrue(Node.in(context).NameExists("n3"));
+        Event message = context.getObservableEvents().stream()
+            .filter(event -> event.getDescription().startsWith("Message"))
+            .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(3500000, message.getTime());
+        assertTrue(message.getDescription().contains("a (message) 1/2"));
+    }
+
+    @Test
+    public void testStreamingInputStream() throws IOException {
+        String log = "NODE;n1;0;0\n\nNODE;n2;0;10\r\nEDGE;e1;n1;n2;10\nZUG;t1;z1;5";
+        Context context = new GraphParser().parseStreaming(
+            new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8))
+        );
+
+        assertEquals(2, Node.in(context).getAll().size());
+        assertEquals(1, Edge.in(context).getAll().size());
+        assertNotNull(Train.in(context).get("t1"));
+    }
 }
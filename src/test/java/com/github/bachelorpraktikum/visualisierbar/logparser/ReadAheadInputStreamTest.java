@@ -0,0 +1,93 @@
+package com.github.bachelorpraktikum.visualisierbar.logparser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import org.junit.Test;
+
+public class ReadAheadInputStreamTest {
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testReadsEverything() throws IOException {
+        // more than the chunks that fit in the queue
+        byte[] content = new byte[3_000_000];
+        new Random(42).nextBytes(content);
+        try (InputStream input = new ReadAheadInputStream(
+            new ByteArrayInputStream(content), "test")) {
+            assertEquals(content[0] & 0xff, input.read());
+            byte[] rest = readAll(input);
+            assertEquals(content.length - 1, rest.length);
+            assertArrayEquals(content, concat(content[0], rest));
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        try (InputStream input = new ReadAheadInputStream(
+            new ByteArrayInputStream(new byte[0]), "test")) {
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSourceError() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("failed");
+            }
+        };
+        try (InputStream input = new ReadAheadInputStream(failing, "test")) {
+            readAll(input);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSourceRuntimeError() throws IOException {
+        InputStream failing = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() {
+                if (++count > 100) {
+                    throw new IllegalStateException("corrupt");
+                }
+                return 'a';
+            }
+        };
+        try (InputStream input = new ReadAheadInputStream(failing, "test")) {
+            readAll(input);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadAfterClose() throws IOException {
+        InputStream input = new ReadAheadInputStream(
+            new ByteArrayInputStream(new byte[10]), "test");
+        input.close();
+        input.read();
+    }
+
+    private static byte[] concat(byte first, byte[] rest) {
+        byte[] result = new byte[rest.length + 1];
+        result[0] = first;
+        System.arraycopy(rest, 0, result, 1, rest.length);
+        return result;
+    }
+}
@@ -2,12 +2,18 @@ package com.github.bachelorpraktikum.visualisierbar.model;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.github.bachelorpraktikum.visualisierbar.model.Element.State;
 import com.github.bachelorpraktikum.visualisierbar.model.Element.Type;
 import com.github.bachelorpraktikum.visualisierbar.model.train.Train;
 import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 import javafx.collections.ObservableList;
 import org.junit.Test;
 
@@ -87,4 +93,43 @@ public class ContextTest {
         System.gc();
         assertTrue(weakObject.get() == null);
     }
+
+    @Test
+    public void testGetKey() {
+        Context.Key<Object> key = new Context.Key<>(context -> new Object());
+        Context context = new Context();
+        Object object = context.get(key);
+        assertSame(object, context.get(key));
+        assertNotSame(object, new Context().get(key));
+    }
+
+    @Test
+    public void testGetKeyNested() {
+        Context.Key<Object> inner = new Context.Key<>(context -> new Object());
+        Context.Key<Object[]> outer = new Context.Key<>(context -> new Object[]{
+            context.get(inner)});
+        Context context = new Context();
+        // creates the inner object while creating the outer one
+        Object[] result = context.get(outer);
+        assertSame(context.get(inner), result[0]);
+    }
+
+    @Test
+    public void testGetKeyConcurrent() {
+        for (int i = 0; i < 100; i++) {
+            AtomicInteger created = new AtomicInteger();
+            Context.Key<Object> key = new Context.Key<>(context -> {
+                created.incrementAndGet();
+                return new Object();
+            });
+            Context context = new Context();
+            Set<Object> objects = ConcurrentHashMap.newKeySet();
+            IntStream.range(0, 16).parallel().forEach(j -> {
+                objects.add(context.get(key));
+                objects.add(Train.in(context));
+            });
+            assertEquals(1, created.get());
+            assertEquals(2, objects.size());
+        }
+    }
 }
@@ -15,6 +15,8 @@ import com.github.bachelorpraktikum.visualisierbar.model.Element.Type;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import javafx.beans.property.Property;
 import javafx.beans.property.ReadOnlyProperty;
@@ -78,6 +80,39 @@ public class ElementTest extends FactoryTest<Element> {
         assertEquals(initState, element.getState());
     }
 
+    @Test
+    public void testSetTimeSeeking() {
+        // enough events for several state checkpoints
+        Random random = new Random(42);
+        Element[] elements = new Element[20];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = createElement();
+        }
+        int eventCount = 5000;
+        int[] eventElements = new int[eventCount];
+        State[] eventStates = new State[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            eventElements[i] = random.nextInt(elements.length);
+            eventStates[i] = State.values()[random.nextInt(State.values().length)];
+            // two events per time
+            elements[eventElements[i]].addEvent(eventStates[i], i / 2);
+        }
+
+        for (int seek = 0; seek < 200; seek++) {
+            int time = random.nextInt(eventCount / 2 + 10) - 1;
+            Element.in(context).setTime(time);
+
+            State[] expected = new State[elements.length];
+            Arrays.fill(expected, State.NOSIG);
+            for (int i = 0; i < eventCount && i / 2 <= time; i++) {
+                expected[eventElements[i]] = eventStates[i];
+            }
+            for (int i = 0; i < elements.length; i++) {
+                assertEquals("time " + time, expected[i], elements[i].getState());
+            }
+        }
+    }
+
     @Test
     public void testAddEvent() {
         Element element = createElement();
@@ -127,6 +162,30 @@ public class ElementTest extends FactoryTest<Element> {
         assertEquals(newState, element.getState());
     }
 
+    @Test
+    public void testAddEventsWhileFollowing() {
+        Element element = createElement();
+        Element other = createElement();
+        other.addEvent(Element.State.STOP, 0);
+
+        AtomicInteger otherCalls = new AtomicInteger();
+        other.stateProperty().addListener((observable, oldValue, newValue) ->
+            otherCalls.incrementAndGet());
+
+        // like a live source, every event arrives at the current time
+        for (int time = 1; time <= 3000; time++) {
+            Element.in(context).setTime(time);
+            Element.State state = time % 2 == 0 ? Element.State.STOP : Element.State.FAHRT;
+            element.addEvent(state, time);
+            assertEquals(state, element.getState());
+        }
+        assertEquals(Element.State.STOP, other.getState());
+        assertEquals(1, otherCalls.get());
+
+        Element.in(context).setTime(1499);
+        assertEquals(Element.State.FAHRT, element.getState());
+    }
+
     @Test
     public void testAddEventNegativeTime() {
         Element element = createElement();
@@ -290,6 +349,29 @@ public class ElementTest extends FactoryTest<Element> {
         assertEquals(state, called.get());
     }
 
+    @Test
+    public void testStatePropertyCalledOncePerSeek() {
+        Element element = createElement();
+        for (int time = 1; time <= 3000; time++) {
+            element.addEvent(time % 2 == 0 ? Element.State.STOP : Element.State.FAHRT, time);
+        }
+
+        AtomicInteger calls = new AtomicInteger();
+        element.stateProperty().addListener((observable, oldValue, newValue) ->
+            calls.incrementAndGet());
+
+        Element.in(context).setTime(2999);
+        assertEquals(Element.State.FAHRT, element.getState());
+        assertEquals(1, calls.get());
+
+        Element.in(context).setTime(1001);
+        assertEquals(1, calls.get());
+
+        Element.in(context).setTime(0);
+        assertEquals(Element.State.NOSIG, element.getState());
+        assertEquals(2, calls.get());
+    }
+
     @Test
     public void testGetType() {
         Element element = createElement();
@@ -0,0 +1,165 @@
+package com.github.bachelorpraktikum.visualisierbar.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+
+public class EventLogTest {
+
+    private static Event createEvent(long time, String name) {
+        return new Event() {
+            @Override
+            public long getTime() {
+                return time;
+            }
+
+            @Nonnull
+            @Override
+            public String getDescription() {
+                return name;
+            }
+
+            @Nonnull
+            @Override
+            public ObservableList<String> getWarnings() {
+                return FXCollections.emptyObservableList();
+            }
+
+            @Override
+            public String toString() {
+                return name + "@" + time;
+            }
+        };
+    }
+
+    private static List<ObservableList<Event>> createSources(Random random, int count,
+        int events) {
+        List<ObservableList<Event>> sources = new ArrayList<>();
+        for (int source = 0; source < count; source++) {
+            ObservableList<Event> list = FXCollections.observableArrayList();
+            long time = 0;
+            for (int i = 0; i < events; i++) {
+                time += random.nextInt(4);
+                list.add(createEvent(time, source + "." + i));
+            }
+            sources.add(list);
+        }
+        return sources;
+    }
+
+    private static List<Event> sortedConcatenation(List<ObservableList<Event>> sources) {
+        List<Event> result = new ArrayList<>();
+        sources.forEach(result::addAll);
+        // stable
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    public void testMergeOrder() {
+        List<ObservableList<Event>> sources = createSources(new Random(42), 20, 100);
+        EventLog log = new EventLog(sources);
+        assertEquals(sortedConcatenation(sources), log);
+    }
+
+    @Test
+    public void testEmpty() {
+        EventLog log = new EventLog(Collections.emptyList());
+        assertTrue(log.isEmpty());
+        assertEquals(0, log.firstIndexAtOrAfter(0));
+        assertEquals(-1, log.lastIndexAtOrBefore(0));
+    }
+
+    @Test
+    public void testAppend() {
+        Random random = new Random(42);
+        List<ObservableList<Event>> sources = createSources(random, 5, 10);
+        EventLog log = new EventLog(sources);
+        AtomicInteger added = new AtomicInteger();
+        log.addListener((ListChangeListener<Event>) change -> {
+            while (change.next()) {
+                assertTrue(change.wasAdded());
+                added.addAndGet(change.getAddedSize());
+            }
+        });
+
+        for (int i = 0; i < 200; i++) {
+            ObservableList<Event> source = sources.get(random.nextInt(sources.size()));
+            long time = source.get(source.size() - 1).getTime() + random.nextInt(3);
+            source.add(createEvent(time, "new" + i));
+        }
+
+        assertEquals(200, added.get());
+        assertEquals(sortedConcatenation(sources), log);
+        for (int i = 0; i < log.size(); i++) {
+            assertEquals(log.get(i).getTime(), log.getTime(i));
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        List<ObservableList<Event>> sources = createSources(new Random(42), 5, 10);
+        EventLog log = new EventLog(sources);
+        sources.get(2).remove(3, 7);
+        assertEquals(sortedConcatenation(sources), log);
+    }
+
+    @Test
+    public void testRemovedContent() {
+        Random random = new Random(42);
+        List<ObservableList<Event>> sources = createSources(random, 5, 10);
+        EventLog log = new EventLog(sources);
+        List<List<? extends Event>> removed = new ArrayList<>();
+        log.addListener((ListChangeListener<Event>) change -> {
+            while (change.next()) {
+                removed.add(new ArrayList<>(change.getRemoved()));
+            }
+        });
+
+        ObservableList<Event> source = sources.get(1);
+        List<Event> previous = new ArrayList<>(log);
+        // a change with several parts
+        source.removeAll(source.get(1), source.get(4), source.get(8));
+        assertEquals(Collections.singletonList(previous), removed);
+
+        removed.clear();
+        previous = new ArrayList<>(log);
+        source.set(2, createEvent(source.get(2).getTime(), "replaced"));
+        assertEquals(Collections.singletonList(previous), removed);
+        assertEquals(sortedConcatenation(sources), log);
+    }
+
+    @Test
+    public void testIndexLookup() {
+        Event[] events = {createEvent(0, "a"), createEvent(5, "b"), createEvent(5, "c"),
+            createEvent(10, "d")};
+        ObservableList<Event> source = FXCollections.observableArrayList(Arrays.asList(events));
+        EventLog log = new EventLog(Collections.singletonList(source));
+
+        assertEquals(0, log.firstIndexAtOrAfter(-1));
+        assertEquals(1, log.firstIndexAtOrAfter(5));
+        assertEquals(3, log.firstIndexAtOrAfter(6));
+        assertEquals(4, log.firstIndexAtOrAfter(11));
+
+        assertEquals(-1, log.lastIndexAtOrBefore(-1));
+        assertEquals(0, log.lastIndexAtOrBefore(4));
+        assertEquals(2, log.lastIndexAtOrBefore(5));
+        assertEquals(3, log.lastIndexAtOrBefore(Long.MAX_VALUE));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAdd() {
+        new EventLog(Collections.emptyList()).add(createEvent(0, "a"));
+    }
+}
@@ -13,7 +13,7 @@ public class EventTest {
     private Event createEvent(int time) {
         return new Event() {
             @Override
-            public int getTime() {
+            public long getTime() {
                 return time;
             }
 
@@ -102,6 +102,23 @@ public abstract class FactoryTest<T extends GraphObject<?>> {
         getFactory().get(null);
     }
 
+    @Test
+    public void testGetById() {
+        T t = createRandom();
+        int id = SymbolTable.in(context).find(t.getName());
+        assertSame(t, getFactory().get(id));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetByIdInvalid() {
+        getFactory().get(SymbolTable.in(context).intern("invalid"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetByIdNegative() {
+        getFactory().get(-1);
+    }
+
     @Test
     public void testCreateSame() {
         T t = createRandom();
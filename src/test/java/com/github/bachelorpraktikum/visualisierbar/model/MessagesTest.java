@@ -77,7 +77,7 @@ public class MessagesTest {
         assertEquals(1, events.size());
         Event event = events.get(0);
         assertEquals(time, event.getTime());
-        assertTrue(event.getDescription().contains(String.valueOf(time)));
+        assertTrue(event.getDescription().contains(SimulationTime.format(time)));
         assertTrue(event.getDescription().contains(text));
         assertTrue(event.getWarnings().isEmpty());
     }
@@ -267,7 +267,7 @@ public class MessagesTest {
 
         Event event = messages.getEvents().get(0);
         assertNotNull(event.toString());
-        assertTrue(event.toString().contains(String.valueOf(time)));
+        assertTrue(event.toString().contains(SimulationTime.format(time)));
         assertTrue(event.toString().contains(text));
         assertTrue(event.toString().contains(node.getName()));
     }
@@ -282,15 +282,15 @@ public class MessagesTest {
     }
 
     @Test
-    public void testIntPair() throws ReflectiveOperationException {
-        // needs to be done with reflection, because IntPair is - and should be - private
+    public void testLongIntPair() throws ReflectiveOperationException {
+        // needs to be done with reflection, because LongIntPair is - and should be - private
         Class<?> type = Messages.class.getDeclaredClasses()[0];
         Method getKey = type.getDeclaredMethod("getKey");
         Method getValue = type.getDeclaredMethod("getValue");
-        Constructor<?> constructor = type.getDeclaredConstructor(int.class, int.class);
-        Object intPair = constructor.newInstance(42, 420);
+        Constructor<?> constructor = type.getDeclaredConstructor(long.class, int.class);
+        Object pair = constructor.newInstance(42L, 420);
 
-        assertEquals(42, getKey.invoke(intPair));
-        assertEquals(420, getValue.invoke(intPair));
+        assertEquals(42L, getKey.invoke(pair));
+        assertEquals(420, getValue.invoke(pair));
     }
 }
@@ -0,0 +1,48 @@
+package com.github.bachelorpraktikum.visualisierbar.model;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SimulationTimeTest {
+
+    @Test
+    public void testFromMillis() {
+        assertEquals(0, SimulationTime.fromMillis(0));
+        assertEquals(1500000, SimulationTime.fromMillis(1500));
+        // more milliseconds than fit into an int
+        assertEquals(3000000000000L, SimulationTime.fromMillis(3000000000L));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testFromMillisOverflow() {
+        SimulationTime.fromMillis(Long.MAX_VALUE / 10);
+    }
+
+    @Test
+    public void testFromSeconds() {
+        assertEquals(1500000, SimulationTime.fromSeconds(1.5));
+        assertEquals(333333, SimulationTime.fromSeconds(1.0 / 3));
+    }
+
+    @Test
+    public void testToMillis() {
+        assertEquals(1500, SimulationTime.toMillis(1500999));
+        assertEquals(-1, SimulationTime.toMillis(-1));
+    }
+
+    @Test
+    public void testToSeconds() {
+        assertEquals(2.5, SimulationTime.toSeconds(2500000), 0.0);
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("0", SimulationTime.format(0));
+        assertEquals("1500", SimulationTime.format(1500000));
+        assertEquals("1500.25", SimulationTime.format(1500250));
+        assertEquals("0.001", SimulationTime.format(1));
+        assertEquals("-0.001", SimulationTime.format(Context.INIT_STATE_TIME));
+        assertEquals("-2.5", SimulationTime.format(-2500));
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.bachelorpraktikum.visualisierbar.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class SymbolTableTest {
+
+    @Test
+    public void testInNotNull() {
+        assertNotNull(SymbolTable.in(new Context()));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testInNullContext() {
+        SymbolTable.in(null);
+    }
+
+    @Test
+    public void testInSameForSameContext() {
+        Context context = new Context();
+        SymbolTable symbols = SymbolTable.in(context);
+        System.gc();
+
+        assertSame(symbols, SymbolTable.in(context));
+        assertNotSame(symbols, SymbolTable.in(new Context()));
+    }
+
+    @Test
+    public void testInternDense() {
+        SymbolTable symbols = new SymbolTable();
+        assertEquals(0, symbols.intern("a"));
+        assertEquals(1, symbols.intern("b"));
+        assertEquals(0, symbols.intern("a"));
+        assertEquals(2, symbols.size());
+    }
+
+    @Test
+    public void testInternRange() {
+        SymbolTable symbols = new SymbolTable();
+        int id = symbols.intern("node");
+        assertEquals(id, symbols.intern(new StringBuilder("MSG;node;5"), 4, 8));
+        assertEquals(1, symbols.size());
+    }
+
+    @Test
+    public void testGetName() {
+        SymbolTable symbols = new SymbolTable();
+        int id = symbols.intern(new StringBuilder("xy"), 0, 2);
+        assertEquals("xy", symbols.getName(id));
+        assertSame(symbols.getName(id), symbols.getName(symbols.intern("xy")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetNameInvalid() {
+        new SymbolTable().getName(0);
+    }
+
+    @Test
+    public void testFind() {
+        SymbolTable symbols = new SymbolTable();
+        assertEquals(-1, symbols.find("a"));
+        int id = symbols.intern("a");
+        assertEquals(id, symbols.find("a"));
+        assertEquals(1, symbols.size());
+    }
+
+    @Test
+    public void testManyNames() {
+        SymbolTable symbols = new SymbolTable();
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, symbols.intern("name" + i));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, symbols.find("name" + i));
+            assertEquals("name" + i, symbols.getName(i));
+        }
+    }
+
+    @Test
+    public void testIndex() {
+        SymbolTable.Index<String> index = new SymbolTable.Index<>();
+        assertNull(index.get(-1));
+        assertNull(index.get(1000));
+        index.put(1000, "a");
+        assertEquals("a", index.get(1000));
+        index.put(1000, null);
+        assertNull(index.get(1000));
+        assertNotEquals("a", index.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIndexNegative() {
+        new SymbolTable.Index<String>().put(-1, "a");
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import static org.junit.Assert.assertEquals;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.Coordinates;
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EdgePathTest {
+
+    private List<Edge> edges;
+
+    @Before
+    public void init() {
+        Context context = new Context();
+        edges = new ArrayList<>();
+        Node last = Node.in(context).create("node0", new Coordinates(0, 0));
+        for (int i = 1; i <= 50; i++) {
+            Node node = Node.in(context).create("node" + i, new Coordinates(i, 0));
+            edges.add(Edge.in(context).create("edge" + i, 10, last, node));
+            last = node;
+        }
+    }
+
+    @Test
+    public void testSingleEdge() {
+        EdgePath path = EdgePath.of(edges.get(0));
+        assertEquals(Collections.singletonList(edges.get(0)), path);
+        assertEquals(edges.get(0), path.getFront());
+        assertEquals(edges.get(0), path.getBack());
+    }
+
+    @Test
+    public void testDerivedPathsUnchanged() {
+        EdgePath first = EdgePath.of(edges.get(0));
+        EdgePath second = first.withFront(edges.get(1));
+        EdgePath third = second.withFront(edges.get(2)).withoutBack();
+
+        assertEquals(Collections.singletonList(edges.get(0)), first);
+        assertEquals(Arrays.asList(edges.get(1), edges.get(0)), second);
+        assertEquals(Arrays.asList(edges.get(2), edges.get(1)), third);
+        assertEquals(edges.get(2), third.getFront());
+        assertEquals(edges.get(1), third.getBack());
+    }
+
+    @Test
+    public void testBranches() {
+        EdgePath base = EdgePath.of(edges.get(0)).withFront(edges.get(1));
+        EdgePath shared = base.withFront(edges.get(2));
+        EdgePath same = base.withFront(edges.get(2));
+        EdgePath other = base.withFront(edges.get(3));
+
+        assertEquals(Arrays.asList(edges.get(2), edges.get(1), edges.get(0)), shared);
+        assertEquals(shared, same);
+        assertEquals(Arrays.asList(edges.get(3), edges.get(1), edges.get(0)), other);
+        // continuing the first branch doesn't affect the other one
+        assertEquals(Arrays.asList(edges.get(4), edges.get(2), edges.get(1), edges.get(0)),
+            shared.withFront(edges.get(4)));
+        assertEquals(Arrays.asList(edges.get(4), edges.get(3), edges.get(1), edges.get(0)),
+            other.withFront(edges.get(4)));
+    }
+
+    @Test
+    public void testSameAsLinkedList() {
+        Random random = new Random(42);
+        List<EdgePath> paths = new ArrayList<>();
+        List<LinkedList<Edge>> expected = new ArrayList<>();
+        paths.add(EdgePath.of(edges.get(0)));
+        expected.add(new LinkedList<>(Collections.singletonList(edges.get(0))));
+
+        for (int i = 0; i < 1000; i++) {
+            int index = random.nextInt(paths.size());
+            EdgePath path = paths.get(index);
+            LinkedList<Edge> list = new LinkedList<>(expected.get(index));
+            if (path.size() > 1 && random.nextBoolean()) {
+                path = path.withoutBack();
+                list.removeLast();
+            } else {
+                Edge edge = edges.get(random.nextInt(edges.size()));
+                path = path.withFront(edge);
+                list.addFirst(edge);
+            }
+            paths.add(path);
+            expected.add(list);
+        }
+
+        assertEquals(expected, paths);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRemoveOnlyEdge() {
+        EdgePath.of(edges.get(0)).withoutBack();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        EdgePath.of(edges.get(0)).withFront(edges.get(1)).withoutBack().get(1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAdd() {
+        EdgePath.of(edges.get(0)).add(edges.get(1));
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class EventTimeIndexTest {
+
+    private static int linearFloorIndex(EventTimeIndex index, long time, int start) {
+        int result = start;
+        for (int i = start + 1; i < index.size(); i++) {
+            if (index.get(i) > time) {
+                break;
+            }
+            result = i;
+        }
+        return result;
+    }
+
+    @Test
+    public void testFloorIndex() {
+        EventTimeIndex index = new EventTimeIndex();
+        index.add(-1);
+        index.add(0);
+        index.add(10);
+        index.add(10);
+        index.add(20);
+
+        assertEquals(0, index.floorIndex(-1, 0));
+        assertEquals(1, index.floorIndex(5, 0));
+        // the last of several events at the same time
+        assertEquals(3, index.floorIndex(10, 0));
+        assertEquals(3, index.floorIndex(19, 2));
+        assertEquals(4, index.floorIndex(20, 0));
+        assertEquals(4, index.floorIndex(Long.MAX_VALUE, 4));
+    }
+
+    @Test
+    public void testSameAsLinearSearch() {
+        Random random = new Random(42);
+        EventTimeIndex index = new EventTimeIndex();
+        long time = -1;
+        for (int i = 0; i < 1000; i++) {
+            index.add(time);
+            time += random.nextInt(3) * random.nextInt(100);
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            int start = random.nextInt(index.size());
+            long wanted = index.get(start) + random.nextInt(1 << random.nextInt(16));
+            assertEquals(linearFloorIndex(index, wanted, start), index.floorIndex(wanted, start));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddBeforePrevious() {
+        EventTimeIndex index = new EventTimeIndex();
+        index.add(10);
+        index.add(9);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFloorIndexInvalidStart() {
+        EventTimeIndex index = new EventTimeIndex();
+        index.add(0);
+        index.floorIndex(0, 1);
+    }
+}
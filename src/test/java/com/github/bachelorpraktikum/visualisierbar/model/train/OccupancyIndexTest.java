@@ -0,0 +1,266 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.Coordinates;
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import com.github.bachelorpraktikum.visualisierbar.model.train.OccupancyIndex.Occupation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OccupancyIndexTest {
+
+    private Context context;
+    private Edge[] edges;
+
+    @Before
+    public void init() {
+        context = new Context();
+        Random random = new Random(7);
+        edges = new Edge[12];
+        Node previous = Node.in(context).create("n0", new Coordinates(0, 0));
+        for (int i = 0; i < edges.length; i++) {
+            Node node = Node.in(context).create("n" + (i + 1), new Coordinates(i + 1, 0));
+            edges[i] = Edge.in(context).create("e" + i, 5 + random.nextInt(20), previous, node);
+            previous = node;
+        }
+    }
+
+    /**
+     * Creates the events of a train driving along the edges, starting at a random edge and time.
+     */
+    private List<Consumer<Train.EventFactory>> drive(Random random, int length) {
+        List<Consumer<Train.EventFactory>> events = new ArrayList<>();
+        int front = random.nextInt(edges.length / 2);
+        int back = front;
+        long[] time = {random.nextInt(100)};
+        Edge start = edges[front];
+        long initTime = time[0];
+        events.add(factory -> factory.init(initTime, start));
+        // the distance of the front and back from the start of the first edge
+        int frontPosition = Math.min(length, start.getLength());
+        int backPosition = frontPosition - length;
+        int frontEnd = start.getLength();
+        int backEnd = start.getLength();
+
+        while (front < edges.length - 1) {
+            time[0] += random.nextInt(4) == 0 ? 0 : random.nextInt(30);
+            long eventTime = time[0];
+            int distance = 1 + random.nextInt(12);
+            int frontGap = frontEnd - frontPosition;
+            int backGap = back < front ? backEnd - backPosition : Integer.MAX_VALUE;
+            // sometimes the train passes the boundary before the event, so the front or back
+            // moves onto the next edge by interpolation
+            int overshoot = random.nextInt(3) == 0 ? 1 + random.nextInt(3) : 0;
+            if (frontGap <= distance && frontGap <= backGap) {
+                Edge edge = edges[++front];
+                int reached = frontGap + overshoot;
+                events.add(factory -> factory.reach(eventTime, edge, reached));
+                frontPosition += frontGap;
+                backPosition += frontGap;
+                frontEnd += edge.getLength();
+            } else if (backGap <= distance) {
+                Edge edge = edges[++back];
+                int left = backGap + overshoot;
+                events.add(factory -> factory.leave(eventTime, edge, left));
+                frontPosition += backGap;
+                backPosition += backGap;
+                backEnd += edge.getLength();
+            } else {
+                int speed = random.nextInt(50);
+                events.add(factory -> factory.speed(eventTime, distance, speed));
+                frontPosition += distance;
+                backPosition += distance;
+            }
+        }
+        long endTime = time[0] + random.nextInt(30);
+        events.add(factory -> factory.terminate(endTime, 0));
+        return events;
+    }
+
+    private long getEndTime(List<Train> trains) {
+        long end = 0;
+        for (Train train : trains) {
+            List<? extends com.github.bachelorpraktikum.visualisierbar.model.Event> events =
+                train.getEvents();
+            end = Math.max(end, events.get(events.size() - 1).getTime());
+        }
+        return end;
+    }
+
+    private void assertSameAsStates(List<Train> trains) {
+        OccupancyIndex index = OccupancyIndex.in(context);
+        for (long time = Context.INIT_STATE_TIME; time <= getEndTime(trains) + 2; time++) {
+            for (Edge edge : edges) {
+                Set<Train> expected = new HashSet<>();
+                for (Train train : trains) {
+                    Train.State state = train.getState(time);
+                    if (state.isInitialized() && state.getPosition().getEdges().contains(edge)) {
+                        expected.add(train);
+                    }
+                }
+                List<Train> actual = index.getTrains(edge, time);
+                assertEquals("edge " + edge.getName() + " at " + time,
+                    expected, new HashSet<>(actual));
+                assertEquals(expected.size(), actual.size());
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsStates() {
+        Random random = new Random(42);
+        List<Train> trains = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Train train = Train.in(context).create("t" + i, "train" + i, 10 + random.nextInt(30));
+            drive(random, train.getLength()).forEach(event -> event.accept(train.eventFactory()));
+            trains.add(train);
+        }
+        assertSameAsStates(trains);
+    }
+
+    @Test
+    public void testLiveEvents() {
+        Random random = new Random(43);
+        List<Train> trains = new ArrayList<>();
+        List<List<Consumer<Train.EventFactory>>> events = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Train train = Train.in(context).create("t" + i, "train" + i, 10 + random.nextInt(30));
+            trains.add(train);
+            events.add(drive(random, train.getLength()));
+        }
+
+        OccupancyIndex index = OccupancyIndex.in(context);
+        int[] next = new int[trains.size()];
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (int i = 0; i < trains.size(); i++) {
+                if (next[i] < events.get(i).size()) {
+                    events.get(i).get(next[i]++).accept(trains.get(i).eventFactory());
+                    added = true;
+                }
+            }
+            // update the index after every round of events
+            for (Edge edge : edges) {
+                index.getOccupations(edge);
+            }
+        }
+        assertSameAsStates(trains);
+
+        // the occupations are the same as if they had been computed at once
+        for (Edge edge : edges) {
+            List<Occupation> occupations = new ArrayList<>(index.getOccupations(edge));
+            for (Occupation occupation : occupations) {
+                assertTrue(occupation.getEnterTime() < occupation.getLeaveTime());
+            }
+            for (int i = 1; i < occupations.size(); i++) {
+                assertTrue(occupations.get(i - 1).getEnterTime()
+                    <= occupations.get(i).getEnterTime());
+            }
+            for (int i = 0; i < occupations.size(); i++) {
+                for (int j = i + 1; j < occupations.size(); j++) {
+                    Occupation first = occupations.get(i);
+                    Occupation second = occupations.get(j);
+                    // occupations of the same train are never split in two
+                    assertTrue(!first.getTrain().equals(second.getTrain())
+                        || first.getLeaveTime() < second.getEnterTime());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTrainsCreatedLater() {
+        // the index exists before the trains, which report their events to it
+        OccupancyIndex.in(context).update();
+        Random random = new Random(44);
+        List<Train> trains = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Train train = Train.in(context).create("t" + i, "train" + i, 10 + random.nextInt(30));
+            drive(random, train.getLength()).forEach(event -> event.accept(train.eventFactory()));
+            trains.add(train);
+        }
+        assertSameAsStates(trains);
+    }
+
+    @Test
+    public void testOccupations() {
+        Train train = Train.in(context).create("t", "train", 5);
+        Train.EventFactory factory = train.eventFactory();
+        factory.init(10, edges[0]);
+        factory.reach(20, edges[1], edges[0].getLength() - 5);
+        factory.leave(30, edges[1], 5);
+
+        OccupancyIndex index = OccupancyIndex.in(context);
+        assertEquals(Collections.singletonList(new Occupation(train, edges[0], 10, 30)),
+            index.getOccupations(edges[0]));
+        assertEquals(Collections.singletonList(new Occupation(train, edges[1], 20,
+            OccupancyIndex.OPEN)), index.getOccupations(edges[1]));
+        assertTrue(index.getOccupations(edges[0], 30, 40).isEmpty());
+        assertTrue(index.getTrains(edges[0], 9).isEmpty());
+        assertEquals(Collections.singletonList(train), index.getTrains(edges[0], 29));
+
+        factory.terminate(40, 0);
+        assertEquals(Collections.singletonList(train), index.getTrains(edges[1], 1000));
+        assertEquals(Collections.singletonList(train),
+            index.getTrains(edges[1], Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testManyOccupations() {
+        // enough occupations of one edge to use more than one level of the tree
+        List<Train> trains = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Train train = Train.in(context).create("t" + i, "train" + i, 5);
+            Train.EventFactory factory = train.eventFactory();
+            factory.init(i * 7, edges[0]);
+            factory.reach(i * 7 + 1 + i % 13 * 5, edges[1], edges[0].getLength() - 5);
+            factory.leave(i * 7 + 2 + i % 13 * 5, edges[1], 5);
+            trains.add(train);
+        }
+
+        OccupancyIndex index = OccupancyIndex.in(context);
+        for (long from = -1; from < 2200; from += 17) {
+            for (long to = from; to < from + 200; to += 31) {
+                List<Occupation> expected = new ArrayList<>();
+                for (Train train : trains) {
+                    long enter = train.getEvents().get(1).getTime();
+                    long leave = train.getEvents().get(3).getTime();
+                    if (enter < to && from < leave) {
+                        expected.add(new Occupation(train, edges[0], enter, leave));
+                    }
+                }
+                List<Occupation> actual = index.getOccupations(edges[0], from, to);
+                expected.sort(Comparator.comparing(Occupation::getTrain,
+                    Comparator.comparing(Train::getName)));
+                List<Occupation> sorted = new ArrayList<>(actual);
+                sorted.sort(Comparator.comparing(Occupation::getTrain,
+                    Comparator.comparing(Train::getName)));
+                assertEquals(expected, sorted);
+            }
+        }
+    }
+
+    @Test
+    public void testNotInitialized() {
+        Train.in(context).create("t", "train", 5);
+        assertTrue(OccupancyIndex.in(context).getOccupations(edges[0]).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        OccupancyIndex.in(context).getOccupations(edges[0], 10, 5);
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.Coordinates;
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TrainEventStoreTest {
+
+    private Edge edge;
+    private TrainEventStore store;
+
+    @Before
+    public void init() {
+        Context context = new Context();
+        Node start = Node.in(context).create("start", new Coordinates(0, 0));
+        Node end = Node.in(context).create("end", new Coordinates(1, 0));
+        edge = Edge.in(context).create("edge", 100, start, end);
+        store = new TrainEventStore();
+        store.add(TrainEventStore.START, Context.INIT_STATE_TIME, 0, 0, null);
+        store.add(TrainEventStore.INIT, 0, 0, 0, edge);
+        store.add(TrainEventStore.SPEED, 10, 20, 5, null);
+        store.add(TrainEventStore.MOVE, 20, 30, 0, null);
+        store.add(TrainEventStore.REACH, 30, 10, 0, edge);
+    }
+
+    @Test
+    public void testColumns() {
+        assertEquals(5, store.size());
+        assertEquals(TrainEventStore.SPEED, store.getKind(2));
+        assertEquals(10, store.getTime(2));
+        assertEquals(20, store.getDistance(2));
+        assertEquals(5, store.getSpeed(2));
+        assertNull(store.getEdge(2));
+        assertSame(edge, store.getEdge(4));
+    }
+
+    @Test
+    public void testTotalDistance() {
+        assertEquals(0, store.getTotalDistance(1));
+        assertEquals(20, store.getTotalDistance(2));
+        assertEquals(50, store.getTotalDistance(3));
+        assertEquals(60, store.getTotalDistance(4));
+    }
+
+    @Test
+    public void testIndexOf() {
+        assertEquals(4, store.indexOf(TrainEventStore.REACH));
+        assertEquals(-1, store.indexOf(TrainEventStore.TERMINATE));
+    }
+
+    @Test
+    public void testWarnings() {
+        assertTrue(store.getWarnings(4).isEmpty());
+        store.addWarning(4, "warning");
+        assertEquals(Collections.singletonList("warning"), store.getWarnings(4));
+        assertTrue(store.getWarnings(2).isEmpty());
+    }
+
+    @Test
+    public void testMoveWarning() {
+        store.addWarning(3, "warning");
+        assertEquals(Arrays.asList(TrainEventStore.MOVE_WARNING, "warning"),
+            store.getWarnings(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTimeDecreasing() {
+        store.add(TrainEventStore.MOVE, 29, 0, 0, null);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfBounds() {
+        store.getKind(5);
+    }
+}
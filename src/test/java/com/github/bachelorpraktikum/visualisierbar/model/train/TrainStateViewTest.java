@@ -0,0 +1,153 @@
+package com.github.bachelorpraktikum.visualisierbar.model.train;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.github.bachelorpraktikum.visualisierbar.model.Context;
+import com.github.bachelorpraktikum.visualisierbar.model.Coordinates;
+import com.github.bachelorpraktikum.visualisierbar.model.Edge;
+import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import com.github.bachelorpraktikum.visualisierbar.view.graph.adapter.SimpleCoordinatesAdapter;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import javafx.geometry.Point2D;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TrainStateViewTest {
+
+    private static final int EDGE_COUNT = 20;
+
+    private Context context;
+    private Edge[] edges;
+    private Train train;
+    private long end;
+
+    @Before
+    public void init() {
+        context = new Context();
+        Node[] nodes = new Node[EDGE_COUNT + 1];
+        for (int i = 0; i <= EDGE_COUNT; i++) {
+            // zigzag, so that the nodes between the edges are significant points
+            nodes[i] = Node.in(context).create("node" + i, new Coordinates(i, i % 2));
+        }
+        edges = new Edge[EDGE_COUNT];
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            edges[i] = Edge.in(context).create("edge" + i, 100, nodes[i], nodes[i + 1]);
+        }
+
+        train = Train.in(context).create("train", "t", 250);
+        long time = 0;
+        train.eventFactory().init(time, edges[0]);
+        for (int i = 1; i < EDGE_COUNT; i++) {
+            time += 1000;
+            train.eventFactory().reach(time, edges[i], 50);
+            time += 1000;
+            if (i >= 3) {
+                train.eventFactory().leave(time, edges[i - 2], 50);
+            } else {
+                train.eventFactory().speed(time, 50, 50);
+            }
+        }
+        time += 1000;
+        train.eventFactory().terminate(time, 10);
+        end = time;
+    }
+
+    private static void assertSameState(Train.State state, TrainStateView view) {
+        assertEquals(state.getTime(), view.getTime());
+        assertEquals(state.isInitialized(), view.isInitialized());
+        assertEquals(state.isTerminated(), view.isTerminated());
+        assertEquals(state.getSpeed(), view.getSpeed(), 0);
+        assertEquals(state.getTotalDistance(), view.getTotalDistance());
+        if (!state.isInitialized()) {
+            return;
+        }
+
+        Train.Position position = state.getPosition();
+        assertEquals(position.getFrontEdge(), view.getFrontEdge());
+        assertEquals(position.getFrontDistance(), view.getFrontDistance());
+        assertEquals(position.getBackEdge(), view.getBackEdge());
+        assertEquals(position.getBackDistance(), view.getBackDistance());
+        assertEquals(position.getFrontCoordinates(), view.getFrontCoordinates());
+        assertEquals(position.getBackCoordinates(), view.getBackCoordinates());
+
+        List<Edge> positionEdges = position.getEdges();
+        assertEquals(positionEdges.size(), view.getEdgeCount());
+        for (int i = 0; i < positionEdges.size(); i++) {
+            assertEquals(positionEdges.get(i), view.getEdge(i));
+        }
+
+        Function<Node, Point2D> adapter = new SimpleCoordinatesAdapter()::apply;
+        List<Point2D> expected = position.getPositions(adapter);
+        double[] expectedPoints = new double[2 * expected.size()];
+        for (int i = 0; i < expected.size(); i++) {
+            expectedPoints[2 * i] = expected.get(i).getX();
+            expectedPoints[2 * i + 1] = expected.get(i).getY();
+        }
+        double[] points = new double[2 * (view.getEdgeCount() + 1)];
+        int count = view.getPoints(adapter, points);
+        double[] actualPoints = new double[2 * count];
+        System.arraycopy(points, 0, actualPoints, 0, actualPoints.length);
+        assertArrayEquals(expectedPoints, actualPoints, 0);
+    }
+
+    @Test
+    public void testSameAsState() {
+        TrainStateView view = new TrainStateView();
+        for (long time = Context.INIT_STATE_TIME; time <= end + 100; time += 77) {
+            train.sampleInto(time, view);
+            assertSameState(train.getState(time), view);
+        }
+    }
+
+    @Test
+    public void testRandomTimes() {
+        Random random = new Random(42);
+        Train other = Train.in(context).create("other", "o", 30);
+        other.eventFactory().init(0, edges[0]);
+        other.eventFactory().reach(500, edges[1], 90);
+
+        TrainStateView view = new TrainStateView();
+        for (int i = 0; i < 1000; i++) {
+            long time = random.nextInt((int) end + 100);
+            // the same view is used for different trains and in any order
+            Train sampled = random.nextBoolean() ? train : other;
+            sampled.sampleInto(time, view);
+            assertEquals(sampled, view.getTrain());
+            assertSameState(sampled.getState(time), view);
+        }
+    }
+
+    @Test
+    public void testTerminated() {
+        TrainStateView view = new TrainStateView();
+        train.sampleInto(end, view);
+        assertTrue(view.isTerminated());
+        train.sampleInto(end - 1, view);
+        assertFalse(view.isTerminated());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPositionUninitialized() {
+        TrainStateView view = new TrainStateView();
+        train.sampleInto(Context.INIT_STATE_TIME, view);
+        assertFalse(view.isInitialized());
+        view.getFrontEdge();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPointsArrayTooShort() {
+        TrainStateView view = new TrainStateView();
+        train.sampleInto(end, view);
+        view.getPoints(new SimpleCoordinatesAdapter()::apply, new double[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTimeTooSmall() {
+        train.sampleInto(Context.INIT_STATE_TIME - 1, new TrainStateView());
+    }
+}
@@ -12,6 +12,7 @@ import com.github.bachelorpraktikum.visualisierbar.model.Edge;
 import com.github.bachelorpraktikum.visualisierbar.model.Event;
 import com.github.bachelorpraktikum.visualisierbar.model.FactoryTest;
 import com.github.bachelorpraktikum.visualisierbar.model.Node;
+import com.github.bachelorpraktikum.visualisierbar.model.SimulationTime;
 import com.github.bachelorpraktikum.visualisierbar.model.train.Train.Position;
 import com.github.bachelorpraktikum.visualisierbar.model.train.Train.TrainFactory;
 import javax.annotation.Nonnull;
@@ -185,7 +186,7 @@ public class TrainTest extends FactoryTest<Train> {
 
         Train.State initState = train.getState(0);
 
-        int time = 10000;
+        long time = SimulationTime.fromMillis(10000);
         int distance = 20;
         int speed = 2;
         train.eventFactory().speed(time, distance, speed);
@@ -206,7 +207,7 @@ public class TrainTest extends FactoryTest<Train> {
 
         String description = train.getEvents().get(2).getDescription().toLowerCase();
         assertTrue(description.contains("speed"));
-        assertTrue(description.contains(String.valueOf(time)));
+        assertTrue(description.contains(SimulationTime.format(time)));
         assertTrue(description.contains(String.valueOf(distance)));
         assertTrue(description.contains(String.valueOf(speed)));
     }
@@ -219,7 +220,7 @@ public class TrainTest extends FactoryTest<Train> {
 
         Train.State initState = train.getState(0);
 
-        int time = 10000;
+        long time = SimulationTime.fromMillis(10000);
         int distance = 20;
         train.eventFactory().move(time, distance);
 
@@ -238,7 +239,7 @@ public class TrainTest extends FactoryTest<Train> {
 
         String description = train.getEvents().get(2).getDescription().toLowerCase();
         assertTrue(description.contains("speed"));
-        assertTrue(description.contains(String.valueOf(time)));
+        assertTrue(description.contains(SimulationTime.format(time)));
         assertTrue(description.contains(String.valueOf(distance)));
     }
 
@@ -286,7 +287,7 @@ public class TrainTest extends FactoryTest<Train> {
 
         String description = train.getEvents().get(3).getDescription().toLowerCase();
         assertTrue(description.contains("leave"));
-        assertTrue(description.contains(String.valueOf(20)));
+        assertTrue(description.contains(SimulationTime.format(20)));
         assertTrue(description.contains(String.valueOf(10)));
         assertTrue(description.contains(edges[1].getName()));
     }
@@ -297,10 +298,10 @@ public class TrainTest extends FactoryTest<Train> {
         Edge edge = createEdges(40)[0];
         train.eventFactory().init(0, edge);
 
-        train.eventFactory().speed(5000, 4, 1);
-        train.eventFactory().terminate(10000, 4);
-        Train.State state = train.getState(10000);
-        assertEquals(10000, state.getTime());
+        train.eventFactory().speed(SimulationTime.fromMillis(5000), 4, 1);
+        train.eventFactory().terminate(SimulationTime.fromMillis(10000), 4);
+        Train.State state = train.getState(SimulationTime.fromMillis(10000));
+        assertEquals(SimulationTime.fromMillis(10000), state.getTime());
         assertTrue(state.isTerminated());
         assertEquals(18, state.getPosition().getFrontDistance());
         assertEquals(8, state.getTotalDistance());
@@ -324,7 +325,7 @@ public class TrainTest extends FactoryTest<Train> {
             }
 
             @Override
-            public int getTime() {
+            public long getTime() {
                 return state.getTime();
             }
 
@@ -418,11 +419,11 @@ public class TrainTest extends FactoryTest<Train> {
         Edge edge = createEdges(50)[0];
         train.eventFactory().init(0, edge);
 
-        train.eventFactory().speed(20000, 5, 0);
+        train.eventFactory().speed(SimulationTime.fromMillis(20000), 5, 0);
 
-        assertEquals(0.25, train.getState(12000).getSpeed(), 0.01);
-        assertEquals(0.25, train.getState(15000).getSpeed(), 0.01);
-        assertEquals(0.25, train.getState(17000).getSpeed(), 0.01);
+        assertEquals(0.25, train.getState(SimulationTime.fromMillis(12000)).getSpeed(), 0.01);
+        assertEquals(0.25, train.getState(SimulationTime.fromMillis(15000)).getSpeed(), 0.01);
+        assertEquals(0.25, train.getState(SimulationTime.fromMillis(17000)).getSpeed(), 0.01);
     }
 
     @Test
@@ -431,11 +432,37 @@ public class TrainTest extends FactoryTest<Train> {
         Edge[] edges = createEdges(20, 50);
         train.eventFactory().init(0, edges[0]);
 
-        train.eventFactory().speed(5000, 5, 1);
-        train.eventFactory().reach(10000, edges[1], 5);
+        train.eventFactory().speed(SimulationTime.fromMillis(5000), 5, 1);
+        train.eventFactory().reach(SimulationTime.fromMillis(10000), edges[1], 5);
 
         assertEquals(1, train.getState(0).getSpeed(), 0.1);
-        assertEquals(1, train.getState(9).getSpeed(), 0.1);
+        assertEquals(1, train.getState(SimulationTime.fromMillis(9)).getSpeed(), 0.1);
+    }
+
+    @Test
+    public void testInitPositionAfterFirstReach() {
+        Edge[] edges = createEdges(20, 50);
+        Train train = Train.in(context).create("t", "train", 10);
+        train.eventFactory().init(0, edges[1]);
+        train.eventFactory().move(10, 5);
+        // caches the states before the first reach is known
+        Position before = train.getState(10).getPosition();
+
+        // the first reach turns the train around
+        train.eventFactory().reach(20, edges[0], 5);
+        Train expected = Train.in(context).create("expected", "train", 10);
+        expected.eventFactory().init(0, edges[1]);
+        expected.eventFactory().move(10, 5);
+        expected.eventFactory().reach(20, edges[0], 5);
+
+        for (long time = 0; time <= 20; time += 5) {
+            Position position = train.getState(time).getPosition();
+            Position expectedPosition = expected.getState(time).getPosition();
+            assertEquals(expectedPosition.getFrontCoordinates(), position.getFrontCoordinates());
+            assertEquals(expectedPosition.getBackCoordinates(), position.getBackCoordinates());
+        }
+        assertNotEquals(before.getFrontCoordinates(),
+            train.getState(10).getPosition().getFrontCoordinates());
     }
 
     @Test
@@ -473,10 +500,10 @@ public class TrainTest extends FactoryTest<Train> {
         Edge[] edges = createEdges(110, 20);
         train.eventFactory().init(0, edges[0]);
 
-        train.eventFactory().reach(10000, edges[1], 100);
-        train.eventFactory().speed(10000, 0, 10);
+        train.eventFactory().reach(SimulationTime.fromMillis(10000), edges[1], 100);
+        train.eventFactory().speed(SimulationTime.fromMillis(10000), 0, 10);
 
-        Train.State state = train.getState(10000);
+        Train.State state = train.getState(SimulationTime.fromMillis(10000));
         assertEquals(0, state.getPosition().getFrontDistance());
         assertEquals(10, state.getSpeed(), 0.05);
         assertEquals(100, state.getTotalDistance());
@@ -553,7 +580,7 @@ public class TrainTest extends FactoryTest<Train> {
             }
 
             @Override
-            public int getTime() {
+            public long getTime() {
                 return 0;
             }
 
@@ -693,6 +720,25 @@ public class TrainTest extends FactoryTest<Train> {
         assertEquals(beforeEvent.getTime(), newEvent.getTime());
     }
 
+    @Test
+    public void testSpeedWarningNotRepeated() {
+        Train train = Train.in(context).create("t", "train", 10);
+        Edge[] edges = createEdges(100, 100);
+        train.eventFactory().init(0, edges[0]);
+        train.eventFactory().speed(SimulationTime.fromSeconds(1), 10, 99);
+        train.eventFactory().speed(SimulationTime.fromSeconds(2), 10, 10);
+        train.getState(SimulationTime.fromSeconds(2));
+
+        // the first reach event discards the cached states, which are built again
+        train.eventFactory().reach(SimulationTime.fromSeconds(3), edges[1], 70);
+        train.getState(SimulationTime.fromSeconds(3));
+
+        long speedWarnings = train.getEvents().get(3).getWarnings().stream()
+            .filter(warning -> warning.startsWith("Expected speed"))
+            .count();
+        assertEquals(1, speedWarnings);
+    }
+
     @Test
     public void testToString() {
         Train train = createRandom(context);
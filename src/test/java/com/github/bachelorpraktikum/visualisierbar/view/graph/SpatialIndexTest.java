@@ -0,0 +1,164 @@
+package com.github.bachelorpraktikum.visualisierbar.view.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import org.junit.Test;
+
+public class SpatialIndexTest {
+
+    private static Point2D randomPoint(Random random, double size) {
+        return new Point2D(random.nextDouble() * size - size / 2,
+            random.nextDouble() * size - size / 2);
+    }
+
+    private static double segmentDistance(Point2D point, Point2D start, Point2D end) {
+        Point2D direction = end.subtract(start);
+        double lengthSquared = direction.dotProduct(direction);
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = Math.max(0, Math.min(1, point.subtract(start).dotProduct(direction)
+                / lengthSquared));
+        }
+        return start.add(direction.multiply(t)).distance(point);
+    }
+
+    private static boolean segmentIntersects(Point2D start, Point2D end, Bounds bounds) {
+        // sample the segment densely, which is good enough for random data
+        for (int i = 0; i <= 10000; i++) {
+            Point2D point = start.add(end.subtract(start).multiply(i / 10000.0));
+            if (bounds.contains(point)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testPoints() {
+        SpatialIndex<Integer> index = new SpatialIndex<>(1);
+        index.put(1, new Point2D(0.5, 0.5));
+        index.put(2, new Point2D(3, 3));
+        index.put(3, new Point2D(-2, 1));
+
+        assertEquals(Collections.singletonList(1), index.query(new BoundingBox(0, 0, 1, 1)));
+        assertEquals(new HashSet<>(Arrays.asList(1, 3)),
+            new HashSet<>(index.query(new BoundingBox(-2, 0, 3, 1))));
+        assertEquals(3, index.size());
+        assertEquals(Integer.valueOf(2), index.nearest(new Point2D(10, 10), Double.MAX_VALUE));
+        assertNull(index.nearest(new Point2D(10, 10), 5));
+    }
+
+    @Test
+    public void testMoveAndRemove() {
+        SpatialIndex<String> index = new SpatialIndex<>(2);
+        index.put("a", new Point2D(0, 0));
+        index.put("a", new Point2D(10, 10));
+        assertEquals(1, index.size());
+        assertTrue(index.query(new BoundingBox(-1, -1, 2, 2)).isEmpty());
+        assertEquals(Collections.singletonList("a"), index.query(new BoundingBox(9, 9, 2, 2)));
+
+        assertTrue(index.remove("a"));
+        assertFalse(index.remove("a"));
+        assertFalse(index.contains("a"));
+        assertTrue(index.query(new BoundingBox(9, 9, 2, 2)).isEmpty());
+        assertNull(index.nearest(new Point2D(0, 0), Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void testLongDiagonalSegment() {
+        SpatialIndex<String> index = new SpatialIndex<>(1);
+        index.putSegment("edge", new Point2D(0, 0), new Point2D(1000, 1000));
+        // the bounding box contains the point, but the segment doesn't pass it
+        assertTrue(index.query(new BoundingBox(900, 10, 1, 1)).isEmpty());
+        assertEquals(Collections.singletonList("edge"),
+            index.query(new BoundingBox(499.9, 499.9, 0.2, 0.2)));
+        assertEquals("edge", index.nearest(new Point2D(600, 400), 142));
+        assertNull(index.nearest(new Point2D(600, 400), 141));
+    }
+
+    @Test
+    public void testSameAsLinearSearch() {
+        Random random = new Random(42);
+        SpatialIndex<Integer> index = new SpatialIndex<>(3);
+        Map<Integer, Point2D[]> objects = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            Point2D start = randomPoint(random, 100);
+            if (random.nextBoolean()) {
+                index.put(i, start);
+                objects.put(i, new Point2D[]{start});
+            } else {
+                Point2D end = start.add(randomPoint(random, 40));
+                index.putSegment(i, start, end);
+                objects.put(i, new Point2D[]{start, end});
+            }
+        }
+        // move and remove some objects
+        for (int i = 0; i < 100; i++) {
+            int object = random.nextInt(500);
+            if (random.nextBoolean()) {
+                index.remove(object);
+                objects.remove(object);
+            } else {
+                Point2D point = randomPoint(random, 100);
+                index.put(object, point);
+                objects.put(object, new Point2D[]{point});
+            }
+        }
+        assertEquals(objects.size(), index.size());
+
+        for (int i = 0; i < 200; i++) {
+            Point2D corner = randomPoint(random, 120);
+            Bounds bounds = new BoundingBox(corner.getX(), corner.getY(),
+                random.nextDouble() * 20, random.nextDouble() * 20);
+            List<Integer> expected = new ArrayList<>();
+            objects.forEach((object, points) -> {
+                boolean contained = points.length == 1 ? bounds.contains(points[0])
+                    : segmentIntersects(points[0], points[1], bounds);
+                if (contained) {
+                    expected.add(object);
+                }
+            });
+            List<Integer> actual = index.query(bounds);
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals(expected, actual);
+
+            Point2D point = randomPoint(random, 150);
+            double best = Double.POSITIVE_INFINITY;
+            for (Point2D[] points : objects.values()) {
+                double distance = points.length == 1 ? points[0].distance(point)
+                    : segmentDistance(point, points[0], points[1]);
+                best = Math.min(best, distance);
+            }
+            Integer nearest = index.nearest(point, Double.POSITIVE_INFINITY);
+            Point2D[] points = objects.get(nearest);
+            double distance = points.length == 1 ? points[0].distance(point)
+                : segmentDistance(point, points[0], points[1]);
+            assertEquals(best, distance, 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotFinite() {
+        new SpatialIndex<String>(1).put("a", new Point2D(Double.NaN, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCellSize() {
+        new SpatialIndex<String>(0);
+    }
+}